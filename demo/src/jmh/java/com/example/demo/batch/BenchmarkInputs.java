@@ -0,0 +1,38 @@
+package com.example.demo.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * benchmark 용 입력 파일 생성.
+ */
+public final class BenchmarkInputs {
+
+	public static final String PR_LINE = "PR....210,BlackBerry 8100 Pearl,,124.60";
+
+	private BenchmarkInputs() {
+	}
+
+	/**
+	 * sample1.txt 와 같은 형식 (헤더 2줄 + PR* 줄, 10줄마다 P2* 줄) 으로 lines 줄을 만든다.
+	 * P2* 줄은 sample1.txt 처럼 2 컬럼 (tokenizer 는 non-strict 라 나머지 컬럼은 비어 있음).
+	 */
+	public static Path productFile(int lines) throws IOException {
+		Path file = Files.createTempFile("bench-product-", ".txt");
+		file.toFile().deleteOnExit();
+		try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			w.write("PR....,NAME,\nDESCRIPTION,PRICE\n");
+			for (int i = 0; i < lines; i++) {
+				if (i % 10 == 9) {
+					w.write("P2....AA,BB\n");
+				} else {
+					w.write("PR...." + (200 + i % 1000) + ",Product name " + i + ",," + (i % 500) + "." + (i % 100) + "\n");
+				}
+			}
+		}
+		return file;
+	}
+}
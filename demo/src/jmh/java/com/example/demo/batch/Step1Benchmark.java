@@ -0,0 +1,155 @@
+package com.example.demo.batch;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.batch.config.BatchConfiguration;
+import com.example.demo.batch.config.JobCompletionNotificationListener;
+import com.example.demo.batch.config.RemotePartitionConfiguration;
+import com.example.demo.batch.partition.InputResourceIndex;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * importUserJob 전체 처리 시간. BatchConfiguration 의 bean(masterStep -> step1 의 reader/processor/writer, metrics
+ * listener)을 그대로 띄우고 embedded H2 에 job repository 와 tbl_test 를 만들어 실행한다.
+ * 한 번의 호출이 lines 줄짜리 파일 하나를 import 하는 job 실행이다. min-split-bytes 를 크게 잡아 partition 은 하나.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class Step1Benchmark {
+
+	@Param({ "50000" })
+	public int lines;
+
+	// batch.chunk.size
+	@Param({ "10", "1000" })
+	public int chunkSize;
+
+	// batch.reader.mode (flatfile : FlatFileItemReader + productLineMapper(), mapped : MappedProductFileReader)
+	@Param({ "flatfile", "mapped" })
+	public String reader;
+
+	@Configuration
+	@EnableBatchProcessing
+	@Import({ BatchConfiguration.class, RemotePartitionConfiguration.class, JobCompletionNotificationListener.class })
+	static class BenchmarkConfig {
+
+		@Bean
+		DataSource dataSource() {
+			return new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+					.addScript("/org/springframework/batch/core/schema-h2.sql").build();
+		}
+
+		@Bean
+		PlatformTransactionManager transactionManager(DataSource dataSource) {
+			return new DataSourceTransactionManager(dataSource);
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate(DataSource dataSource) {
+			return new JdbcTemplate(dataSource);
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		InputResourceIndex inputResourceIndex(@Value("${batch.partition.resource-pattern}") String pattern) {
+			return new InputResourceIndex(pattern, 30_000);
+		}
+	}
+
+	private AnnotationConfigApplicationContext context;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TaskExecutorJobLauncher jobLauncher;
+
+	private Job job;
+
+	private long run;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Path input = BenchmarkInputs.productFile(lines);
+
+		context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("step1Benchmark", Map.of(
+				"batch.partition.resource-pattern", input.toUri().toString(),
+				"batch.partition.min-split-bytes", String.valueOf(Long.MAX_VALUE / 2),
+				"batch.reader.mode", reader,
+				"batch.chunk.size", String.valueOf(chunkSize))));
+		context.register(BenchmarkConfig.class);
+		context.refresh();
+
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		jdbcTemplate.execute("CREATE TABLE tbl_test (c1 VARCHAR(100), c2 VARCHAR(100), c3 VARCHAR(100),"
+				+ " c4 VARCHAR(100), c5 VARCHAR(100), c6 VARCHAR(100))");
+		// @EnableBatchProcessing 의 jobLauncher 는 taskExecutor bean 으로 비동기 실행되므로, 앱(boot)처럼 동기 launcher
+		jobLauncher = new TaskExecutorJobLauncher();
+		jobLauncher.setJobRepository(context.getBean(JobRepository.class));
+		jobLauncher.afterPropertiesSet();
+		job = context.getBean("importUserJob", Job.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void truncate() {
+		jdbcTemplate.execute("TRUNCATE TABLE tbl_test");
+	}
+
+	@Benchmark
+	public JobExecution step1() throws Exception {
+		JobExecution execution = jobLauncher.run(job,
+				new JobParametersBuilder().addLong("run", ++run).toJobParameters());
+		if (execution.getStatus() != BatchStatus.COMPLETED) {
+			throw new IllegalStateException("step1 failed : " + execution.getAllFailureExceptions());
+		}
+		return execution;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+}
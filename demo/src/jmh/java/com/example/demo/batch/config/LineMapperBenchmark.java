@@ -0,0 +1,53 @@
+package com.example.demo.batch.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.batch.item.file.transform.LineTokenizer;
+
+import com.example.demo.batch.BenchmarkInputs;
+
+/**
+ * BatchConfiguration.productLineMapper() 한 줄 처리 비용.
+ * tokenize : DelimitedLineTokenizer 만, mapLine : prefix 매칭 + tokenize + FieldSetMapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LineMapperBenchmark {
+
+	private LineMapper<SampleData> lineMapper;
+
+	private LineTokenizer tokenizer;
+
+	private int lineNumber;
+
+	@Setup
+	public void setup() throws Exception {
+		BatchConfiguration config = new BatchConfiguration(null);
+		lineMapper = config.productLineMapper();
+		tokenizer = config.mobilePhoneProductLineTokenizer();
+	}
+
+	@Benchmark
+	public FieldSet tokenize() {
+		return tokenizer.tokenize(BenchmarkInputs.PR_LINE);
+	}
+
+	@Benchmark
+	public SampleData mapLine() throws Exception {
+		return lineMapper.mapLine(BenchmarkInputs.PR_LINE, ++lineNumber);
+	}
+}
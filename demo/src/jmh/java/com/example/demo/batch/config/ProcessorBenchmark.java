@@ -0,0 +1,44 @@
+package com.example.demo.batch.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SampleDataItemProcessor trace 모드별 비용. ALL 이 예전(모든 item INFO 로그) 동작과 같다.
+ * 로그는 src/jmh/resources/logback.xml 의 파일 appender 로 나간다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProcessorBenchmark {
+
+	@Param({ "OFF", "SAMPLED", "ALL" })
+	public SampleDataItemProcessor.Trace trace;
+
+	private SampleDataItemProcessor processor;
+
+	private SampleData item;
+
+	@Setup
+	public void setup() {
+		processor = new SampleDataItemProcessor(trace, 1000);
+		item = new SampleData("PR....210", "BlackBerry 8100 Pearl", "", "124.60", null, null);
+	}
+
+	@Benchmark
+	public SampleData process() throws Exception {
+		return processor.process(item);
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.demo.batch.reader;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.transform.DefaultFieldSet;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.validation.BindException;
+
+import com.example.demo.batch.config.SampleData;
+
+/**
+ * mobilePhoneProductFieldSetMapper() 비교.
+ * beanWrapper : 기존 BeanWrapperFieldSetMapper + prototype bean(mobilePhoneProduct)
+ * setter : SetterFieldSetMapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FieldSetMapperBenchmark {
+
+	private static final String[] NAMES = { "c1", "c2", "c3", "c4" };
+
+	private FieldSet fieldSet;
+
+	private BeanWrapperFieldSetMapper<SampleData> beanWrapperMapper;
+
+	private SetterFieldSetMapper<SampleData> setterMapper;
+
+	@Setup
+	public void setup() throws Exception {
+		fieldSet = new DefaultFieldSet(new String[] { "PR....210", "BlackBerry 8100 Pearl", "", "124.60" }, NAMES);
+
+		// 기존 설정과 같이 prototype bean 으로 생성
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition definition = new RootBeanDefinition(SampleData.class);
+		definition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		beanFactory.registerBeanDefinition("mobilePhoneProduct", definition);
+
+		beanWrapperMapper = new BeanWrapperFieldSetMapper<>();
+		beanWrapperMapper.setPrototypeBeanName("mobilePhoneProduct");
+		beanWrapperMapper.setBeanFactory(beanFactory);
+		beanWrapperMapper.afterPropertiesSet();
+
+		setterMapper = new SetterFieldSetMapper<>(SampleData.class, SampleData::new, NAMES);
+	}
+
+	@Benchmark
+	public SampleData beanWrapper() throws BindException {
+		return beanWrapperMapper.mapFieldSet(fieldSet);
+	}
+
+	@Benchmark
+	public SampleData setter() {
+		return setterMapper.mapFieldSet(fieldSet);
+	}
+}
@@ -0,0 +1,215 @@
+package com.example.demo.batch.compute;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * tasklet 들이 같이 쓰는 병렬 계산용 ForkJoinPool.
+ * <p>
+ * 실행마다 pool 을 만들지 않고 애플리케이션에 하나만 두어 워커 스레드를 재사용한다.
+ * <ul>
+ * <li>parallelism : 0 이면 CPU 수 - 1 (최소 1). 작업이 block 되면 max-spare-threads 까지만 보충 스레드를 만든다.</li>
+ * <li>max-queued-tasks : 대기+실행 중 작업 수 상한. 넘으면 제출하는 쪽이 기다린다 (saturation 으로 집계).</li>
+ * </ul>
+ * {@link #invokeAll(StepContribution, List)} 는 모든 작업이 끝날 때까지 기다리므로 병렬 작업이 step 안에서 끝난다.
+ * 기다리는 동안 step 이 중지 요청(terminateOnly)되거나 스레드가 interrupt 되면 남은 작업을 취소(실행 중이면 interrupt)한다.
+ */
+@Slf4j
+@Component
+public class ParallelComputeService implements DisposableBean {
+
+	private final ForkJoinPool pool;
+
+	private final Semaphore permits;
+
+	private final int maxQueuedTasks;
+
+	private final long joinPollMillis;
+
+	private final LongAdder submitted = new LongAdder();
+
+	private final LongAdder completed = new LongAdder();
+
+	private final LongAdder failed = new LongAdder();
+
+	private final LongAdder cancelled = new LongAdder();
+
+	// 제출 시 permit 이 없어 기다린 횟수
+	private final LongAdder saturated = new LongAdder();
+
+	private final LongAccumulator peakActive = new LongAccumulator(Math::max, 0);
+
+	public ParallelComputeService(@Value("${batch.compute.parallelism:0}") int parallelism,
+			@Value("${batch.compute.max-spare-threads:4}") int maxSpareThreads,
+			@Value("${batch.compute.max-queued-tasks:256}") int maxQueuedTasks,
+			@Value("${batch.compute.join-poll-ms:200}") long joinPollMillis) {
+		int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		this.pool = new ForkJoinPool(threads, ParallelComputeService::newWorker, null, true, 0,
+				threads + Math.max(0, maxSpareThreads), 1, p -> true, 60, TimeUnit.SECONDS);
+		this.maxQueuedTasks = Math.max(1, maxQueuedTasks);
+		this.permits = new Semaphore(this.maxQueuedTasks);
+		this.joinPollMillis = Math.max(10, joinPollMillis);
+		log.info("compute pool : parallelism {}, max spare threads {}, max queued tasks {}", threads,
+				maxSpareThreads, this.maxQueuedTasks);
+	}
+
+	/**
+	 * 작업들을 pool 에서 실행하고 모두 끝날 때까지 기다린다. 결과는 tasks 순서.
+	 * 하나라도 실패하면 나머지를 취소하고 그 예외를 던진다.
+	 *
+	 * @throws JobInterruptedException step 중지 요청 또는 interrupt 로 취소된 경우
+	 */
+	public <T> List<T> invokeAll(StepContribution contribution, List<? extends Callable<T>> tasks) throws Exception {
+		List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+		try {
+			for (Callable<T> task : tasks) {
+				futures.add(submit(task));
+			}
+
+			List<T> results = new ArrayList<>(futures.size());
+			for (FutureTask<T> future : futures) {
+				results.add(join(contribution, future));
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JobInterruptedException("parallel tasks interrupted");
+		} finally {
+			// 정상 종료면 모두 done 이라 아무것도 하지 않음
+			for (FutureTask<T> future : futures) {
+				if (future.cancel(true)) {
+					cancelled.increment();
+				}
+			}
+		}
+	}
+
+	public void runAll(StepContribution contribution, List<? extends Runnable> tasks) throws Exception {
+		List<Callable<Void>> callables = new ArrayList<>(tasks.size());
+		for (Runnable task : tasks) {
+			callables.add(() -> {
+				task.run();
+				return null;
+			});
+		}
+		invokeAll(contribution, callables);
+	}
+
+	/**
+	 * 완료를 기다리지 않는 일반 Executor 로 쓸 때 (예: WordCountEngine). max-queued-tasks 는 적용되지 않는다.
+	 */
+	public Executor executor() {
+		return pool;
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	public Map<String, Number> snapshot() {
+		Map<String, Number> metrics = new LinkedHashMap<>();
+		metrics.put("parallelism", pool.getParallelism());
+		metrics.put("poolSize", pool.getPoolSize());
+		metrics.put("activeThreads", pool.getActiveThreadCount());
+		metrics.put("runningThreads", pool.getRunningThreadCount());
+		metrics.put("peakActiveThreads", peakActive.get());
+		metrics.put("queuedSubmissions", pool.getQueuedSubmissionCount());
+		metrics.put("queuedTasks", pool.getQueuedTaskCount());
+		metrics.put("steals", pool.getStealCount());
+		metrics.put("inFlightTasks", maxQueuedTasks - permits.availablePermits());
+		metrics.put("submitted", submitted.sum());
+		metrics.put("completed", completed.sum());
+		metrics.put("failed", failed.sum());
+		metrics.put("cancelled", cancelled.sum());
+		metrics.put("saturated", saturated.sum());
+		return metrics;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		pool.shutdownNow();
+		if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+			log.warn("compute pool did not terminate in 10s");
+		}
+	}
+
+	private <T> FutureTask<T> submit(Callable<T> task) throws InterruptedException {
+		if (!permits.tryAcquire()) {
+			saturated.increment();
+			log.debug("compute pool saturated : {}", snapshot());
+			permits.acquire();
+		}
+
+		FutureTask<T> future = new FutureTask<>(task) {
+			@Override
+			public void run() {
+				peakActive.accumulate(pool.getActiveThreadCount());
+				super.run();
+			}
+
+			@Override
+			protected void done() {
+				permits.release();
+			}
+		};
+		submitted.increment();
+		try {
+			pool.execute(future);
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+		return future;
+	}
+
+	private <T> T join(StepContribution contribution, FutureTask<T> future) throws Exception {
+		while (true) {
+			if (contribution != null && contribution.getStepExecution().isTerminateOnly()) {
+				throw new JobInterruptedException("step stop requested while waiting for parallel tasks");
+			}
+			try {
+				T result = future.get(joinPollMillis, TimeUnit.MILLISECONDS);
+				completed.increment();
+				return result;
+			} catch (TimeoutException e) {
+				// 중지 요청 확인 후 다시 대기
+			} catch (CancellationException e) {
+				throw new JobInterruptedException("parallel task cancelled");
+			} catch (ExecutionException e) {
+				failed.increment();
+				if (e.getCause() instanceof Exception cause) {
+					throw cause;
+				}
+				throw e;
+			}
+		}
+	}
+
+	private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("compute-" + thread.getPoolIndex());
+		return thread;
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.demo.batch.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+/**
+ * 측정한 chunk 처리 시간(read ~ commit)으로 chunk 크기를 조절하는 completion policy.
+ * <p>
+ * 매 chunk 가 끝나면 item 당 시간을 구해서 targetMillis 안에 끝날 크기로 맞춘다.
+ * 한 번에 2배 이상 커지거나 절반 이하로 줄지 않고, [min, max] 범위를 벗어나지 않는다. rollback 된 chunk 뒤에는 절반으로 줄인다.
+ * 선택된 크기는 step ExecutionContext 의 {@value #CHUNK_SIZE_KEY} 에 남고, 재시작하면 그 크기부터 시작한다.
+ * <p>
+ * partition 마다 따로 조절되어야 하므로 @StepScope bean 으로 쓰고 step 의 ChunkListener, StepExecutionListener 로도 등록한다.
+ */
+public class AdaptiveChunkCompletionPolicy extends SimpleCompletionPolicy implements ChunkListener, StepExecutionListener {
+
+	private static final Logger log = LoggerFactory.getLogger(AdaptiveChunkCompletionPolicy.class);
+
+	public static final String CHUNK_SIZE_KEY = "adaptiveChunk.size";
+
+	private final int minSize;
+
+	private final int maxSize;
+
+	private final long targetNanos;
+
+	private long chunkStart;
+
+	private long readCountBefore;
+
+	public AdaptiveChunkCompletionPolicy(int initialSize, int minSize, int maxSize, long targetMillis) {
+		super(clamp(initialSize, minSize, maxSize));
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.targetNanos = targetMillis * 1_000_000L;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		if (stepExecution.getExecutionContext().containsKey(CHUNK_SIZE_KEY)) {
+			setChunkSize(clamp(stepExecution.getExecutionContext().getInt(CHUNK_SIZE_KEY), minSize, maxSize));
+		}
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		log.info("{} : final chunk size {}", stepExecution.getStepName(), getChunkSize());
+		return null;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		readCountBefore = context.getStepContext().getStepExecution().getReadCount();
+		chunkStart = System.nanoTime();
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		long elapsed = System.nanoTime() - chunkStart;
+		StepExecution stepExecution = context.getStepContext().getStepExecution();
+		long items = stepExecution.getReadCount() - readCountBefore;
+
+		// 마지막 chunk 처럼 덜 찬 chunk 는 측정에서 제외
+		if (items >= getChunkSize() && elapsed > 0) {
+			double perItem = (double) elapsed / items;
+			int current = getChunkSize();
+			int next = (int) Math.round(targetNanos / perItem);
+			next = Math.max(current / 2, Math.min(current * 2, next));
+			setChunkSize(clamp(next, minSize, maxSize));
+		}
+		stepExecution.getExecutionContext().putInt(CHUNK_SIZE_KEY, getChunkSize());
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		setChunkSize(clamp(getChunkSize() / 2, minSize, maxSize));
+	}
+
+	private static int clamp(int size, int min, int max) {
+		return Math.max(min, Math.min(max, size));
+	}
+}
@@ -1,31 +1,43 @@
 package com.example.demo.batch.config;
 
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.job.flow.JobExecutionDecider;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.partition.support.MultiResourcePartitioner;
 import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
 import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
 import org.springframework.batch.item.file.LineMapper;
 import org.springframework.batch.item.file.MultiResourceItemReader;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
 import org.springframework.batch.item.file.mapping.FieldSetMapper;
 import org.springframework.batch.item.file.mapping.PatternMatchingCompositeLineMapper;
 import org.springframework.batch.item.file.transform.DefaultFieldSet;
@@ -34,6 +46,8 @@ import org.springframework.batch.item.file.transform.FixedLengthTokenizer;
 import org.springframework.batch.item.file.transform.LineTokenizer;
 import org.springframework.batch.item.file.transform.PatternMatchingCompositeLineTokenizer;
 import org.springframework.batch.item.file.transform.Range;
+import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
+import org.springframework.batch.item.support.CompositeItemProcessor;
 import org.springframework.batch.item.support.SingleItemPeekableItemReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -44,14 +58,31 @@ import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import com.example.demo.batch.metrics.BatchMetricsListener;
+import com.example.demo.batch.model.RecordSchema;
+import com.example.demo.batch.partition.ByteRangeResource;
+import com.example.demo.batch.partition.IndexedPartitioner;
+import com.example.demo.batch.partition.InputResourceIndex;
+import com.example.demo.batch.partition.JdbcPartitionQueue;
+import com.example.demo.batch.partition.JdbcQueuePartitionHandler;
+import com.example.demo.batch.reader.ContentSniffingItemReader;
+import com.example.demo.batch.reader.MappedProductFileReader;
+import com.example.demo.batch.reader.RangeBarFileReader;
+import com.example.demo.batch.reader.SetterFieldSetMapper;
+import com.example.demo.batch.utils.VirtualThreads;
+import com.example.demo.batch.writer.ColumnarJdbcItemWriter;
+import com.example.demo.batch.writer.PgCopyItemWriter;
+import com.example.demo.heatmap.RangeTable;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 import lombok.RequiredArgsConstructor;
 
 
@@ -66,47 +97,110 @@ public class BatchConfiguration {
 	private final PatternMatchingCompositeLineMapper<SampleData> mapper = new PatternMatchingCompositeLineMapper<>();
 
 	@Autowired
-	private FlatFileItemReader<SampleData> personItemReader;
+	private ItemStreamReader<SampleData> personItemReader;
 	
 	@Autowired
-	private JdbcBatchItemWriter<SampleData> personItemWriter;
+	private ItemWriter<SampleData> personItemWriter;
 
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private InputResourceIndex inputResourceIndex;
+    
+    @Autowired
+    private JdbcPartitionQueue partitionQueue;
+    
+    @Autowired
+    private JobExplorer jobExplorer;
+    
+    // local : 이 JVM 의 partitionTaskExecutor() 에서 실행, remote : partition_request_queue 로 보내 worker 노드들이 실행
+    @Value("${batch.partition.mode:local}")
+    private String partitionMode;
+    
+    // remote 모드 : partition 완료 확인 주기, 전체 대기 시간 (0 이면 무제한)
+    @Value("${batch.partition.remote.poll-ms:1000}")
+    private long remotePollMillis;
+    
+    @Value("${batch.partition.remote.timeout-ms:3600000}")
+    private long remoteTimeoutMillis;
+    
+    // rangeBar 구간 테이블 (HeatmapService 와 같은 값)
+    @Value("${heatmap.table:tbl_range}")
+    private String rangeTable;
+    
+    private volatile boolean rangeTableCreated = false;
+    
+    // platform : taskExecutor() 스레드 풀, virtual : virtual thread (Java 21+, 아니면 platform 으로 대체)
+    @Value("${batch.partition.executor:platform}")
+    private String partitionExecutor;
+    
+    // virtual 모드에서 동시 partition 수 = hikari 최대 커넥션 수 - reserve (job repository, quartz 등)
+    @Value("${batch.partition.connection-reserve:2}")
+    private int connectionReserve;
+    
+    // .txt(PR*, P2*) reader. flatfile : FlatFileItemReader + productLineMapper(), mapped : MappedProductFileReader
+    @Value("${batch.reader.mode:flatfile}")
+    private String readerMode;
+    
+    // jdbc : ColumnarJdbcItemWriter (INSERT), copy : PostgreSQL COPY (PgCopyItemWriter)
+    @Value("${batch.writer.mode:jdbc}")
+    private String writerMode;
+    
+    // step1 chunk 크기. fixed : chunk-size 고정, adaptive : commit 시간이 target-ms 에 가깝도록 [min-size, max-size] 에서 조절
+    @Value("${batch.chunk.mode:fixed}")
+    private String chunkMode;
+    
+    @Value("${batch.chunk.size:10}")
+    private int chunkSize;
+    
+    @Value("${batch.chunk.min-size:10}")
+    private int chunkMinSize;
+    
+    @Value("${batch.chunk.max-size:5000}")
+    private int chunkMaxSize;
+    
+    @Value("${batch.chunk.target-ms:500}")
+    private long chunkTargetMillis;
+    
+    // processor 체인. required-columns : 비어 있으면 filter 할 컬럼, trim : 값 공백 제거
+    @Value("${batch.processor.required-columns:}")
+    private String[] processorRequiredColumns;
+    
+    @Value("${batch.processor.trim:false}")
+    private boolean processorTrim;
+    
+    // off : 로그 없음, sampled : trace-interval-ms 마다 한 건, all : 모든 item 로그
+    @Value("${batch.processor.trace:off}")
+    private String processorTrace;
+    
+    @Value("${batch.processor.trace-interval-ms:1000}")
+    private long processorTraceIntervalMillis;
+    
+    // c1..c6 중 STRING 이 아닌 컬럼 타입 (예: c4:decimal(2)). reader 에서 한 번 파싱하고 writer 는 타입대로 bind
+    @Value("${batch.record.types:}")
+    private String recordTypes;
+    
+    // 타입 컬럼 값을 읽을 수 없는 줄(FlatFileParseException)을 step 마다 이 수까지 건너뜀. 0 이면 첫 오류에서 step 실패
+    @Value("${batch.record.skip-limit:0}")
+    private int recordSkipLimit;
+    
+    // 이 크기보다 큰 파일은 byte range partition 으로 나눔
+    @Value("${batch.partition.min-split-bytes:262144}")
+    private long minSplitBytes;
+    
+    // step1 단계별 chunk/item 지표 (BatchMetricsListener). partition-tag=false 면 partition 태그를 none 으로 (series 수 줄임)
+    @Value("${batch.metrics.enabled:true}")
+    private boolean metricsEnabled;
+    
+    @Value("${batch.metrics.partition-tag:true}")
+    private boolean metricsPartitionTag;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
     
+    // 파일 목록/크기와 partition 계획은 InputResourceIndex 에 캐시됨 (step 마다 다시 스캔하지 않음)
     @StepScope
 	@Bean("partitioner")
 	Partitioner partitioner() {
-		log.info("In Partitioner");
-		
-		
-		jdbcTemplate.query("SELECT first_name as c1, last_name as c2, '' as c3, '' as c4, '' as c5, '' as c6 FROM people limit 1",
-					(rs, row) -> new SampleData(
-						rs.getString(1),
-						rs.getString(2),
-						rs.getString(3),
-						rs.getString(4),
-						rs.getString(5),
-						rs.getString(6)
-						)
-				).forEach(person -> log.info("Found <" + person + "> in the database."));
-
-		MultiResourcePartitioner partitioner = new MultiResourcePartitioner();
-		ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-		Resource[] resources = null;
-		try {
-			resources = resolver.getResources("./input/*.*");
-			
-			int s = resources.length;
-			
-			log.info(">>>>>>>>>>>>>>>>>>>>>>>> resource size : "+s);
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		partitioner.setResources(resources);
-		partitioner.partition(10);
-		return partitioner;
+		return new IndexedPartitioner(inputResourceIndex, minSplitBytes);
 	}
     
 	@Bean(name = "importUserJob")
@@ -128,10 +222,20 @@ public class BatchConfiguration {
 	@Bean
 	@Qualifier("masterStep")
 	Step masterStep(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
+		if ("remote".equalsIgnoreCase(partitionMode)) {
+			JdbcQueuePartitionHandler handler = new JdbcQueuePartitionHandler(partitionQueue, jobExplorer, "step1");
+			handler.setGridSize(10);
+			handler.setPollMillis(remotePollMillis);
+			handler.setTimeoutMillis(remoteTimeoutMillis);
+			return new StepBuilder("masterStep", jobRepository)
+					.partitioner("step1", partitioner())
+					.partitionHandler(handler)
+					.build();
+		}
 		return new StepBuilder("masterStep", jobRepository)
 				.partitioner("step1", partitioner())				
 				.step(step1(jobRepository, transactionManager))
-				.taskExecutor(taskExecutor())
+				.taskExecutor(partitionTaskExecutor())
 				.gridSize(10)
 				.build();
 	}
@@ -139,46 +243,141 @@ public class BatchConfiguration {
 	
 	@Bean
 	Step step1(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
-		return new StepBuilder("step1", jobRepository)
-				.<SampleData, SampleData>chunk(10, transactionManager)
+		if("adaptive".equalsIgnoreCase(chunkMode)) {
+			AdaptiveChunkCompletionPolicy chunkPolicy = chunkCompletionPolicy();
+			return withMetrics(withSkip(new StepBuilder("step1", jobRepository)
+					.<SampleData, SampleData>chunk(chunkPolicy, transactionManager)
+					.reader(personItemReader)
+					.processor(processor())
+					.writer(personItemWriter)
+					.listener((StepExecutionListener) sampleDataItemProcessor())
+					.listener((StepExecutionListener) chunkPolicy)
+					.listener((ChunkListener) chunkPolicy)))
+					.build();
+		}
+		
+		return withMetrics(withSkip(new StepBuilder("step1", jobRepository)
+				.<SampleData, SampleData>chunk(chunkSize, transactionManager)
 				.reader(personItemReader)
 				.processor(processor())
 				.writer(personItemWriter)
+				.listener((StepExecutionListener) sampleDataItemProcessor())))
 				.build();
 	}
+	
+	// 읽을 수 없는 줄은 건너뛰고 read skip count 로 남김 (batch_step_execution.read_skip_count)
+	private SimpleStepBuilder<SampleData, SampleData> withSkip(SimpleStepBuilder<SampleData, SampleData> builder) {
+		if (recordSkipLimit <= 0) {
+			return builder;
+		}
+		return builder.faultTolerant()
+				.skip(FlatFileParseException.class)
+				.skipLimit(recordSkipLimit);
+	}
+	
+	private SimpleStepBuilder<SampleData, SampleData> withMetrics(SimpleStepBuilder<SampleData, SampleData> builder) {
+		if (!metricsEnabled) {
+			return builder;
+		}
+		BatchMetricsListener<SampleData, SampleData> metrics = batchMetricsListener();
+		builder.listener((StepExecutionListener) metrics);
+		builder.listener((ChunkListener) metrics);
+		builder.listener((ItemReadListener<SampleData>) metrics);
+		builder.listener((ItemProcessListener<SampleData, SampleData>) metrics);
+		builder.listener((ItemWriteListener<SampleData>) metrics);
+		return builder;
+	}
+	
+	// singleton. partition 별 상태는 listener 가 실행 스레드에 묶어 둠 (item 마다 step scope proxy 를 거치지 않음)
+	@Bean
+	BatchMetricsListener<SampleData, SampleData> batchMetricsListener() {
+		return new BatchMetricsListener<>(meterRegistry, metricsPartitionTag);
+	}
+	
+	// partition(step execution) 마다 따로 크기를 조절
+	@Bean
+	@StepScope
+	AdaptiveChunkCompletionPolicy chunkCompletionPolicy() {
+		return new AdaptiveChunkCompletionPolicy(chunkSize, chunkMinSize, chunkMaxSize, chunkTargetMillis);
+	}
 
 	@Bean
 	@StepScope
 	@Qualifier("personItemReader")
 	@DependsOn("partitioner")
-	FlatFileItemReader<SampleData> personItemReader(@Value("#{stepExecutionContext['fileName']}") String filename)
+	ItemStreamReader<SampleData> personItemReader(@Value("#{stepExecutionContext['fileName']}") String filename,
+			@Value("#{stepExecutionContext['fileNames']}") String filenames,
+			@Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+			@Value("#{stepExecutionContext['endOffset']}") Long endOffset)
 			throws Exception {
 		log.info("In Reader" + filename);
+		
+		// 작은 파일 여러개가 묶인 partition
+		if(filenames != null) {
+			String[] urls = filenames.split("\n");
+			Resource[] resources = new Resource[urls.length];
+			for(int i = 0; i < urls.length; i++) {
+				resources[i] = new UrlResource(urls[i]);
+			}
+			MultiResourceItemReader<SampleData> mr = new MultiResourceItemReader<>();
+			mr.setName("personItemReader");
+			mr.setResources(resources);
+			mr.setDelegate(fileItemReader(filename, null, true));
+			return mr;
+		}
+		
+		// 큰 파일의 byte range partition. 헤더는 첫번째 range 에만 있음
+		if(startOffset != null && endOffset != null) {
+			Resource range = new ByteRangeResource(new UrlResource(filename).getFile(), startOffset, endOffset);
+			return fileItemReader(filename, range, startOffset == 0);
+		}
+		
+		return fileItemReader(filename, new UrlResource(filename), true);
+	}
+	
+	private ResourceAwareItemReaderItemStream<SampleData> fileItemReader(String filename, Resource resource,
+			boolean hasHeader) throws Exception {
 		FlatFileItemReader<SampleData> ffr = null;
 		
 		if(filename.lastIndexOf(".csv") > 0) {
 			ffr = new FlatFileItemReaderBuilder<SampleData>().name("personItemReader")
 			.delimited()
 			.names(new String[] { "c1", "c2" })
-			.fieldSetMapper(new BeanWrapperFieldSetMapper<SampleData>() {
-				{
-					setTargetType(SampleData.class);
-				}
-			})
-			.resource(new UrlResource(filename))
+			.fieldSetMapper(new SetterFieldSetMapper<>(SampleData.class, sampleDataFactory(), "c1", "c2"))
+			.resource(resource)
 			.build();
 		}
 		else if(filename.lastIndexOf(".txt") > 0) {
-			
-			ffr = new FlatFileItemReaderBuilder<SampleData>().name("personItemReader")
-					.resource(new UrlResource(filename))
-					.linesToSkip(2)
-					.lineMapper(productLineMapper())
-					.build();
+			// 파일 내용으로 reader 선택 : rangeBar 배열(cc/start/end/tt) 이면 RangeBarFileReader, 아니면 PR*/P2* 상품 reader
+			ContentSniffingItemReader sniffing = new ContentSniffingItemReader(productItemReader(resource, hasHeader),
+					new RangeBarFileReader());
+			sniffing.setResource(resource);
+			return sniffing;
 		}
 		
 		return ffr;
 	}
+	
+	ResourceAwareItemReaderItemStream<SampleData> productItemReader(Resource resource, boolean hasHeader)
+			throws Exception {
+		if("mapped".equalsIgnoreCase(readerMode)) {
+			MappedProductFileReader mr = new MappedProductFileReader();
+			mr.setName("personItemReader");
+			mr.setResource(resource);
+			mr.setLinesToSkip(hasHeader ? 2 : 0);
+			mr.setSchema(recordSchema());
+			return mr;
+		}
+		
+		// 두번째 헤더 줄(DESCRIPTION,PRICE)은 파일 중간에도 반복되므로 comment 로 건너뜀 (MappedProductFileReader 와 같이).
+		// linesToSkip 도 comment 줄은 세지 않으므로 첫 헤더 한 줄만
+		return new FlatFileItemReaderBuilder<SampleData>().name("personItemReader")
+				.resource(resource)
+				.linesToSkip(hasHeader ? 1 : 0)
+				.comments("#", "DESCRIPTION,")
+				.lineMapper(productLineMapper())
+				.build();
+	}
 
     // https://github.com/debop/spring-batch-experiments/blob/master/chapter05/src/test/java/kr/spring/batch/chapter05/test/file/JobStructureDelimitedMultiFlatFileConfig.java
 	@Bean
@@ -204,6 +403,8 @@ public class BatchConfiguration {
 	public LineTokenizer mobilePhoneProductLineTokenizer() {
 		DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(",");
 		tokenizer.setNames(new String[] { "c1", "c2", "c3", "c4" });
+		// P2* 는 2 컬럼, 헤더가 붙은 PR* 줄은 6 컬럼 -> 모자라면 빈 값, 넘치면 버림
+		tokenizer.setStrict(false);
 		return tokenizer;
 	}
 
@@ -214,30 +415,24 @@ public class BatchConfiguration {
 		return tokenizer;
 	}
 
+	// setter 를 미리 컴파일 (줄마다 prototype bean 조회, reflection 없음). names 는 tokenizer 순서와 같아야 함
 	@Bean
 	public FieldSetMapper<SampleData> mobilePhoneProductFieldSetMapper() throws Exception {
-		BeanWrapperFieldSetMapper<SampleData> mapper =
-				new BeanWrapperFieldSetMapper<SampleData>();
-
-		mapper.setPrototypeBeanName("mobilePhoneProduct");
-		mapper.afterPropertiesSet();
-		return mapper;
+		return new SetterFieldSetMapper<>(SampleData.class, sampleDataFactory(), "c1", "c2", "c3", "c4");
 	}
 
 	@Bean
 	public FieldSetMapper<SampleData> P2FieldSetMapper() throws Exception {
-		BeanWrapperFieldSetMapper<SampleData> mapper =
-				new BeanWrapperFieldSetMapper<SampleData>();
-
-		mapper.setPrototypeBeanName("mobilePhoneProduct");
-		mapper.afterPropertiesSet();
-		return mapper;
+		return new SetterFieldSetMapper<>(SampleData.class, sampleDataFactory(), "c5", "c6");
 	}
 	
-	@Bean
-	@Scope("prototype")
-	public SampleData mobilePhoneProduct() {
-		return new SampleData();
+	RecordSchema recordSchema() {
+		return SampleData.SCHEMA.withTypes(recordTypes);
+	}
+	
+	private Supplier<SampleData> sampleDataFactory() {
+		RecordSchema schema = recordSchema();
+		return () -> new SampleData(schema);
 	}
 	/*
 	@Bean
@@ -246,10 +441,38 @@ public class BatchConfiguration {
 		return new BookProduct();
 	}
 	*/
+	// processor 체인의 trace 단계. step1 listener 로도 등록되어 partition 이 끝날 때 처리/trace 건수를 남김
+	@Bean
+	@StepScope
+	SampleDataItemProcessor sampleDataItemProcessor() {
+		SampleDataItemProcessor.Trace trace = SampleDataItemProcessor.Trace.valueOf(processorTrace.trim().toUpperCase());
+		SampleDataItemProcessor processor = new SampleDataItemProcessor(trace, processorTraceIntervalMillis);
+		if(metricsEnabled) {
+			processor.setMeterRegistry(meterRegistry);
+		}
+		return processor;
+	}
+	
+	// 검증 -> 변환 -> trace 순서의 processor 체인. 설정이 없으면 trace 단계(그대로 통과)만 남음
 	@Bean
 	@StepScope
-	SampleDataItemProcessor processor() {
-		return new SampleDataItemProcessor();
+	ItemProcessor<SampleData, SampleData> processor() {
+		List<ItemProcessor<?, ?>> stages = new ArrayList<>();
+		if(processorRequiredColumns.length > 0) {
+			stages.add(SampleDataProcessors.requireColumns(processorRequiredColumns));
+		}
+		if(processorTrim) {
+			stages.add(SampleDataProcessors.trim());
+		}
+		
+		SampleDataItemProcessor traceStage = sampleDataItemProcessor();
+		if(stages.isEmpty()) {
+			return traceStage;
+		}
+		stages.add(traceStage);
+		CompositeItemProcessor<SampleData, SampleData> composite = new CompositeItemProcessor<>();
+		composite.setDelegates(stages);
+		return composite;
 	}
 
 
@@ -259,24 +482,95 @@ public class BatchConfiguration {
     // 우선 @StepScope 를 선언하여 ItemWriter 도 여러 스레드로 수행하자.
 	@Qualifier("personItemWriter")
 	@DependsOn("partitioner")
-    JdbcBatchItemWriter<SampleData> personItemWriter(@Value("#{stepExecutionContext['fileName']}") String filename) {
+    ItemWriter<SampleData> personItemWriter(@Value("#{stepExecutionContext['fileName']}") String filename) {
     	
     	log.info("In personItemWriter : " + filename);
-        JdbcBatchItemWriter<SampleData> itemWriter = new JdbcBatchItemWriter<>();
+        // 컬럼 타입(batch.record.types)대로 bind 하는 INSERT writer
+        ColumnarJdbcItemWriter itemWriter = new ColumnarJdbcItemWriter();
 
         itemWriter.setDataSource(this.dataSource);
 		if(filename.lastIndexOf(".csv") > 0) {        
-			itemWriter.setSql("INSERT INTO people (first_name, last_name) VALUES (:c1, :c2)");
+			itemWriter.setTable("people");
+			itemWriter.setColumns("first_name", "last_name");
+			itemWriter.setFields(0, 1);
 		}else if(filename.lastIndexOf(".txt") > 0) {
-			itemWriter.setSql("INSERT INTO tbl_test (c1, c2, c3, c4, c5, c6) VALUES (:c1, :c2, :c3, :c4, :c5, :c6)");
+			itemWriter.setTable("tbl_test");
+			itemWriter.setColumns("c1", "c2", "c3", "c4", "c5", "c6");
+			itemWriter.setFields(0, 1, 2, 3, 4, 5);
 		}
-        itemWriter.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider());
         itemWriter.afterPropertiesSet();
 
-        return itemWriter;
+        if("copy".equalsIgnoreCase(writerMode)) {
+        	// PostgreSQL COPY, PostgreSQL 이 아니면 위의 INSERT writer 로 적재
+        	PgCopyItemWriter<SampleData> copyWriter = new PgCopyItemWriter<>();
+        	copyWriter.setDataSource(this.dataSource);
+        	copyWriter.setFallback(itemWriter);
+        	if(filename.lastIndexOf(".csv") > 0) {
+        		copyWriter.setTable("people");
+        		copyWriter.setColumns("first_name", "last_name");
+        		copyWriter.setFieldExtractor(sd -> new Object[] { sd.getC1(), sd.getC2() });
+        	}else {
+        		copyWriter.setTable("tbl_test");
+        		copyWriter.setColumns("c1", "c2", "c3", "c4", "c5", "c6");
+        		copyWriter.setFieldExtractor(sd -> new Object[] { sd.getC1(), sd.getC2(), sd.getC3(), sd.getC4(), sd.getC5(), sd.getC6() });
+        	}
+        	copyWriter.afterPropertiesSet();
+        	return withRangeTable(filename, copyWriter);
+        }
+
+        return withRangeTable(filename, itemWriter);
+    }
+    
+    // rangeBar 파일의 행(RangeBarFileReader.SCHEMA)은 tbl_test 문자열 컬럼 대신 heatmap 구간 테이블에 BIGINT 로 적재
+    private ItemWriter<SampleData> withRangeTable(String filename, ItemWriter<SampleData> writer) {
+    	if (filename.lastIndexOf(".txt") <= 0) {
+    		return writer;
+    	}
+    	createRangeTable();
+    	ColumnarJdbcItemWriter rangeWriter = new ColumnarJdbcItemWriter();
+    	rangeWriter.setDataSource(this.dataSource);
+    	rangeWriter.setTable(rangeTable);
+    	rangeWriter.setColumns(RangeTable.COLUMNS);
+    	rangeWriter.setFields(0, 1, 2, 3);
+    	rangeWriter.afterPropertiesSet();
+    	
+    	ClassifierCompositeItemWriter<SampleData> router = new ClassifierCompositeItemWriter<>();
+    	router.setClassifier(sd -> sd.getSchema() == RangeBarFileReader.SCHEMA ? rangeWriter : writer);
+    	return router;
+    }
+    
+    // partition writer 마다 DDL 을 보내지 않도록 한 번만
+    private synchronized void createRangeTable() {
+    	if (!rangeTableCreated) {
+    		RangeTable.create(new JdbcTemplate(this.dataSource), rangeTable);
+    		rangeTableCreated = true;
+    	}
     }
 
 
+	TaskExecutor partitionTaskExecutor() {
+		if ("virtual".equalsIgnoreCase(partitionExecutor)) {
+			ThreadFactory threadFactory = VirtualThreads.factory("partition-");
+			if (threadFactory != null) {
+				// partition 마다 virtual thread 하나, JDBC 커넥션 수 만큼만 동시 실행 (초과분은 대기)
+				SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadFactory);
+				executor.setConcurrencyLimit(partitionConcurrencyLimit());
+				log.info("partition executor : virtual threads, concurrency limit : " + executor.getConcurrencyLimit());
+				return executor;
+			}
+			log.warn("virtual threads need Java 21+, partition executor falls back to taskExecutor");
+		}
+		return taskExecutor();
+	}
+
+	private int partitionConcurrencyLimit() {
+		int poolSize = 10; // hikari 기본값
+		if (dataSource instanceof HikariDataSource hikari) {
+			poolSize = hikari.getMaximumPoolSize();
+		}
+		return Math.max(1, poolSize - connectionReserve);
+	}
+
 	@Bean
 	ThreadPoolTaskExecutor taskExecutor() {
 
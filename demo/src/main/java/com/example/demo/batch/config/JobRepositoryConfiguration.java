@@ -0,0 +1,34 @@
+package com.example.demo.batch.config;
+
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.batch.repository.CoalescingJobRepository;
+
+/**
+ * batch.repository.mode=deferred 이면 boot 가 만든 jobRepository 를 {@link CoalescingJobRepository} 로 감싼다.
+ * JobLauncher, JobOperator, step 들은 모두 이 bean 을 쓰므로 따로 바꿀 곳은 없다.
+ */
+@Configuration
+public class JobRepositoryConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "batch.repository.mode", havingValue = "deferred")
+	static BeanPostProcessor coalescingJobRepositoryPostProcessor(
+			@Value("${batch.repository.flush-ms:5000}") long flushMillis) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+				if (bean instanceof JobRepository repository && !(bean instanceof CoalescingJobRepository)) {
+					return new CoalescingJobRepository(repository, flushMillis);
+				}
+				return bean;
+			}
+		};
+	}
+}
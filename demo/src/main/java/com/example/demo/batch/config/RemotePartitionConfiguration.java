@@ -0,0 +1,49 @@
+package com.example.demo.batch.config;
+
+import java.lang.management.ManagementFactory;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.batch.partition.JdbcPartitionQueue;
+import com.example.demo.batch.partition.JdbcQueuePartitionWorker;
+
+/**
+ * masterStep remote partitioning (batch.partition.mode=remote) 용 큐와 worker.
+ * manager 노드는 partition 을 partition_request_queue 에 넣고, batch.partition.worker.enabled=true 인 노드들이 가져가 step1 을 실행한다.
+ * 한 노드가 manager 와 worker 를 함께 해도 된다.
+ */
+@Configuration
+public class RemotePartitionConfiguration {
+
+	@Bean
+	JdbcPartitionQueue partitionQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${batch.partition.worker.lease-ms:60000}") long leaseMillis,
+			@Value("${spring.batch.jdbc.table-prefix:BATCH_}") String batchTablePrefix) {
+		JdbcPartitionQueue queue = new JdbcPartitionQueue(jdbcTemplate, transactionManager);
+		queue.setLeaseMillis(leaseMillis);
+		queue.setBatchTablePrefix(batchTablePrefix);
+		return queue;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "batch.partition.worker.enabled", havingValue = "true")
+	JdbcQueuePartitionWorker partitionWorker(JdbcPartitionQueue partitionQueue, JobExplorer jobExplorer,
+			ApplicationContext applicationContext,
+			@Value("${batch.partition.worker.id:}") String workerId,
+			@Value("${batch.partition.worker.concurrency:2}") int concurrency,
+			@Value("${batch.partition.worker.poll-ms:1000}") long pollMillis) {
+		// step 이름(step1) 으로 이 노드의 Step bean 을 찾아 실행
+		return new JdbcQueuePartitionWorker(partitionQueue, jobExplorer,
+				name -> applicationContext.getBean(name, Step.class),
+				workerId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : workerId,
+				concurrency, pollMillis);
+	}
+}
@@ -1,19 +1,52 @@
 package com.example.demo.batch.config;
 
+import com.example.demo.batch.model.ColumnType;
+import com.example.demo.batch.model.RecordSchema;
+
+/**
+ * step1 레코드 (c1..c6).
+ * <p>
+ * 컬럼 타입은 {@link RecordSchema} 를 따른다. STRING 컬럼은 c1..c6 필드에, 나머지(LONG, DECIMAL, DATE)는
+ * setter 에서 한 번 파싱해 longs 에 저장한다 (빈 값은 nulls bit). getC1..getC6 은 기존처럼 문자열을 돌려주고,
+ * writer 는 {@link #getValue(int)} 로 타입 값을 그대로 bind 한다.
+ * 숫자 컬럼의 c 필드는 비어 있어 문자열이 남지 않는다. 별도 holder 없이 레코드당 long[] 하나만 더 잡는다.
+ * 기본 schema(모두 STRING)면 longs 는 null 이고, schema/longs/nulls 필드만큼(약 8 byte) 타입 도입 전보다 크다.
+ */
 public class SampleData {
 
-	
-    private String c1;
+	public static final RecordSchema SCHEMA = RecordSchema.strings("c1", "c2", "c3", "c4", "c5", "c6");
+
+	private String c1;
+
 	private String c2;
+
 	private String c3;
+
 	private String c4;
+
 	private String c5;
+
 	private String c6;
 
+	private final RecordSchema schema;
+
+	// STRING 이 아닌 컬럼 값 (index = schema.slot(column)). 기본 schema 면 null
+	private final long[] longs;
+
+	// 숫자 컬럼의 null 여부 (bit = 컬럼 index)
+	private int nulls = -1;
+
     public SampleData() {
+    	this(SCHEMA);
+    }
+
+    public SampleData(RecordSchema schema) {
+    	this.schema = schema;
+    	this.longs = schema == SCHEMA ? null : new long[schema.longCount()];
     }
 
     public SampleData(String c1, String c2, String c3, String c4, String c5, String c6) {
+        this(SCHEMA);
         this.c1 = c1;
         this.c2 = c2;
         this.c3 = c3;
@@ -22,58 +55,133 @@ public class SampleData {
         this.c6 = c6;
     }
 
+    public RecordSchema getSchema() {
+    	return schema;
+    }
+
+    // 문자열 값을 컬럼 타입으로 저장. 숫자로 읽을 수 없으면 NumberFormatException / DateTimeParseException
+    public void set(int column, String value) {
+    	ColumnType type = type(column);
+    	if (type == ColumnType.STRING) {
+    		setString(column, value);
+    	} else if (value == null || value.isBlank()) {
+    		nulls |= 1 << column;
+    	} else {
+    		setLong(column, type.parse(value, schema.scale(column)));
+    	}
+    }
+
+    // 숫자 컬럼에 이미 파싱된 값 저장 (DECIMAL 은 scale 적용된 값, DATE 는 epoch day)
+    public void setLong(int column, long value) {
+    	longs[schema.slot(column)] = value;
+    	nulls &= ~(1 << column);
+    }
+
+    public boolean isNull(int column) {
+    	return type(column) == ColumnType.STRING ? getString(column) == null : (nulls & (1 << column)) != 0;
+    }
+
+    public long getLong(int column) {
+    	return longs[schema.slot(column)];
+    }
+
+    // 문자열 표현 (숫자 컬럼은 format)
+    public String getText(int column) {
+    	ColumnType type = type(column);
+    	if (type == ColumnType.STRING) {
+    		return getString(column);
+    	}
+    	return isNull(column) ? null : type.format(getLong(column), schema.scale(column));
+    }
+
+    // jdbc bind 값 (String, Long, BigDecimal, LocalDate)
+    public Object getValue(int column) {
+    	ColumnType type = type(column);
+    	if (type == ColumnType.STRING) {
+    		return getString(column);
+    	}
+    	return isNull(column) ? null : type.toJdbc(getLong(column), schema.scale(column));
+    }
+
+    private ColumnType type(int column) {
+    	return longs == null ? ColumnType.STRING : schema.type(column);
+    }
+
+    private String getString(int column) {
+    	switch (column) {
+    	case 0: return c1;
+    	case 1: return c2;
+    	case 2: return c3;
+    	case 3: return c4;
+    	case 4: return c5;
+    	case 5: return c6;
+    	default: throw new IndexOutOfBoundsException(column);
+    	}
+    }
+
+    private void setString(int column, String value) {
+    	switch (column) {
+    	case 0: c1 = value; break;
+    	case 1: c2 = value; break;
+    	case 2: c3 = value; break;
+    	case 3: c4 = value; break;
+    	case 4: c5 = value; break;
+    	case 5: c6 = value; break;
+    	default: throw new IndexOutOfBoundsException(column);
+    	}
+    }
 
     public String getC1() {
-		return c1;
+		return getText(0);
 	}
 
 	public void setC1(String c1) {
-		this.c1 = c1;
+		set(0, c1);
 	}
 
 	public String getC2() {
-		return c2;
+		return getText(1);
 	}
 
 	public void setC2(String c2) {
-		this.c2 = c2;
+		set(1, c2);
 	}
 
 	public String getC3() {
-		return c3;
+		return getText(2);
 	}
 
 	public void setC3(String c3) {
-		this.c3 = c3;
+		set(2, c3);
 	}
 
 	public String getC4() {
-		return c4;
+		return getText(3);
 	}
 
 	public void setC4(String c4) {
-		this.c4 = c4;
+		set(3, c4);
 	}
 
 	public String getC5() {
-		return c5;
+		return getText(4);
 	}
 
 	public void setC5(String c5) {
-		this.c5 = c5;
+		set(4, c5);
 	}
 
 	public String getC6() {
-		return c6;
+		return getText(5);
 	}
 
 	public void setC6(String c6) {
-		this.c6 = c6;
+		set(5, c6);
 	}
 
 	@Override
     public String toString() {
-        return "c1: " + c1 + ", c2: " + c2 + ", c3: " + c3 + ", c4: " + c4 + ", c5: " + c5 + ", c6: " + c6;
+        return "c1: " + getC1() + ", c2: " + getC2() + ", c3: " + getC3() + ", c4: " + getC4() + ", c5: " + getC5() + ", c6: " + getC6();
     }
 
 }
@@ -1,28 +1,108 @@
 package com.example.demo.batch.config;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.item.ItemProcessor;
 
-public class SampleDataItemProcessor implements ItemProcessor<SampleData, SampleData> {
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * step1 processor 체인의 마지막 단계. item 을 복사하지 않고 그대로 넘긴다.
+ * <p>
+ * 예전처럼 모든 item 을 INFO 로 남기면 로그가 step 시간의 대부분을 차지하므로 trace 모드로 나눈다.
+ * <ul>
+ * <li>OFF : 로그 없음 (기본)</li>
+ * <li>SAMPLED : intervalMillis 마다 최대 한 건과 누적 건수만 남김</li>
+ * <li>ALL : 모든 item 을 남김 (명시적으로 켤 때만)</li>
+ * </ul>
+ * step listener 로 등록하면 step 이 끝날 때 처리/trace 건수를 로그로 남기고, MeterRegistry 가 있으면
+ * batch.processor.items (kind=processed|traced, step, trace 태그) 에 더한다. 건수는 step execution(partition) 마다 따로 센다.
+ */
+public class SampleDataItemProcessor implements ItemProcessor<SampleData, SampleData>, StepExecutionListener {
 
     private static final Logger log = LoggerFactory.getLogger(SampleDataItemProcessor.class);
 
+    public enum Trace {
+        OFF, SAMPLED, ALL
+    }
+
+    private final Trace trace;
+
+    private final long intervalMillis;
+
+    private final LongAdder processed = new LongAdder();
+
+    private final LongAdder traced = new LongAdder();
+
+    private final AtomicLong nextTraceAt = new AtomicLong();
+
+    private MeterRegistry meterRegistry;
+
+    public SampleDataItemProcessor() {
+        this(Trace.OFF, 1000);
+    }
+
+    public SampleDataItemProcessor(Trace trace, long intervalMillis) {
+        this.trace = trace;
+        this.intervalMillis = intervalMillis;
+    }
+
     @Override
     public SampleData process(final SampleData sd) throws Exception {
-        final String c1 = sd.getC1();
-        final String c2 = sd.getC2();
-        final String c3 = sd.getC3();
-        final String c4 = sd.getC4();
-        final String c5 = sd.getC5();
-        final String c6 = sd.getC6();
+        processed.increment();
+
+        if (trace == Trace.ALL) {
+            traced.increment();
+            log.info("Processing ({})", sd);
+        } else if (trace == Trace.SAMPLED) {
+            long now = System.currentTimeMillis();
+            long next = nextTraceAt.get();
+            if (now >= next && nextTraceAt.compareAndSet(next, now + intervalMillis)) {
+                traced.increment();
+                log.info("Processing ({}) processed : {}", sd, processed.sum());
+            }
+        }
+
+        return sd;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        String stepName = stepExecution.getStepName();
+        log.info("{} processor : processed {}, traced {} (trace {})", stepName, processed.sum(), traced.sum(), trace);
+        if (meterRegistry != null) {
+            // partition 이름(step1:partition0)은 빼고 step 이름으로
+            int colon = stepName.indexOf(':');
+            String step = colon < 0 ? stepName : stepName.substring(0, colon);
+            counter("processed", step).increment(processed.sum());
+            counter("traced", step).increment(traced.sum());
+        }
+        return null;
+    }
+
+    private Counter counter(String kind, String step) {
+        return Counter.builder("batch.processor.items").description("items through the trace stage")
+                .tags("kind", kind, "step", step, "trace", trace.name().toLowerCase()).register(meterRegistry);
+    }
 
-        final SampleData transformedSampleData = new SampleData(c1, c2, c3, c4, c5, c6);
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
-        log.info("Converting (" + sd + ") into (" + transformedSampleData + ")");
+    public long getProcessedCount() {
+        return processed.sum();
+    }
 
-        return transformedSampleData;
+    public long getTracedCount() {
+        return traced.sum();
     }
 
 }
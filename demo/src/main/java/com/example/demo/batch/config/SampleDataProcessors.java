@@ -0,0 +1,80 @@
+package com.example.demo.batch.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.validator.ValidatingItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+
+import com.example.demo.batch.model.ColumnType;
+import com.example.demo.batch.model.RecordSchema;
+
+/**
+ * step1 processor 체인에 넣을 수 있는 단계들.
+ */
+public final class SampleDataProcessors {
+
+	private SampleDataProcessors() {
+	}
+
+	/**
+	 * 지정한 컬럼(c1..c6) 중 비어있는 값이 있으면 item 을 걸러낸다 (filter count 로 집계).
+	 */
+	public static ItemProcessor<SampleData, SampleData> requireColumns(String... columns) {
+		List<Function<SampleData, String>> getters = new ArrayList<>(columns.length);
+		for (String column : columns) {
+			getters.add(getter(column.trim()));
+		}
+
+		ValidatingItemProcessor<SampleData> processor = new ValidatingItemProcessor<>(sd -> {
+			for (int i = 0; i < getters.size(); i++) {
+				String value = getters.get(i).apply(sd);
+				if (value == null || value.isBlank()) {
+					throw new ValidationException("empty " + columns[i] + " : " + sd);
+				}
+			}
+		});
+		processor.setFilter(true);
+		return processor;
+	}
+
+	/**
+	 * 문자열 컬럼 값의 앞뒤 공백을 제거한다 (새 객체를 만들지 않음). 숫자 컬럼은 reader 에서 이미 파싱됨
+	 */
+	public static ItemProcessor<SampleData, SampleData> trim() {
+		return sd -> {
+			RecordSchema schema = sd.getSchema();
+			for (int i = 0; i < schema.size(); i++) {
+				if (schema.type(i) == ColumnType.STRING) {
+					sd.set(i, trim(sd.getText(i)));
+				}
+			}
+			return sd;
+		};
+	}
+
+	private static String trim(String value) {
+		return value == null ? null : value.trim();
+	}
+
+	private static Function<SampleData, String> getter(String column) {
+		switch (column) {
+		case "c1":
+			return SampleData::getC1;
+		case "c2":
+			return SampleData::getC2;
+		case "c3":
+			return SampleData::getC3;
+		case "c4":
+			return SampleData::getC4;
+		case "c5":
+			return SampleData::getC5;
+		case "c6":
+			return SampleData::getC6;
+		default:
+			throw new IllegalArgumentException("Unknown column : " + column);
+		}
+	}
+}
@@ -8,7 +8,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.JobRegistry;
-import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
 import org.springframework.batch.core.job.builder.JobBuilder;
@@ -25,12 +24,17 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import com.example.demo.batch.compute.ParallelComputeService;
+
 @Slf4j
 @Configuration
 public class SimpleJobConfiguration {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ParallelComputeService computeService;
 /*
 	@Bean
 	public JobLauncher jbLauncher(JobRepository jobRepository) {
@@ -47,7 +51,7 @@ public class SimpleJobConfiguration {
 	}
 	
     @Bean(name = "simpleJob")
-    public Job job(JobRepository jobRepository, PlatformTransactionManager transactionManager, Tasklet tasklet) {
+    public Job job(JobRepository jobRepository, PlatformTransactionManager transactionManager, @Qualifier("simpleTasklet") Tasklet tasklet) {
         return new JobBuilder("simpleJob", jobRepository)
                 .incrementer(new RunIdIncrementer())
                 .start(step(jobRepository, transactionManager, tasklet))
@@ -55,10 +59,11 @@ public class SimpleJobConfiguration {
     }
 
     
+	// job scope 로 두면 JobOperator.stop 이 job scope 밖에서 step 이름을 읽지 못하고 (IllegalStateException)
+	// proxy 가 TaskletStep 이 아니라 StoppableTasklet 을 찾지 못함. 실행마다 달라지는 것은 @StepScope tasklet 뿐
 	@Bean
-	@JobScope
 	@Qualifier("step")
-    public Step step(JobRepository jobRepository, PlatformTransactionManager transactionManager, Tasklet tasklet1) {
+    public Step step(JobRepository jobRepository, PlatformTransactionManager transactionManager, @Qualifier("simpleTasklet") Tasklet tasklet1) {
         log.info("Building step");
         return new StepBuilder("myTasklet", jobRepository)
                 .tasklet(tasklet1, transactionManager).allowStartIfComplete(true)
@@ -70,7 +75,7 @@ public class SimpleJobConfiguration {
     @StepScope
     public SimpleTasklet simpleTasklet() {
         log.info("Building tasklet");
-        var tasklet = new SimpleTasklet(jdbcTemplate);
+        var tasklet = new SimpleTasklet(jdbcTemplate, computeService);
         return tasklet;
     }
 }
\ No newline at end of file
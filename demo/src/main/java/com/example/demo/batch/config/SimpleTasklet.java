@@ -5,7 +5,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.ForkJoinPool;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.monitor.FileAlterationListener;
@@ -17,28 +17,46 @@ import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.scope.context.StepContext;
-import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.core.step.tasklet.StoppableTasklet;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import com.example.demo.batch.compute.ParallelComputeService;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public class SimpleTasklet implements Tasklet {
+public class SimpleTasklet implements StoppableTasklet {
 	
 	private final JdbcTemplate jdbcTemplate;
 	
+	private final ParallelComputeService computeService;
+	
 	private int aa = 0;
+	
+	// 실행중인 step (JobOperator.stop -> stop() 에서 terminateOnly 표시)
+	private volatile StepExecution running;
 
 	@Autowired
-	public SimpleTasklet(JdbcTemplate jdbcTemplate) {
+	public SimpleTasklet(JdbcTemplate jdbcTemplate, ParallelComputeService computeService) {
 		this.jdbcTemplate = jdbcTemplate;
+		this.computeService = computeService;
 	}
 	
     @Override
     public RepeatStatus execute(StepContribution  stepContribution, ChunkContext chunkContext) throws Exception {
+        running = chunkContext.getStepContext().getStepExecution();
+        try {
+            return doExecute(stepContribution, chunkContext);
+        } finally {
+            // 예외(중지 요청으로 인한 JobInterruptedException 포함)로 끝나도 비움
+            running = null;
+        }
+    }
+
+    private RepeatStatus doExecute(StepContribution  stepContribution, ChunkContext chunkContext) throws Exception {
         //log.info(">>> parallel stream test");
         
         StepContext stepContext = chunkContext.getStepContext();
@@ -69,9 +87,8 @@ public class SimpleTasklet implements Tasklet {
         //		"select count(*) from people", Integer.class);
         //log.info(count.toString());
 
-        ForkJoinPool customThreadPool = new ForkJoinPool(4);
-        
-        customThreadPool.submit(()->
+        // 공유 compute pool 에서 실행하고 끝날 때까지 기다림 (step 중지 요청 시 취소)
+        computeService.runAll(stepContribution, List.of(()->
         {
 			/*
 			Files.walk(Paths.get("./src/main/resources/input/")) // 경로 스트림 생성
@@ -93,15 +110,13 @@ public class SimpleTasklet implements Tasklet {
 				try {
 					Thread.sleep(100);
 				} catch (InterruptedException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
+					// 취소됨
+					Thread.currentThread().interrupt();
+					return;
 				}
 			}
 		}
-        );
-        
-
-        customThreadPool.shutdown();
+        ));
        
         
         if(filename.equals("test3.txt"))
@@ -111,7 +126,7 @@ public class SimpleTasklet implements Tasklet {
         
         //log.info(">>> filename : "+filename+":: aa : "+aa);
         
-		for(int i = 0;i < 20;i++) {
+		for(int i = 0;i < 20 && !stepExecution.isTerminateOnly();i++) {
 	        //log.info(">>> filename : "+filename+":: for aa : "+aa);
 			//log.info(">>>>>>>>>>> out " + (aa++));
 
@@ -129,6 +144,15 @@ public class SimpleTasklet implements Tasklet {
         
         return RepeatStatus.FINISHED;
     }
+
+    @Override
+    public void stop() {
+        StepExecution stepExecution = running;
+        if (stepExecution != null) {
+            log.info(">>> stop requested : stepExecution Id : "+stepExecution.getId());
+            stepExecution.setTerminateOnly();
+        }
+    }
     
     private void process(File f) {
     	
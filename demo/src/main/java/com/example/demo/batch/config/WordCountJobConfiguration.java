@@ -0,0 +1,138 @@
+package com.example.demo.batch.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.batch.compute.ParallelComputeService;
+import com.example.demo.batch.partition.SizeAwarePartitioner;
+import com.example.demo.batch.wordcount.HeavyHitterAggregator;
+import com.example.demo.batch.wordcount.HeavyHitterSketch;
+import com.example.demo.batch.wordcount.HeavyHitterTasklet;
+import com.example.demo.batch.wordcount.WordCountEngine;
+import com.example.demo.batch.wordcount.WordCountTasklet;
+
+/**
+ * 입력 파일(jobParameters['filename']) 단어 수 집계 job.
+ * exact : wordCountStep 하나로 정확히 집계, approximate : 파일을 partition 으로 나눠 sketch 로 근사 집계 후 master step 에서 합침
+ */
+@Configuration
+public class WordCountJobConfiguration {
+
+	@Value("${batch.wordcount.mode:exact}")
+	private String mode;
+
+	@Value("${batch.wordcount.top-k:5}")
+	private int topK;
+
+	// approximate 모드 오차 (추정치 <= 실제 + epsilon × 전체 단어 수, 확률 1-delta), capacity : 유지할 후보 단어 수
+	@Value("${batch.wordcount.epsilon:0.0001}")
+	private double epsilon;
+
+	@Value("${batch.wordcount.delta:0.001}")
+	private double delta;
+
+	@Value("${batch.wordcount.capacity:1000}")
+	private int capacity;
+
+	@Value("${batch.wordcount.grid-size:8}")
+	private int gridSize;
+
+	@Value("${batch.partition.min-split-bytes:262144}")
+	private long minSplitBytes;
+
+	@Bean
+	WordCountEngine wordCountEngine(ParallelComputeService computeService) {
+		return new WordCountEngine(computeService.executor(), computeService.getParallelism());
+	}
+
+	@Bean(name = "wordCountJob")
+	Job wordCountJob(JobRepository jobRepository, Step wordCountStep, Step wordCountMasterStep) {
+		return new JobBuilder("wordCountJob", jobRepository)
+				.incrementer(new RunIdIncrementer())
+				.start("approximate".equalsIgnoreCase(mode) ? wordCountMasterStep : wordCountStep)
+				.build();
+	}
+
+	@Bean
+	Step wordCountStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+			WordCountTasklet wordCountTasklet) {
+		return new StepBuilder("wordCountStep", jobRepository)
+				.tasklet(wordCountTasklet, transactionManager)
+				.build();
+	}
+
+	@Bean
+	@StepScope
+	WordCountTasklet wordCountTasklet(WordCountEngine wordCountEngine,
+			@Value("#{jobParameters['filename']}") String filename,
+			@Value("${ingest.input-dir:./src/main/resources/input/}") String inputDir) {
+		return new WordCountTasklet(wordCountEngine, Paths.get(inputDir, filename), topK);
+	}
+
+	@Bean
+	Step wordCountMasterStep(JobRepository jobRepository, Step wordCountPartitionStep,
+			Partitioner wordCountPartitioner, TaskExecutor taskExecutor) {
+		return new StepBuilder("wordCountMasterStep", jobRepository)
+				.partitioner("wordCountPartitionStep", wordCountPartitioner)
+				.step(wordCountPartitionStep)
+				.gridSize(gridSize)
+				.taskExecutor(taskExecutor)
+				.aggregator(heavyHitterAggregator())
+				.build();
+	}
+
+	// partition tasklet 들이 sketch 를 메모리로 넘기고 master step 이 합침
+	@Bean
+	HeavyHitterAggregator heavyHitterAggregator() {
+		return new HeavyHitterAggregator(topK);
+	}
+
+	@Bean
+	@StepScope
+	Partitioner wordCountPartitioner(@Value("#{jobParameters['filename']}") String filename,
+			@Value("${ingest.input-dir:./src/main/resources/input/}") String inputDir) {
+		SizeAwarePartitioner partitioner = new SizeAwarePartitioner();
+		partitioner.setMinSplitBytes(minSplitBytes);
+		partitioner.setResources(new Resource[] { new FileSystemResource(Paths.get(inputDir, filename)) });
+		return partitioner;
+	}
+
+	@Bean
+	Step wordCountPartitionStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+			HeavyHitterTasklet heavyHitterTasklet) {
+		// sketch 는 메모리에만 있으므로 restart 때 완료된 partition 도 다시 집계
+		return new StepBuilder("wordCountPartitionStep", jobRepository)
+				.tasklet(heavyHitterTasklet, transactionManager)
+				.allowStartIfComplete(true)
+				.build();
+	}
+
+	@Bean
+	@StepScope
+	HeavyHitterTasklet heavyHitterTasklet(WordCountEngine wordCountEngine,
+			@Value("#{stepExecutionContext['fileName']}") String fileName,
+			@Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+			@Value("#{stepExecutionContext['endOffset']}") Long endOffset) throws IOException {
+		Path file = new UrlResource(fileName).getFile().toPath();
+		return new HeavyHitterTasklet(wordCountEngine, file, startOffset != null ? startOffset : 0, endOffset,
+				() -> new HeavyHitterSketch(epsilon, delta, capacity), heavyHitterAggregator());
+	}
+}
@@ -0,0 +1,276 @@
+package com.example.demo.batch.metrics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * chunk step 의 단계별 시간과 처리 건수를 Micrometer 로 남기는 listener.
+ * <p>
+ * item 마다는 {@link System#nanoTime()} 차이를 long 필드에 더하기만 하고, meter 에는 chunk 가 끝날 때 한 번씩 기록한다.
+ * meter 는 {@link #beforeStep(StepExecution)} 에서 한 번 찾아두므로 item/chunk 단위로는 객체를 만들지 않는다.
+ * <ul>
+ * <li>batch.chunk : chunk 하나 (read ~ commit) 시간</li>
+ * <li>batch.chunk.read / process / write : chunk 안에서 reader, processor, writer 에 쓴 시간 합</li>
+ * <li>batch.chunk.size : chunk 당 read 건수</li>
+ * <li>batch.items : read / write / filter / skip 건수 (kind 태그)</li>
+ * <li>batch.step : partition step 전체 시간 (status 태그)</li>
+ * <li>batch.partition.items : partition 당 read 건수. partition 태그 없이 모아서 partition 간 편차를 본다</li>
+ * </ul>
+ * 태그는 job, step (partition 이름을 뺀 이름), partition, file.type (stepExecutionContext 의 fileName 확장자).
+ * partition 태그가 있는 meter 는 histogram 을 내보내지 않는다 (partition 수 x bucket 수 만큼 series 가 늘어남).
+ * <p>
+ * singleton 으로 여러 partition 이 함께 쓴다. step execution 하나는 한 스레드에서 실행되므로 (multi-threaded step 이 아님)
+ * partition 별 상태는 beforeStep 에서 스레드에 묶어 두고 afterStep 에서 푼다. item 마다 scoped proxy 를 거치지 않는다.
+ */
+public class BatchMetricsListener<I, O> implements StepExecutionListener, ChunkListener, ItemReadListener<I>,
+		ItemProcessListener<I, O>, ItemWriteListener<O> {
+
+	private static final String FILE_NAME = "fileName";
+
+	private final MeterRegistry registry;
+
+	private final boolean partitionTag;
+
+	// 이 스레드에서 실행중인 step execution 의 상태
+	private final ThreadLocal<StepMetrics> current = new ThreadLocal<>();
+
+	// step execution 하나의 meter 와 측정값
+	private static final class StepMetrics {
+
+		private Timer chunkTimer;
+
+		private Timer readTimer;
+
+		private Timer processTimer;
+
+		private Timer writeTimer;
+
+		private DistributionSummary chunkSize;
+
+		private Counter readItems;
+
+		private Counter writeItems;
+
+		private Counter filterItems;
+
+		private Counter skipItems;
+
+		private Counter chunkErrors;
+
+		private Tags tags;
+
+		private long chunkStart;
+
+		private long phaseStart;
+
+		private long readNanos;
+
+		private long processNanos;
+
+		private long writeNanos;
+
+		private long readCount;
+
+		private long writeCount;
+
+		private long filterCount;
+
+		private long skipCount;
+	}
+
+	public BatchMetricsListener(MeterRegistry registry, boolean partitionTag) {
+		this.registry = registry;
+		this.partitionTag = partitionTag;
+	}
+
+	@Override
+	public void beforeStep(StepExecution stepExecution) {
+		String stepName = stepExecution.getStepName();
+		int colon = stepName.indexOf(':');
+		StepMetrics m = new StepMetrics();
+		Tags tags = Tags.of("job", stepExecution.getJobExecution().getJobInstance().getJobName(),
+				"step", colon < 0 ? stepName : stepName.substring(0, colon),
+				"partition", !partitionTag || colon < 0 ? "none" : stepName.substring(colon + 1),
+				"file.type", fileType(stepExecution.getExecutionContext().getString(FILE_NAME, null)));
+		m.tags = tags;
+
+		m.chunkTimer = Timer.builder("batch.chunk").description("chunk read ~ commit").tags(tags).register(registry);
+		m.readTimer = phaseTimer("batch.chunk.read", "reader time per chunk", tags);
+		m.processTimer = phaseTimer("batch.chunk.process", "processor time per chunk", tags);
+		m.writeTimer = phaseTimer("batch.chunk.write", "writer time per chunk", tags);
+		m.chunkSize = DistributionSummary.builder("batch.chunk.size").description("items read per chunk").tags(tags)
+				.register(registry);
+		m.readItems = itemCounter("read", tags);
+		m.writeItems = itemCounter("write", tags);
+		m.filterItems = itemCounter("filter", tags);
+		m.skipItems = itemCounter("skip", tags);
+		m.chunkErrors = Counter.builder("batch.chunk.errors").tags(tags).register(registry);
+
+		m.readCount = stepExecution.getReadCount();
+		m.writeCount = stepExecution.getWriteCount();
+		m.filterCount = stepExecution.getFilterCount();
+		m.skipCount = stepExecution.getSkipCount();
+		current.set(m);
+	}
+
+	@Override
+	public ExitStatus afterStep(StepExecution stepExecution) {
+		StepMetrics m = current.get();
+		if (m == null) {
+			return null;
+		}
+		current.remove();
+		if (stepExecution.getStartTime() != null) {
+			long millis = Duration.between(stepExecution.getStartTime(), LocalDateTime.now()).toMillis();
+			Timer.builder("batch.step").tags(m.tags).tag("status", stepExecution.getStatus().name()).register(registry)
+					.record(millis, TimeUnit.MILLISECONDS);
+		}
+		// 편차를 보려고 partition 태그 없이 모음 (series 하나라 histogram 을 내보냄)
+		DistributionSummary.builder("batch.partition.items").description("items read per partition")
+				.tags(m.tags.and("partition", "all")).publishPercentileHistogram().register(registry)
+				.record(stepExecution.getReadCount());
+		return null;
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		StepMetrics m = current.get();
+		if (m != null) {
+			m.readNanos = 0;
+			m.processNanos = 0;
+			m.writeNanos = 0;
+			m.chunkStart = System.nanoTime();
+		}
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		StepMetrics m = current.get();
+		if (m != null) {
+			m.chunkTimer.record(System.nanoTime() - m.chunkStart, TimeUnit.NANOSECONDS);
+			m.readTimer.record(m.readNanos, TimeUnit.NANOSECONDS);
+			m.processTimer.record(m.processNanos, TimeUnit.NANOSECONDS);
+			m.writeTimer.record(m.writeNanos, TimeUnit.NANOSECONDS);
+			recordCounts(m, context.getStepContext().getStepExecution());
+		}
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		StepMetrics m = current.get();
+		if (m != null) {
+			m.chunkErrors.increment();
+			recordCounts(m, context.getStepContext().getStepExecution());
+		}
+	}
+
+	@Override
+	public void beforeRead() {
+		start();
+	}
+
+	@Override
+	public void afterRead(I item) {
+		StepMetrics m = current.get();
+		if (m != null) {
+			m.readNanos += System.nanoTime() - m.phaseStart;
+		}
+	}
+
+	@Override
+	public void onReadError(Exception ex) {
+		afterRead(null);
+	}
+
+	@Override
+	public void beforeProcess(I item) {
+		start();
+	}
+
+	@Override
+	public void afterProcess(I item, O result) {
+		StepMetrics m = current.get();
+		if (m != null) {
+			m.processNanos += System.nanoTime() - m.phaseStart;
+		}
+	}
+
+	@Override
+	public void onProcessError(I item, Exception e) {
+		afterProcess(item, null);
+	}
+
+	@Override
+	public void beforeWrite(Chunk<? extends O> items) {
+		start();
+	}
+
+	@Override
+	public void afterWrite(Chunk<? extends O> items) {
+		StepMetrics m = current.get();
+		if (m != null) {
+			m.writeNanos += System.nanoTime() - m.phaseStart;
+		}
+	}
+
+	@Override
+	public void onWriteError(Exception exception, Chunk<? extends O> items) {
+		afterWrite(items);
+	}
+
+	private void start() {
+		StepMetrics m = current.get();
+		if (m != null) {
+			m.phaseStart = System.nanoTime();
+		}
+	}
+
+	// 건수는 StepExecution 누적값의 차이로 구한다 (item 마다 세지 않음)
+	private static void recordCounts(StepMetrics m, StepExecution stepExecution) {
+		long read = stepExecution.getReadCount() - m.readCount;
+		m.chunkSize.record(read);
+		m.readItems.increment(read);
+		m.writeItems.increment(stepExecution.getWriteCount() - m.writeCount);
+		m.filterItems.increment(stepExecution.getFilterCount() - m.filterCount);
+		m.skipItems.increment(stepExecution.getSkipCount() - m.skipCount);
+		m.readCount = stepExecution.getReadCount();
+		m.writeCount = stepExecution.getWriteCount();
+		m.filterCount = stepExecution.getFilterCount();
+		m.skipCount = stepExecution.getSkipCount();
+	}
+
+	private Timer phaseTimer(String name, String description, Tags tags) {
+		return Timer.builder(name).description(description).tags(tags).register(registry);
+	}
+
+	private Counter itemCounter(String kind, Tags tags) {
+		return Counter.builder("batch.items").tags(tags).tag("kind", kind).register(registry);
+	}
+
+	// file:/.../a.txt -> txt. 확장자가 없으면 none
+	static String fileType(String fileName) {
+		if (fileName == null) {
+			return "none";
+		}
+		int slash = fileName.lastIndexOf('/');
+		int dot = fileName.lastIndexOf('.');
+		return dot > slash && dot < fileName.length() - 1 ? fileName.substring(dot + 1).toLowerCase() : "none";
+	}
+}
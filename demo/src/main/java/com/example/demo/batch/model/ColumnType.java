@@ -0,0 +1,164 @@
+package com.example.demo.batch.model;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * {@link RecordSchema} 컬럼 타입. STRING 이 아닌 값은 모두 long 하나로 저장한다.
+ * <ul>
+ * <li>LONG : 값 그대로. 소수점이 있으면 NumberFormatException (반올림하지 않음)</li>
+ * <li>DECIMAL : 소수점 이하 scale 자리까지 정수로 (124.60, scale 2 -> 12460). 넘치는 자리는 반올림</li>
+ * <li>DATE : epoch day (yyyy-MM-dd 또는 yyyyMMdd)</li>
+ * </ul>
+ */
+public enum ColumnType {
+
+	STRING(Types.VARCHAR), LONG(Types.BIGINT), DECIMAL(Types.NUMERIC), DATE(Types.DATE);
+
+	private final int sqlType;
+
+	ColumnType(int sqlType) {
+		this.sqlType = sqlType;
+	}
+
+	public int sqlType() {
+		return sqlType;
+	}
+
+	public long parse(CharSequence text, int scale) {
+		switch (this) {
+		case LONG:
+		case DECIMAL:
+			return parseScaled(text, 0, text.length(), this == LONG ? -1 : scale);
+		case DATE:
+			String s = text.toString().trim();
+			if (s.length() == 8 && s.indexOf('-') < 0) {
+				s = s.substring(0, 4) + "-" + s.substring(4, 6) + "-" + s.substring(6);
+			}
+			return LocalDate.parse(s).toEpochDay();
+		default:
+			throw new IllegalStateException("STRING column has no numeric value");
+		}
+	}
+
+	/**
+	 * byte(ASCII) 에서 바로 읽는다. String 을 만들지 않음 (LONG, DECIMAL). DATE 는 String 으로 변환해서 읽음
+	 */
+	public long parse(byte[] buf, int off, int len, int scale) {
+		if (this == DATE) {
+			return parse(new String(buf, off, len, StandardCharsets.ISO_8859_1), scale);
+		}
+		return parseScaled(new AsciiChars(buf), off, off + len, this == LONG ? -1 : scale);
+	}
+
+	// jdbc 로 넘길 값
+	public Object toJdbc(long value, int scale) {
+		switch (this) {
+		case LONG:
+			return value;
+		case DECIMAL:
+			return BigDecimal.valueOf(value, scale);
+		case DATE:
+			return LocalDate.ofEpochDay(value);
+		default:
+			throw new IllegalStateException("STRING column has no numeric value");
+		}
+	}
+
+	public String format(long value, int scale) {
+		switch (this) {
+		case DECIMAL:
+			return BigDecimal.valueOf(value, scale).toPlainString();
+		case DATE:
+			return LocalDate.ofEpochDay(value).toString();
+		default:
+			return Long.toString(value);
+		}
+	}
+
+	// scale < 0 : 정수만 (LONG)
+	private static long parseScaled(CharSequence s, int from, int to, int scale) {
+		// 앞뒤 공백
+		while (from < to && s.charAt(from) == ' ') {
+			from++;
+		}
+		while (to > from && s.charAt(to - 1) == ' ') {
+			to--;
+		}
+		if (from == to) {
+			throw new NumberFormatException("empty number");
+		}
+
+		boolean negative = false;
+		char first = s.charAt(from);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			from++;
+		}
+
+		long value = 0;
+		int fraction = -1; // 소수점 이후 읽은 자리 수, -1 : 소수점 전
+		int dropped = 0; // scale 을 넘어 버린 자리 수
+		boolean roundUp = false;
+		boolean digits = false;
+		for (int i = from; i < to; i++) {
+			char c = s.charAt(i);
+			if (c == '.' && fraction < 0 && scale >= 0) {
+				fraction = 0;
+				continue;
+			}
+			if (c < '0' || c > '9') {
+				throw new NumberFormatException("invalid number : " + s.subSequence(from, to));
+			}
+			digits = true;
+			if (fraction >= 0 && fraction == scale) {
+				// scale 을 넘는 첫 자리로 반올림
+				if (dropped++ == 0) {
+					roundUp = c >= '5';
+				}
+				continue;
+			}
+			value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+			if (fraction >= 0) {
+				fraction++;
+			}
+		}
+		if (!digits) {
+			throw new NumberFormatException("invalid number : " + s.subSequence(from, to));
+		}
+		for (int f = Math.max(fraction, 0); f < scale; f++) {
+			value = Math.multiplyExact(value, 10);
+		}
+		if (roundUp) {
+			value = Math.addExact(value, 1);
+		}
+		return negative ? -value : value;
+	}
+
+	// byte[] 를 ASCII 문자열처럼 읽기
+	private static final class AsciiChars implements CharSequence {
+
+		private final byte[] buf;
+
+		AsciiChars(byte[] buf) {
+			this.buf = buf;
+		}
+
+		@Override
+		public int length() {
+			return buf.length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (buf[index] & 0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new String(buf, start, end - start, StandardCharsets.ISO_8859_1);
+		}
+	}
+}
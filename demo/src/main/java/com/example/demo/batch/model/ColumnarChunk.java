@@ -0,0 +1,119 @@
+package com.example.demo.batch.model;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.List;
+
+import com.example.demo.batch.config.SampleData;
+
+/**
+ * chunk 를 컬럼 배열로 옮긴 것. 숫자 컬럼은 long[], STRING 컬럼은 String[] 하나씩이라
+ * writer 가 행마다 객체 getter 를 거치지 않고 컬럼 단위로 값을 bind 한다.
+ */
+public final class ColumnarChunk {
+
+	// 사용할 레코드 컬럼 (bind 순서)
+	private final int[] columns;
+
+	// bind 할 컬럼 타입. item 마다 schema 가 다르면 (여러 형식 파일이 묶인 partition) 타입이 다른 컬럼은 STRING
+	private final ColumnType[] types;
+
+	private final int[] scales;
+
+	private final int size;
+
+	// 컬럼별 String[] 또는 long[]
+	private final Object[] values;
+
+	private final BitSet[] nulls;
+
+	private ColumnarChunk(int[] columns, ColumnType[] types, int[] scales, int size) {
+		this.columns = columns;
+		this.types = types;
+		this.scales = scales;
+		this.size = size;
+		this.values = new Object[columns.length];
+		this.nulls = new BitSet[columns.length];
+		for (int j = 0; j < columns.length; j++) {
+			values[j] = types[j] == ColumnType.STRING ? new String[size] : new long[size];
+			nulls[j] = new BitSet(size);
+		}
+	}
+
+	public static ColumnarChunk of(List<? extends SampleData> items, int... columns) {
+		RecordSchema schema = items.isEmpty() ? SampleData.SCHEMA : items.get(0).getSchema();
+		ColumnType[] types = new ColumnType[columns.length];
+		int[] scales = new int[columns.length];
+		for (int j = 0; j < columns.length; j++) {
+			types[j] = schema.type(columns[j]);
+			scales[j] = schema.scale(columns[j]);
+		}
+		for (SampleData item : items) {
+			RecordSchema other = item.getSchema();
+			if (other == schema) {
+				continue;
+			}
+			for (int j = 0; j < columns.length; j++) {
+				if (other.type(columns[j]) != types[j] || other.scale(columns[j]) != scales[j]) {
+					types[j] = ColumnType.STRING;
+				}
+			}
+		}
+
+		ColumnarChunk chunk = new ColumnarChunk(columns, types, scales, items.size());
+		for (int row = 0; row < items.size(); row++) {
+			SampleData item = items.get(row);
+			for (int j = 0; j < columns.length; j++) {
+				int column = columns[j];
+				if (item.isNull(column)) {
+					chunk.nulls[j].set(row);
+				} else if (chunk.values[j] instanceof long[] longs) {
+					longs[row] = item.getLong(column);
+				} else {
+					((String[]) chunk.values[j])[row] = item.getText(column);
+				}
+			}
+		}
+		return chunk;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public ColumnType type(int index) {
+		return types[index];
+	}
+
+	public boolean isNull(int row, int index) {
+		return nulls[index].get(row);
+	}
+
+	public long getLong(int row, int index) {
+		return ((long[]) values[index])[row];
+	}
+
+	public String getString(int row, int index) {
+		return ((String[]) values[index])[row];
+	}
+
+	/**
+	 * row 의 값을 parameter 1..n 에 타입대로 bind
+	 */
+	public void bind(PreparedStatement ps, int row) throws SQLException {
+		for (int j = 0; j < columns.length; j++) {
+			ColumnType type = types[j];
+			int parameter = j + 1;
+			if (nulls[j].get(row)) {
+				ps.setNull(parameter, type.sqlType());
+				continue;
+			}
+			switch (type) {
+			case STRING -> ps.setString(parameter, getString(row, j));
+			case LONG -> ps.setLong(parameter, getLong(row, j));
+			default -> ps.setObject(parameter, type.toJdbc(getLong(row, j), scales[j]), type.sqlType());
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.demo.batch.model;
+
+import java.util.Arrays;
+
+/**
+ * 레코드 컬럼 이름과 타입.
+ * <p>
+ * STRING 이 아닌 컬럼은 reader 에서 한 번만 파싱해 long 으로 저장하고 ({@link ColumnType}),
+ * writer 는 그 값을 타입 그대로 bind 한다. 컬럼별 저장 위치(slot)는 STRING / 숫자 배열 안의 index 이다.
+ */
+public final class RecordSchema {
+
+	private final String[] names;
+
+	private final ColumnType[] types;
+
+	private final int[] scales;
+
+	// 컬럼 -> strings[] 또는 longs[] 의 index
+	private final int[] slots;
+
+	private final int stringCount;
+
+	private final int longCount;
+
+	private RecordSchema(String[] names, ColumnType[] types, int[] scales) {
+		this.names = names;
+		this.types = types;
+		this.scales = scales;
+		this.slots = new int[names.length];
+		int s = 0;
+		int l = 0;
+		for (int i = 0; i < names.length; i++) {
+			slots[i] = types[i] == ColumnType.STRING ? s++ : l++;
+		}
+		this.stringCount = s;
+		this.longCount = l;
+	}
+
+	// 모든 컬럼이 STRING
+	public static RecordSchema strings(String... names) {
+		ColumnType[] types = new ColumnType[names.length];
+		Arrays.fill(types, ColumnType.STRING);
+		return new RecordSchema(names.clone(), types, new int[names.length]);
+	}
+
+	/**
+	 * spec 에 적힌 컬럼만 타입을 바꾼다. 예) "c4:decimal(2),c5:long,c6:date". 비어 있으면 그대로
+	 */
+	public RecordSchema withTypes(String spec) {
+		if (spec == null || spec.isBlank()) {
+			return this;
+		}
+		ColumnType[] newTypes = types.clone();
+		int[] newScales = scales.clone();
+		for (String entry : spec.split(",")) {
+			String[] pair = entry.trim().split(":");
+			if (pair.length != 2) {
+				throw new IllegalArgumentException("Invalid column spec : " + entry);
+			}
+			int column = indexOf(pair[0].trim());
+			if (column < 0) {
+				throw new IllegalArgumentException("Unknown column : " + pair[0]);
+			}
+			String type = pair[1].trim().toUpperCase();
+			int scale = 0;
+			int paren = type.indexOf('(');
+			if (paren > 0 && type.endsWith(")")) {
+				scale = Integer.parseInt(type.substring(paren + 1, type.length() - 1).trim());
+				type = type.substring(0, paren).trim();
+			}
+			newTypes[column] = ColumnType.valueOf(type);
+			newScales[column] = scale;
+		}
+		return new RecordSchema(names, newTypes, newScales);
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+	public String name(int column) {
+		return names[column];
+	}
+
+	public ColumnType type(int column) {
+		return types[column];
+	}
+
+	public int scale(int column) {
+		return scales[column];
+	}
+
+	public int slot(int column) {
+		return slots[column];
+	}
+
+	public int stringCount() {
+		return stringCount;
+	}
+
+	public int longCount() {
+		return longCount;
+	}
+
+	public int indexOf(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < names.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(names[i]).append(':').append(types[i].name().toLowerCase());
+			if (types[i] == ColumnType.DECIMAL) {
+				sb.append('(').append(scales[i]).append(')');
+			}
+		}
+		return sb.toString();
+	}
+}
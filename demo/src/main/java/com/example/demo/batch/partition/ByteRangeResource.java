@@ -0,0 +1,114 @@
+package com.example.demo.batch.partition;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * 파일의 [start, end) 구간만 읽는 Resource. FlatFileItemReader 가 byte range partition 을 읽을 때 쓴다.
+ */
+public class ByteRangeResource extends AbstractResource {
+
+	private final File file;
+
+	private final long start;
+
+	private final long end;
+
+	public ByteRangeResource(File file, long start, long end) {
+		this.file = file;
+		this.start = start;
+		this.end = end;
+	}
+
+	public File getSourceFile() {
+		return file;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getEnd() {
+		return end;
+	}
+
+	@Override
+	public boolean exists() {
+		return file.exists();
+	}
+
+	@Override
+	public String getFilename() {
+		return file.getName();
+	}
+
+	@Override
+	public long contentLength() {
+		return end - start;
+	}
+
+	@Override
+	public String getDescription() {
+		return "byte range [" + start + ", " + end + ") of " + file.getAbsolutePath();
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		channel.position(start);
+		return new RangeInputStream(Channels.newInputStream(channel), end - start);
+	}
+
+	private static final class RangeInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		RangeInputStream(InputStream in, long remaining) {
+			super(in);
+			this.remaining = remaining;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b >= 0) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int n = super.read(b, off, (int) Math.min(len, remaining));
+			if (n > 0) {
+				remaining -= n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), remaining);
+		}
+	}
+}
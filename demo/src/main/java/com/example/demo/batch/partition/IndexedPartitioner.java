@@ -0,0 +1,26 @@
+package com.example.demo.batch.partition;
+
+import java.util.Map;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * {@link InputResourceIndex} 에 캐시된 파일 목록/partition 계획을 쓰는 partitioner.
+ */
+public class IndexedPartitioner implements Partitioner {
+
+	private final InputResourceIndex index;
+
+	private final long minSplitBytes;
+
+	public IndexedPartitioner(InputResourceIndex index, long minSplitBytes) {
+		this.index = index;
+		this.minSplitBytes = minSplitBytes;
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		return index.plan(gridSize, minSplitBytes);
+	}
+}
@@ -0,0 +1,180 @@
+package com.example.demo.batch.partition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.reader.RangeBarFileReader;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * masterStep 입력 파일 목록(크기, 수정시간, 확장자) 캐시.
+ * <p>
+ * partitioner 는 step 마다 새로 만들어지므로, 패턴 스캔은 여기서 ttl-ms 동안 한 번만 한다.
+ * partition 계획도 (gridSize, min-split-bytes) 별로 같은 목록에 대해 한 번만 계산하고 복사본을 돌려준다.
+ * <p>
+ * 캐시된 목록을 쓰기 전에 파일마다 크기/수정시간과 패턴 root 디렉토리의 수정시간을 다시 확인하고,
+ * 하나라도 다르면 ttl 전이라도 다시 스캔한다 (파일이 커지거나 추가/삭제되면 이전 byte range 계획을 쓰지 않음).
+ * 하위 디렉토리(** 패턴)의 추가/삭제는 ttl 이나 {@link #invalidate()} 로만 반영된다.
+ */
+@Slf4j
+@Component
+public class InputResourceIndex {
+
+	public record Entry(Resource resource, long size, long lastModified, String type) {
+	}
+
+	// rootModified : 스캔 시점의 root 디렉토리 수정시간 (알 수 없으면 -1), plans : 이 목록의 partition 계획
+	private record Snapshot(List<Entry> entries, Resource[] resources, long rootModified, long scannedAt,
+			Map<PlanKey, Map<String, ExecutionContext>> plans) {
+
+		Snapshot(List<Entry> entries, Resource[] resources, long rootModified, long scannedAt) {
+			this(entries, resources, rootModified, scannedAt, new ConcurrentHashMap<>());
+		}
+	}
+
+	private record PlanKey(int gridSize, long minSplitBytes) {
+	}
+
+	private final ResourcePatternResolver resolver;
+
+	private final String pattern;
+
+	private final long ttlMillis;
+
+	private volatile Snapshot snapshot;
+
+	public InputResourceIndex(@Value("${batch.partition.resource-pattern:./input/*.*}") String pattern,
+			@Value("${batch.partition.index-ttl-ms:30000}") long ttlMillis) {
+		this(new PathMatchingResourcePatternResolver(), pattern, ttlMillis);
+	}
+
+	InputResourceIndex(ResourcePatternResolver resolver, String pattern, long ttlMillis) {
+		this.resolver = resolver;
+		this.pattern = pattern;
+		this.ttlMillis = ttlMillis;
+	}
+
+	public List<Entry> entries() {
+		return current().entries();
+	}
+
+	public Resource[] resources() {
+		return current().resources().clone();
+	}
+
+	/**
+	 * 현재 파일 목록의 partition 계획. step 이 ExecutionContext 를 바꾸므로 매번 복사본을 준다.
+	 */
+	public Map<String, ExecutionContext> plan(int gridSize, long minSplitBytes) {
+		Snapshot current = current();
+		Map<String, ExecutionContext> plan = current.plans().computeIfAbsent(new PlanKey(gridSize, minSplitBytes), key -> {
+			SizeAwarePartitioner partitioner = new SizeAwarePartitioner();
+			partitioner.setResources(current.resources());
+			partitioner.setMinSplitBytes(key.minSplitBytes());
+			// rangeBar 배열 파일은 객체가 여러 줄이라 나누지 않음 (파일 하나를 RangeBarFileReader 가 스트리밍)
+			partitioner.setSplittable(resource -> !RangeBarFileReader.matches(resource));
+			return partitioner.partition(key.gridSize());
+		});
+
+		Map<String, ExecutionContext> copy = new LinkedHashMap<>();
+		plan.forEach((name, context) -> copy.put(name, new ExecutionContext(context)));
+		return copy;
+	}
+
+	// 다음 조회 때 다시 스캔
+	public void invalidate() {
+		snapshot = null;
+	}
+
+	private Snapshot current() {
+		Snapshot s = snapshot;
+		if (isFresh(s)) {
+			return s;
+		}
+		synchronized (this) {
+			s = snapshot;
+			if (!isFresh(s)) {
+				s = scan();
+				snapshot = s;
+			}
+			return s;
+		}
+	}
+
+	private boolean isFresh(Snapshot s) {
+		return s != null && System.currentTimeMillis() - s.scannedAt() < ttlMillis && unchanged(s);
+	}
+
+	// 스캔 후 root 디렉토리나 파일의 크기/수정시간이 바뀌었는지 (stat 만, 패턴 스캔은 하지 않음)
+	private boolean unchanged(Snapshot s) {
+		if (s.rootModified() != rootModified()) {
+			return false;
+		}
+		try {
+			for (Entry entry : s.entries()) {
+				if (entry.resource().contentLength() != entry.size()
+						|| entry.resource().lastModified() != entry.lastModified()) {
+					return false;
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			// 삭제된 파일
+			return false;
+		}
+	}
+
+	// 패턴에서 와일드카드 앞 디렉토리의 수정시간. 파일이 추가/삭제되면 바뀜
+	private long rootModified() {
+		int wildcard = pattern.indexOf('*');
+		if (wildcard < 0) {
+			wildcard = pattern.indexOf('?');
+		}
+		String root = pattern.substring(0, pattern.lastIndexOf('/', wildcard < 0 ? pattern.length() : wildcard) + 1);
+		try {
+			return root.isEmpty() ? -1 : resolver.getResource(root).lastModified();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private Snapshot scan() {
+		// 목록보다 먼저 읽어야 스캔 중 추가된 파일을 다음 조회에서 놓치지 않음
+		long rootModified = rootModified();
+		List<Entry> entries = new ArrayList<>();
+		try {
+			for (Resource resource : resolver.getResources(pattern)) {
+				entries.add(new Entry(resource, resource.contentLength(), resource.lastModified(),
+						type(resource.getFilename())));
+			}
+		} catch (IOException e) {
+			// 이전 목록이 있으면 그대로 사용
+			Snapshot previous = snapshot;
+			log.error("input resource scan failed : {}", pattern, e);
+			if (previous != null) {
+				return new Snapshot(previous.entries(), previous.resources(), rootModified, System.currentTimeMillis());
+			}
+		}
+		log.info("input resources : {} ({})", entries.size(), pattern);
+		Resource[] resources = entries.stream().map(Entry::resource).toArray(Resource[]::new);
+		return new Snapshot(Collections.unmodifiableList(entries), resources, rootModified, System.currentTimeMillis());
+	}
+
+	private static String type(String filename) {
+		int idx = filename == null ? -1 : filename.lastIndexOf('.');
+		return idx < 0 ? "" : filename.substring(idx + 1).toLowerCase();
+	}
+}
@@ -0,0 +1,210 @@
+package com.example.demo.batch.partition;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * remote partitioning 용 JDBC 테이블 큐 (partition_request_queue).
+ * <p>
+ * manager 가 partition StepExecution id 를 NEW 로 넣고, worker 는 {@code SELECT ... FOR UPDATE SKIP LOCKED} 로
+ * 한 건씩 CLAIMED 로 가져간다. 실행 결과(StepExecution 상태)는 job repository 에 남고, 큐에는 처리 상태만 남긴다.
+ * 별도 broker 없이 job repository 와 같은 DB 만 있으면 된다.
+ * <p>
+ * claimed_at 은 lease 로 쓴다. worker 는 실행하는 동안 {@link #renew(long, String)} 로 갱신하고,
+ * lease-ms 동안 갱신되지 않은 CLAIMED 요청(worker 가 죽은 경우)은 다른 worker 가 다시 가져간다.
+ * 시간은 각 노드의 시계를 쓰므로 lease 는 노드 간 시계 차이보다 충분히 커야 한다.
+ * manager 가 기다리기를 그만두면 {@link #cancel(Collection)} 로 NEW 요청은 지우고 CLAIMED 요청은 CANCELLED 로 바꾼다.
+ * <p>
+ * manager 는 job repository 대신 {@link #statuses(long, String)} 한 번의 조회로 partition 들의 진행을 확인한다.
+ */
+@Slf4j
+public class JdbcPartitionQueue {
+
+	public record Request(long stepExecutionId, long jobExecutionId, String stepName) {
+	}
+
+	public static final String NEW = "NEW";
+
+	public static final String CLAIMED = "CLAIMED";
+
+	// manager 가 취소한 요청. 실행중인 worker 는 lease 갱신에 실패해 chunk 경계에서 중지
+	public static final String CANCELLED = "CANCELLED";
+
+	private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS partition_request_queue ("
+			+ " step_execution_id BIGINT NOT NULL PRIMARY KEY,"
+			+ " job_execution_id BIGINT NOT NULL,"
+			+ " step_name VARCHAR(100) NOT NULL,"
+			+ " status VARCHAR(20) NOT NULL,"
+			+ " worker VARCHAR(200),"
+			+ " created_at TIMESTAMP NOT NULL,"
+			+ " claimed_at TIMESTAMP,"
+			+ " finished_at TIMESTAMP)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	// 잠긴 행은 기다리지 않고 건너뜀
+	private String lockClause = "FOR UPDATE SKIP LOCKED";
+
+	private long leaseMillis = 60_000;
+
+	// job repository 테이블 prefix (spring.batch.jdbc.table-prefix)
+	private String batchTablePrefix = "BATCH_";
+
+	private volatile boolean initialized = false;
+
+	public JdbcPartitionQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	public void initialize() {
+		if (!initialized) {
+			jdbcTemplate.execute(CREATE_SQL);
+			jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS partition_request_queue_job_idx"
+					+ " ON partition_request_queue (job_execution_id)");
+			initialized = true;
+		}
+	}
+
+	public void enqueue(StepExecution stepExecution, String stepName) {
+		initialize();
+		jdbcTemplate.update(
+				"INSERT INTO partition_request_queue (step_execution_id, job_execution_id, step_name, status, created_at)"
+						+ " VALUES (?, ?, ?, ?, ?)",
+				stepExecution.getId(), stepExecution.getJobExecutionId(), stepName, NEW,
+				new Timestamp(System.currentTimeMillis()));
+	}
+
+	/**
+	 * NEW 요청이나 lease 가 만료된 CLAIMED 요청 하나를 worker 이름으로 가져간다. 없으면 null.
+	 */
+	public Request claim(String worker) {
+		initialize();
+		return transactionTemplate.execute(status -> {
+			Timestamp expired = new Timestamp(System.currentTimeMillis() - leaseMillis);
+			List<Request> found = jdbcTemplate.query(
+					"SELECT step_execution_id, job_execution_id, step_name, status, worker FROM partition_request_queue"
+							+ " WHERE status = ? OR (status = ? AND claimed_at < ?)"
+							+ " ORDER BY created_at, step_execution_id LIMIT 1 " + lockClause,
+					(rs, row) -> {
+						if (CLAIMED.equals(rs.getString(4))) {
+							log.warn("partition request {} lease of {} expired, reclaiming", rs.getLong(1),
+									rs.getString(5));
+						}
+						return new Request(rs.getLong(1), rs.getLong(2), rs.getString(3));
+					}, NEW, CLAIMED, expired);
+			if (found.isEmpty()) {
+				return null;
+			}
+			Request request = found.get(0);
+			jdbcTemplate.update(
+					"UPDATE partition_request_queue SET status = ?, worker = ?, claimed_at = ? WHERE step_execution_id = ?",
+					CLAIMED, worker, new Timestamp(System.currentTimeMillis()), request.stepExecutionId());
+			return request;
+		});
+	}
+
+	// lease 갱신. 다른 worker 가 가져갔거나 취소되었으면 false
+	public boolean renew(long stepExecutionId, String worker) {
+		return jdbcTemplate.update(
+				"UPDATE partition_request_queue SET claimed_at = ? WHERE step_execution_id = ? AND worker = ? AND status = ?",
+				new Timestamp(System.currentTimeMillis()), stepExecutionId, worker, CLAIMED) > 0;
+	}
+
+	// status : 실행을 마친 StepExecution 의 BatchStatus. 취소된 요청은 기다리는 manager 가 없으므로 지움
+	public void finish(long stepExecutionId, String worker, String status) {
+		int updated = jdbcTemplate.update(
+				"UPDATE partition_request_queue SET status = ?, finished_at = ?"
+						+ " WHERE step_execution_id = ? AND worker = ? AND status = ?",
+				status, new Timestamp(System.currentTimeMillis()), stepExecutionId, worker, CLAIMED);
+		if (updated == 0) {
+			jdbcTemplate.update("DELETE FROM partition_request_queue WHERE step_execution_id = ? AND status = ?",
+					stepExecutionId, CANCELLED);
+		}
+	}
+
+	/**
+	 * 아직 가져가지 않은 요청은 지우고, 실행중인 요청은 CANCELLED 로 바꾼다.
+	 * @return 지운 (어느 worker 도 실행하지 않은) 요청 id
+	 */
+	public Set<Long> cancel(Collection<Long> stepExecutionIds) {
+		Set<Long> removed = new HashSet<>();
+		for (Long id : stepExecutionIds) {
+			if (jdbcTemplate.update("DELETE FROM partition_request_queue WHERE step_execution_id = ? AND status = ?",
+					id, NEW) > 0) {
+				removed.add(id);
+			} else {
+				jdbcTemplate.update("UPDATE partition_request_queue SET status = ? WHERE step_execution_id = ? AND status = ?",
+						CANCELLED, id, CLAIMED);
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * job execution 의 stepName 요청 상태 (step execution id -> status). 실행을 마친 요청은 {@link #finish} 가 남긴
+	 * BatchStatus 이름이고, 취소된 뒤 worker 가 끝낸 요청은 지워져 없다.
+	 */
+	public Map<Long, String> statuses(long jobExecutionId, String stepName) {
+		initialize();
+		Map<Long, String> statuses = new HashMap<>();
+		jdbcTemplate.query("SELECT step_execution_id, status FROM partition_request_queue"
+				+ " WHERE job_execution_id = ? AND step_name = ?",
+				rs -> {
+					statuses.put(rs.getLong(1), rs.getString(2));
+				}, jobExecutionId, stepName);
+		return statuses;
+	}
+
+	// 아직 worker 가 실행중이거나 가져가지 않은 요청
+	public static boolean isPending(String status) {
+		return NEW.equals(status) || CLAIMED.equals(status) || CANCELLED.equals(status);
+	}
+
+	/**
+	 * job repository 의 job execution 상태 (JobOperator.stop 확인용). JobExplorer 와 달리 step/context 는 읽지 않는다.
+	 */
+	public String jobStatus(long jobExecutionId) {
+		List<String> status = jdbcTemplate.queryForList(
+				"SELECT STATUS FROM " + batchTablePrefix + "JOB_EXECUTION WHERE JOB_EXECUTION_ID = ?", String.class,
+				jobExecutionId);
+		return status.isEmpty() ? null : status.get(0);
+	}
+
+	public void delete(Collection<Long> stepExecutionIds) {
+		for (Long id : stepExecutionIds) {
+			jdbcTemplate.update("DELETE FROM partition_request_queue WHERE step_execution_id = ?", id);
+		}
+	}
+
+	// SKIP LOCKED 를 지원하지 않는 DB (H2 2.1 등) 용
+	public void setLockClause(String lockClause) {
+		this.lockClause = lockClause;
+	}
+
+	public long getLeaseMillis() {
+		return leaseMillis;
+	}
+
+	public void setLeaseMillis(long leaseMillis) {
+		this.leaseMillis = leaseMillis;
+	}
+
+	public void setBatchTablePrefix(String batchTablePrefix) {
+		this.batchTablePrefix = batchTablePrefix;
+	}
+}
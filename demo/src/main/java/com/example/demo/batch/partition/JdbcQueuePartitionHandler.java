@@ -0,0 +1,118 @@
+package com.example.demo.batch.partition;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.support.AbstractPartitionHandler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * partition StepExecution 을 {@link JdbcPartitionQueue} 에 넣고, 다른 JVM 의 {@link JdbcQueuePartitionWorker} 들이
+ * 실행을 마칠 때까지 기다리는 manager 쪽 PartitionHandler.
+ * <p>
+ * poll 마다 큐 테이블에서 이 job 의 요청 상태를 한 번에 읽고 (worker 가 {@link JdbcPartitionQueue#finish} 로 기록),
+ * 끝난 partition 의 StepExecution 만 job repository 에서 한 번 읽는다. 중지 확인도 job execution 상태 한 컬럼만 읽는다.
+ * (JobExplorer 는 StepExecution 하나를 읽을 때도 job 의 모든 step 과 context 를 읽으므로 polling 에는 쓰지 않는다)
+ * <p>
+ * job 이 STOPPING 이 되면 (JobOperator.stop) 아직 가져가지 않은 요청은 취소하고, 실행중인 partition 이
+ * chunk 경계에서 멈출 때까지 기다린 뒤 STOPPED 로 끝난다. timeout 이면 남은 요청을 취소하고 실패한다.
+ */
+@Slf4j
+public class JdbcQueuePartitionHandler extends AbstractPartitionHandler {
+
+	private final JdbcPartitionQueue queue;
+
+	private final JobExplorer jobExplorer;
+
+	private final String stepName;
+
+	private long pollMillis = 1000;
+
+	// 0 이하면 무제한
+	private long timeoutMillis = 3_600_000;
+
+	public JdbcQueuePartitionHandler(JdbcPartitionQueue queue, JobExplorer jobExplorer, String stepName) {
+		this.queue = queue;
+		this.jobExplorer = jobExplorer;
+		this.stepName = stepName;
+	}
+
+	public void setPollMillis(long pollMillis) {
+		this.pollMillis = pollMillis;
+	}
+
+	public void setTimeoutMillis(long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	@Override
+	protected Set<StepExecution> doHandle(StepExecution managerStepExecution, Set<StepExecution> partitionStepExecutions)
+			throws Exception {
+		Map<Long, StepExecution> pending = new LinkedHashMap<>();
+		for (StepExecution partition : partitionStepExecutions) {
+			queue.enqueue(partition, stepName);
+			pending.put(partition.getId(), partition);
+		}
+		log.info("{} partitions of {} queued for remote workers", pending.size(), stepName);
+
+		Set<StepExecution> result = new HashSet<>();
+		long deadline = timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : Long.MAX_VALUE;
+		boolean stopped = false;
+		try {
+			while (!pending.isEmpty()) {
+				Thread.sleep(pollMillis);
+				Map<Long, String> statuses = queue.statuses(managerStepExecution.getJobExecutionId(), stepName);
+				for (Iterator<StepExecution> it = pending.values().iterator(); it.hasNext();) {
+					StepExecution partition = it.next();
+					String status = statuses.get(partition.getId());
+					if (status != null && JdbcPartitionQueue.isPending(status)) {
+						continue;
+					}
+					// 끝난 요청 (취소된 뒤 끝난 요청은 행이 지워져 있음)
+					StepExecution current = jobExplorer.getStepExecution(partition.getJobExecutionId(),
+							partition.getId());
+					if (current == null || !current.getStatus().isRunning()) {
+						it.remove();
+						result.add(current != null ? current : partition);
+					}
+				}
+				if (!stopped && !pending.isEmpty() && isStopping(managerStepExecution)) {
+					stopped = true;
+					pending.keySet().removeAll(queue.cancel(pending.keySet()));
+					log.info("{} stopping, waiting for {} running partitions", stepName, pending.size());
+				}
+				if (System.currentTimeMillis() > deadline) {
+					throw new TimeoutException(pending.size() + " partitions of " + stepName
+							+ " did not finish in " + timeoutMillis + " ms");
+				}
+			}
+		} finally {
+			Set<Long> finished = new HashSet<>();
+			result.forEach(se -> finished.add(se.getId()));
+			queue.delete(finished);
+			// timeout / interrupt : 남은 요청을 worker 가 가져가지 않도록
+			if (!pending.isEmpty()) {
+				queue.cancel(pending.keySet());
+			}
+		}
+		if (stopped) {
+			throw new JobInterruptedException(stepName + " partitions stopped", BatchStatus.STOPPED);
+		}
+		return result;
+	}
+
+	// polling 중에는 repository 를 update 하지 않으므로 terminateOnly 외에 job 상태도 직접 확인
+	private boolean isStopping(StepExecution managerStepExecution) {
+		return managerStepExecution.isTerminateOnly()
+				|| BatchStatus.STOPPING.name().equals(queue.jobStatus(managerStepExecution.getJobExecutionId()));
+	}
+}
@@ -0,0 +1,169 @@
+package com.example.demo.batch.partition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link JdbcPartitionQueue} 에서 partition 요청을 가져와 해당 step 을 이 JVM 에서 실행하는 worker.
+ * <p>
+ * StepExecution 은 job repository 에서 (ExecutionContext 포함) 다시 읽어 실행하므로 상태/건수/재시작 정보는
+ * local partitioning 과 같은 방식으로 남는다. concurrency 개 스레드가 poll-ms 간격으로 큐를 확인한다.
+ * <p>
+ * 실행중인 요청의 lease 는 lease-ms / 3 마다 갱신한다. 갱신에 실패하면 (manager 가 취소했거나 lease 가 만료되어
+ * 다른 worker 가 가져감) step 을 terminateOnly 로 표시해 chunk 경계에서 멈춘다.
+ * lease 만료로 다시 가져간 partition 은 마지막 commit 의 ExecutionContext 부터 이어서 실행된다.
+ */
+@Slf4j
+public class JdbcQueuePartitionWorker implements SmartLifecycle {
+
+	private final JdbcPartitionQueue queue;
+
+	private final JobExplorer jobExplorer;
+
+	// step 이름 -> Step
+	private final Function<String, Step> stepLocator;
+
+	private final String workerId;
+
+	private final int concurrency;
+
+	private final long pollMillis;
+
+	private volatile boolean running = false;
+
+	private ExecutorService executor;
+
+	private ScheduledExecutorService leaseRenewer;
+
+	// 실행중인 요청 (step execution id -> StepExecution)
+	private final Map<Long, StepExecution> inFlight = new ConcurrentHashMap<>();
+
+	public JdbcQueuePartitionWorker(JdbcPartitionQueue queue, JobExplorer jobExplorer,
+			Function<String, Step> stepLocator, String workerId, int concurrency, long pollMillis) {
+		this.queue = queue;
+		this.jobExplorer = jobExplorer;
+		this.stepLocator = stepLocator;
+		this.workerId = workerId;
+		this.concurrency = Math.max(1, concurrency);
+		this.pollMillis = pollMillis;
+	}
+
+	@Override
+	public void start() {
+		queue.initialize();
+		running = true;
+		executor = Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("partition-worker-"));
+		for (int i = 0; i < concurrency; i++) {
+			executor.execute(this::poll);
+		}
+		long renewMillis = Math.max(1, queue.getLeaseMillis() / 3);
+		leaseRenewer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("partition-lease-"));
+		leaseRenewer.scheduleWithFixedDelay(this::renewLeases, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+		log.info("partition worker {} started! concurrency : {}", workerId, concurrency);
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		if (executor != null) {
+			// 실행중인 step 은 끝까지 (또는 JobOperator.stop 으로 chunk 경계까지) 실행
+			executor.shutdown();
+			try {
+				if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+					executor.shutdownNow();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				executor.shutdownNow();
+			}
+		}
+		if (leaseRenewer != null) {
+			leaseRenewer.shutdownNow();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void poll() {
+		while (running) {
+			JdbcPartitionQueue.Request request;
+			try {
+				request = queue.claim(workerId);
+			} catch (RuntimeException e) {
+				log.warn("partition queue poll failed", e);
+				request = null;
+			}
+
+			if (request == null) {
+				try {
+					Thread.sleep(pollMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				continue;
+			}
+			execute(request);
+		}
+	}
+
+	private void renewLeases() {
+		for (Map.Entry<Long, StepExecution> entry : inFlight.entrySet()) {
+			try {
+				if (!queue.renew(entry.getKey(), workerId)) {
+					log.warn("partition {} ({}) lease lost on {}, stopping at next chunk",
+							entry.getValue().getStepName(), entry.getKey(), workerId);
+					entry.getValue().setTerminateOnly();
+					inFlight.remove(entry.getKey(), entry.getValue());
+				}
+			} catch (RuntimeException e) {
+				log.warn("partition lease renew failed : {}", entry.getKey(), e);
+			}
+		}
+	}
+
+	void execute(JdbcPartitionQueue.Request request) {
+		StepExecution stepExecution = jobExplorer.getStepExecution(request.jobExecutionId(), request.stepExecutionId());
+		if (stepExecution == null) {
+			log.warn("step execution {} not found, dropping request", request.stepExecutionId());
+			queue.finish(request.stepExecutionId(), workerId, "UNKNOWN");
+			return;
+		}
+		// 이전 worker 가 실행을 마치고 queue 에 기록하기 전에 죽은 경우
+		if (!stepExecution.getStatus().isRunning()) {
+			log.info("partition {} ({}) already {}", stepExecution.getStepName(), stepExecution.getId(),
+					stepExecution.getStatus());
+			queue.finish(request.stepExecutionId(), workerId, stepExecution.getStatus().name());
+			return;
+		}
+
+		inFlight.put(stepExecution.getId(), stepExecution);
+		try {
+			Step step = stepLocator.apply(request.stepName());
+			log.info("partition {} ({}) started on {}", stepExecution.getStepName(), stepExecution.getId(), workerId);
+			step.execute(stepExecution);
+		} catch (Exception e) {
+			// AbstractStep 이 상태를 repository 에 기록함. 여기까지 온 예외는 step 을 못 찾은 경우 등
+			log.error("partition {} failed", stepExecution.getStepName(), e);
+		} finally {
+			inFlight.remove(stepExecution.getId());
+			queue.finish(request.stepExecutionId(), workerId, stepExecution.getStatus().name());
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package com.example.demo.batch.partition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+/**
+ * 파일 크기 기준 partitioner.
+ * <p>
+ * MultiResourcePartitioner 는 파일 1개 = partition 1개라서 큰 파일 하나가 전체 시간을 잡아먹는다.
+ * 여기서는 전체 크기 / gridSize 를 목표 크기로 잡고
+ * <ul>
+ * <li>목표보다 큰 파일은 줄 단위로 맞춘 byte range 로 나누고 (startOffset, endOffset)</li>
+ * <li>작은 파일은 같은 확장자끼리 목표 크기까지 묶는다 (fileNames)</li>
+ * </ul>
+ * fileName 에는 항상 (첫번째) 파일 url 이 들어가므로 확장자로 writer 를 고르는 기존 로직은 그대로 동작한다.
+ */
+public class SizeAwarePartitioner implements Partitioner {
+
+	private static final Logger log = LoggerFactory.getLogger(SizeAwarePartitioner.class);
+
+	public static final String FILE_NAME = "fileName";
+
+	// 묶인 작은 파일들의 url (줄바꿈 구분)
+	public static final String FILE_NAMES = "fileNames";
+
+	public static final String START_OFFSET = "startOffset";
+
+	public static final String END_OFFSET = "endOffset";
+
+	private static final String PARTITION_KEY = "partition";
+
+	private Resource[] resources = new Resource[0];
+
+	// 이 크기 이하로는 파일을 나누지 않음
+	private long minSplitBytes = 256 * 1024;
+
+	private Predicate<Resource> splittable = resource -> true;
+
+	public void setResources(Resource[] resources) {
+		this.resources = resources;
+	}
+
+	public void setMinSplitBytes(long minSplitBytes) {
+		this.minSplitBytes = minSplitBytes;
+	}
+
+	// 줄 단위로 나눠 읽을 수 없는 파일(여러 줄에 걸친 레코드)은 false
+	public void setSplittable(Predicate<Resource> splittable) {
+		this.splittable = splittable;
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		Map<String, ExecutionContext> map = new HashMap<>();
+		try {
+			long total = 0;
+			for (Resource resource : resources) {
+				total += resource.contentLength();
+			}
+			long target = Math.max(minSplitBytes, (total + gridSize - 1) / Math.max(1, gridSize));
+
+			// 확장자별 묶음 (작은 파일)
+			Map<String, List<Resource>> packs = new LinkedHashMap<>();
+			Map<String, Long> packBytes = new HashMap<>();
+
+			for (Resource resource : resources) {
+				long size = resource.contentLength();
+				// jar 안의 리소스처럼 파일이 아니면 나누지 않음
+				if (size > target && resource.isFile() && splittable.test(resource)) {
+					for (long[] range : lineAlignedRanges(resource.getFile(), size, target)) {
+						ExecutionContext context = new ExecutionContext();
+						context.putString(FILE_NAME, url(resource));
+						context.putLong(START_OFFSET, range[0]);
+						context.putLong(END_OFFSET, range[1]);
+						map.put(PARTITION_KEY + map.size(), context);
+					}
+					continue;
+				}
+
+				String type = extension(resource.getFilename());
+				List<Resource> pack = packs.get(type);
+				if (pack != null && packBytes.get(type) + size > target) {
+					map.put(PARTITION_KEY + map.size(), packContext(pack));
+					pack = null;
+				}
+				if (pack == null) {
+					pack = new ArrayList<>();
+					packs.put(type, pack);
+					packBytes.put(type, 0L);
+				}
+				pack.add(resource);
+				packBytes.put(type, packBytes.get(type) + size);
+			}
+
+			for (List<Resource> pack : packs.values()) {
+				map.put(PARTITION_KEY + map.size(), packContext(pack));
+			}
+
+			log.info("files : {}, bytes : {}, target bytes : {}, partitions : {}", resources.length, total, target,
+					map.size());
+		} catch (IOException e) {
+			throw new IllegalStateException("partitioning failed", e);
+		}
+		return map;
+	}
+
+	private static ExecutionContext packContext(List<Resource> pack) throws IOException {
+		ExecutionContext context = new ExecutionContext();
+		context.putString(FILE_NAME, url(pack.get(0)));
+		if (pack.size() > 1) {
+			List<String> urls = new ArrayList<>(pack.size());
+			for (Resource resource : pack) {
+				urls.add(url(resource));
+			}
+			context.putString(FILE_NAMES, urls.stream().collect(Collectors.joining("\n")));
+		}
+		return context;
+	}
+
+	/**
+	 * size 를 target 크기로 나누고 각 경계를 다음 줄의 시작으로 옮긴다.
+	 */
+	static List<long[]> lineAlignedRanges(File file, long size, long target) throws IOException {
+		int parts = (int) ((size + target - 1) / target);
+		List<long[]> ranges = new ArrayList<>(parts);
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			long start = 0;
+			for (int i = 1; i <= parts && start < size; i++) {
+				long end = i == parts ? size : alignToLineStart(raf, size * i / parts, size);
+				if (end > start) {
+					ranges.add(new long[] { start, end });
+					start = end;
+				}
+			}
+		}
+		return ranges;
+	}
+
+	// pos 이상에서 처음 시작하는 줄의 offset
+	private static long alignToLineStart(RandomAccessFile raf, long pos, long size) throws IOException {
+		if (pos <= 0) {
+			return 0;
+		}
+		byte[] buf = new byte[8192];
+		long offset = pos - 1;
+		while (offset < size) {
+			raf.seek(offset);
+			int n = raf.read(buf, 0, (int) Math.min(buf.length, size - offset));
+			if (n <= 0) {
+				break;
+			}
+			for (int i = 0; i < n; i++) {
+				if (buf[i] == '\n') {
+					return offset + i + 1;
+				}
+			}
+			offset += n;
+		}
+		return size;
+	}
+
+	private static String url(Resource resource) throws IOException {
+		return resource.getURL().toExternalForm();
+	}
+
+	private static String extension(String filename) {
+		int idx = filename == null ? -1 : filename.lastIndexOf('.');
+		return idx < 0 ? "" : filename.substring(idx + 1).toLowerCase();
+	}
+}
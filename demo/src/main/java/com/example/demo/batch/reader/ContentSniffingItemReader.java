@@ -0,0 +1,61 @@
+package com.example.demo.batch.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.core.io.Resource;
+
+import com.example.demo.batch.config.SampleData;
+
+/**
+ * 파일 내용을 보고 reader 를 고른다. {@link RangeBarFileReader#matches(Resource)} 면 rangeBar 배열 reader,
+ * 아니면 기본(PR* / P2* 상품) reader. MultiResourceItemReader 의 delegate 로 쓰면 파일마다 다시 고른다.
+ */
+public class ContentSniffingItemReader implements ResourceAwareItemReaderItemStream<SampleData> {
+
+	private final ResourceAwareItemReaderItemStream<SampleData> defaultReader;
+
+	private final RangeBarFileReader rangeBarReader;
+
+	private Resource resource;
+
+	private ResourceAwareItemReaderItemStream<SampleData> current;
+
+	public ContentSniffingItemReader(ResourceAwareItemReaderItemStream<SampleData> defaultReader,
+			RangeBarFileReader rangeBarReader) {
+		this.defaultReader = defaultReader;
+		this.rangeBarReader = rangeBarReader;
+	}
+
+	@Override
+	public void setResource(Resource resource) {
+		this.resource = resource;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		current = RangeBarFileReader.matches(resource) ? rangeBarReader : defaultReader;
+		current.setResource(resource);
+		current.open(executionContext);
+	}
+
+	@Override
+	public SampleData read() throws Exception {
+		return current.read();
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		if (current != null) {
+			current.update(executionContext);
+		}
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		if (current != null) {
+			current.close();
+			current = null;
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package com.example.demo.batch.reader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeParseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+import com.example.demo.batch.config.SampleData;
+import com.example.demo.batch.model.ColumnType;
+import com.example.demo.batch.model.RecordSchema;
+import com.example.demo.batch.partition.ByteRangeResource;
+
+/**
+ * PR* / P2* 다중 레코드 텍스트 파일용 reader.
+ * <p>
+ * FlatFileItemReader + PatternMatchingCompositeLineMapper 는 줄마다 String, FieldSet, token 배열을 만들고
+ * BeanWrapper 로 reflection 매핑을 한다. 이 reader 는 파일을 MappedByteBuffer 로 열어 byte 단위로
+ * 줄과 ',' 를 찾고, prefix 도 byte 비교로 확인해서 필드 값 String 과 SampleData 만 만든다.
+ * 숫자 컬럼({@link RecordSchema})은 String 을 만들지 않고 byte 에서 바로 파싱한다.
+ * <ul>
+ * <li>productLineMapper() 와 같이 PR*, P2* 줄의 토큰을 순서대로 c1..c4 에 넣는다 (모자라면 null, 넘치면 무시)</li>
+ * <li>prefix 가 맞지 않는 줄(중간에 반복되는 헤더 등)은 예외 대신 건너뛰고 개수만 센다</li>
+ * <li>숫자 컬럼 값을 읽을 수 없으면 FlatFileItemReader 와 같이 FlatFileParseException (step 의 skip 대상)</li>
+ * <li>quote 는 처리하지 않는다</li>
+ * <li>ByteRangeResource 면 해당 range 만 읽는다</li>
+ * <li>다음에 읽을 byte offset 을 ExecutionContext 에 저장하므로 재시작시 그 위치부터 읽는다</li>
+ * </ul>
+ * 2GB 이상 파일은 WINDOW 크기 단위로 나눠서 map 한다 (한 줄은 WINDOW 보다 짧아야 함).
+ * ExecutionContext key 는 ItemStreamSupport 와 같이 "name.offset" 이다.
+ */
+public class MappedProductFileReader implements ResourceAwareItemReaderItemStream<SampleData> {
+
+	private static final Logger log = LoggerFactory.getLogger(MappedProductFileReader.class);
+
+	private static final String OFFSET_KEY = "offset";
+
+	private static final long WINDOW = 256L * 1024 * 1024;
+
+	private static final int FIELDS = 4;
+
+	// ExecutionContext key prefix
+	private String name;
+
+	private Resource resource;
+
+	private int linesToSkip = 0;
+
+	private FileChannel channel;
+
+	private MappedByteBuffer window;
+
+	private long windowStart;
+
+	// 다음에 읽을 줄의 파일 offset
+	private long position;
+
+	private long end;
+
+	// 현재 줄 (window 기준 index)
+	private int lineFrom;
+
+	private int lineTo;
+
+	private byte[] scratch = new byte[128];
+
+	private long unmatched;
+
+	// 이번 open 이후 읽은 줄 수 (오류 메시지용, 재시작이면 재시작 위치부터 셈)
+	private int lineCount;
+
+	private RecordSchema schema = SampleData.SCHEMA;
+
+	public MappedProductFileReader() {
+		setName("mappedProductFileReader");
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public void setResource(Resource resource) {
+		this.resource = resource;
+	}
+
+	public void setLinesToSkip(int linesToSkip) {
+		this.linesToSkip = linesToSkip;
+	}
+
+	public void setSchema(RecordSchema schema) {
+		this.schema = schema;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		try {
+			File file;
+			long start;
+			if (resource instanceof ByteRangeResource range) {
+				file = range.getSourceFile();
+				start = range.getStart();
+				end = range.getEnd();
+			} else {
+				file = resource.getFile();
+				start = 0;
+				end = file.length();
+			}
+
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			end = Math.min(end, channel.size());
+			unmatched = 0;
+			lineCount = 0;
+
+			String offsetKey = executionContextKey(OFFSET_KEY);
+			if (executionContext.containsKey(offsetKey)) {
+				// 재시작 : 마지막 commit 위치부터
+				position = executionContext.getLong(offsetKey);
+				map(position);
+			} else {
+				position = start;
+				map(position);
+				int skipped = 0;
+				while (skipped < linesToSkip && nextLine()) {
+					skipped++;
+				}
+			}
+		} catch (IOException e) {
+			throw new ItemStreamException("Failed to open " + resource, e);
+		}
+	}
+
+	@Override
+	public SampleData read() throws Exception {
+		while (nextLine()) {
+			if (lineTo - lineFrom >= 2 && window.get(lineFrom) == 'P') {
+				byte second = window.get(lineFrom + 1);
+				if (second == 'R' || second == '2') {
+					return mapLineOrThrow();
+				}
+			}
+			unmatched++;
+		}
+		return null;
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		executionContext.putLong(executionContextKey(OFFSET_KEY), position);
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		if (unmatched > 0) {
+			log.info("{} : {} lines skipped (no PR*/P2* prefix)", resource, unmatched);
+		}
+		window = null;
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				throw new ItemStreamException("Failed to close " + resource, e);
+			} finally {
+				channel = null;
+			}
+		}
+	}
+
+	private String executionContextKey(String key) {
+		Assert.hasText(name, "Name must be set");
+		return name + "." + key;
+	}
+
+	private void map(long from) throws IOException {
+		windowStart = from;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW, Math.max(0, end - from)));
+	}
+
+	// 다음 줄을 찾아 lineFrom/lineTo 를 설정 (줄바꿈 제외)
+	private boolean nextLine() throws IOException {
+		if (position >= end) {
+			return false;
+		}
+
+		int from = (int) (position - windowStart);
+		if (from >= window.limit()) {
+			map(position);
+			from = 0;
+		}
+
+		int nl = indexOfNewline(from);
+		if (nl < 0 && windowStart + window.limit() < end && from > 0) {
+			// 줄이 window 경계에 걸침 -> 줄 시작부터 다시 map
+			map(position);
+			from = 0;
+			nl = indexOfNewline(0);
+		}
+
+		int to = nl < 0 ? window.limit() : nl;
+		position = windowStart + (nl < 0 ? window.limit() : nl + 1);
+
+		if (to > from && window.get(to - 1) == '\r') {
+			to--;
+		}
+		lineFrom = from;
+		lineTo = to;
+		lineCount++;
+		return true;
+	}
+
+	private int indexOfNewline(int from) {
+		MappedByteBuffer buf = window;
+		int limit = buf.limit();
+		for (int i = from; i < limit; i++) {
+			if (buf.get(i) == '\n') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private SampleData mapLineOrThrow() {
+		try {
+			return mapLine();
+		} catch (NumberFormatException | DateTimeParseException e) {
+			int len = copy(lineFrom, lineTo);
+			String input = new String(scratch, 0, len, StandardCharsets.UTF_8);
+			throw new FlatFileParseException("Parsing error at line: " + lineCount + " (offset "
+					+ (windowStart + lineFrom) + ") in resource=[" + resource + "], input=[" + input + "]", e, input,
+					lineCount);
+		}
+	}
+
+	private SampleData mapLine() {
+		SampleData sd = new SampleData(schema);
+		int field = 0;
+		int tokenStart = lineFrom;
+		for (int i = lineFrom; i <= lineTo && field < FIELDS; i++) {
+			if (i == lineTo || window.get(i) == ',') {
+				setField(sd, field++, tokenStart, i);
+				tokenStart = i + 1;
+			}
+		}
+		return sd;
+	}
+
+	// 필드 index = 레코드 컬럼 index (c1..c4)
+	private void setField(SampleData sd, int field, int from, int to) {
+		int len = copy(from, to);
+		ColumnType type = schema.type(field);
+		if (type == ColumnType.STRING) {
+			sd.set(field, len == 0 ? "" : new String(scratch, 0, len, StandardCharsets.UTF_8));
+		} else if (len > 0) {
+			// 숫자 컬럼은 String 없이 byte 에서 바로 파싱
+			sd.setLong(field, type.parse(scratch, 0, len, schema.scale(field)));
+		}
+	}
+
+	private int copy(int from, int to) {
+		int len = to - from;
+		if (scratch.length < len) {
+			scratch = new byte[Math.max(len, scratch.length * 2)];
+		}
+		window.get(from, scratch, 0, len);
+		return len;
+	}
+}
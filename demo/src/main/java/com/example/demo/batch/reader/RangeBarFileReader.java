@@ -0,0 +1,319 @@
+package com.example.demo.batch.reader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.springframework.batch.item.ParseException;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+
+import com.example.demo.batch.config.SampleData;
+import com.example.demo.batch.model.RecordSchema;
+
+/**
+ * {@code const dataSource = [ { cc: '00', start: 0, end: 1, tt: '1' }, ... ]} 형식(static/test.html 의 rangeBar
+ * 데이터) 파일 reader.
+ * <p>
+ * 배열 전체를 읽지 않고 byte 버퍼 하나로 토큰을 순서대로 읽으면서 객체 하나마다 item 하나를 만든다 (파일 크기와 무관하게
+ * heap 일정). 배열 앞의 선언부와 배열 뒤의 스크립트는 무시하고, 키는 따옴표 유무와 상관없이, 값은 '..', "..", 숫자,
+ * true/false/null 을 읽는다. // 와 /* 주석은 건너뛴다.
+ * <p>
+ * cc -> c1, start -> c2, end -> c3, tt -> c4 로 넣고 ({@link #SCHEMA}, start/end 는 long) 다른 키는 무시한다.
+ * 재시작은 읽은 item 수만큼 다시 읽고 건너뛴다.
+ */
+public class RangeBarFileReader extends AbstractItemCountingItemStreamItemReader<SampleData>
+		implements ResourceAwareItemReaderItemStream<SampleData> {
+
+	public static final RecordSchema SCHEMA = SampleData.SCHEMA.withTypes("c2:long,c3:long");
+
+	// 선언부(const/let/var 이름 =)가 있거나 없이 '[' 다음 '{' 또는 ']' 로 시작하는 내용
+	private static final Pattern SIGNATURE = Pattern
+			.compile("^\\s*(?:(?:const|let|var)\\s+[A-Za-z_$][\\w$]*\\s*=\\s*)?\\[\\s*[{\\]]");
+
+	private static final int SNIFF_BYTES = 512;
+
+	private static final int BUFFER = 64 * 1024;
+
+	private Resource resource;
+
+	private InputStream in;
+
+	private final byte[] buf = new byte[BUFFER];
+
+	private int pos;
+
+	private int limit;
+
+	// 현재 위치 (오류 메시지용)
+	private long line;
+
+	private boolean inArray;
+
+	private boolean finished;
+
+	private final ByteArrayOutputStream token = new ByteArrayOutputStream(64);
+
+	public RangeBarFileReader() {
+		setName("rangeBarFileReader");
+	}
+
+	/**
+	 * 파일 앞부분이 이 형식인지 확인 (확장자와 무관).
+	 */
+	public static boolean matches(Resource resource) {
+		if (resource == null || !resource.exists()) {
+			return false;
+		}
+		try (InputStream is = resource.getInputStream()) {
+			byte[] head = is.readNBytes(SNIFF_BYTES);
+			return SIGNATURE.matcher(new String(head, StandardCharsets.UTF_8)).find();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void setResource(Resource resource) {
+		this.resource = resource;
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		in = resource.getInputStream();
+		pos = 0;
+		limit = 0;
+		line = 1;
+		inArray = false;
+		finished = false;
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		if (in != null) {
+			in.close();
+			in = null;
+		}
+	}
+
+	@Override
+	protected SampleData doRead() throws Exception {
+		if (finished) {
+			return null;
+		}
+		if (!inArray) {
+			if (!skipTo('[')) {
+				finished = true;
+				return null;
+			}
+			inArray = true;
+		}
+
+		// 객체 사이의 ',' 와 공백
+		int c = skipBlank();
+		while (c == ',') {
+			pos++;
+			c = skipBlank();
+		}
+		if (c == ']' || c < 0) {
+			// 배열 끝. 뒤의 스크립트는 읽지 않음
+			finished = true;
+			return null;
+		}
+		expect('{');
+		return readObject();
+	}
+
+	private SampleData readObject() throws IOException {
+		SampleData sd = new SampleData(SCHEMA);
+		while (true) {
+			int c = skipBlank();
+			if (c == ',') {
+				pos++;
+				continue;
+			}
+			if (c == '}') {
+				pos++;
+				return sd;
+			}
+			String key = readKey();
+			expect(':');
+			skipBlank();
+			String value = readValue();
+			int column = column(key);
+			if (column >= 0) {
+				sd.set(column, value);
+			}
+		}
+	}
+
+	private static int column(String key) {
+		switch (key) {
+		case "cc":
+			return 0;
+		case "start":
+			return 1;
+		case "end":
+			return 2;
+		case "tt":
+			return 3;
+		default:
+			return -1;
+		}
+	}
+
+	private String readKey() throws IOException {
+		int c = peek();
+		if (c == '\'' || c == '"') {
+			return readQuoted();
+		}
+		token.reset();
+		while ((c = peek()) >= 0 && (Character.isLetterOrDigit(c) || c == '_' || c == '$')) {
+			token.write(c);
+			pos++;
+		}
+		if (token.size() == 0) {
+			throw error("key expected");
+		}
+		return token.toString(StandardCharsets.UTF_8);
+	}
+
+	// 문자열이면 내용, 아니면 (숫자, true, null ...) 토큰 그대로. null 은 null
+	private String readValue() throws IOException {
+		int c = peek();
+		if (c == '\'' || c == '"') {
+			return readQuoted();
+		}
+		token.reset();
+		while ((c = peek()) >= 0 && c != ',' && c != '}' && c != ']' && !isBlank(c) && c != '/') {
+			token.write(c);
+			pos++;
+		}
+		if (token.size() == 0) {
+			throw error("value expected");
+		}
+		String value = token.toString(StandardCharsets.UTF_8);
+		return "null".equals(value) || "undefined".equals(value) ? null : value;
+	}
+
+	private String readQuoted() throws IOException {
+		int quote = next();
+		token.reset();
+		while (true) {
+			int c = next();
+			if (c < 0) {
+				throw error("unterminated string");
+			}
+			if (c == quote) {
+				return token.toString(StandardCharsets.UTF_8);
+			}
+			if (c == '\\') {
+				c = next();
+				switch (c) {
+				case 'n' -> token.write('\n');
+				case 't' -> token.write('\t');
+				case 'r' -> token.write('\r');
+				case -1 -> throw error("unterminated string");
+				default -> token.write(c);
+				}
+				continue;
+			}
+			if (c == '\n') {
+				line++;
+			}
+			token.write(c);
+		}
+	}
+
+	private void expect(int expected) throws IOException {
+		int c = skipBlank();
+		if (c != expected) {
+			throw error("'" + (char) expected + "' expected but was " + (c < 0 ? "EOF" : "'" + (char) c + "'"));
+		}
+		pos++;
+	}
+
+	// target 까지 건너뜀 (target 다음 위치로). 없으면 false
+	private boolean skipTo(int target) throws IOException {
+		int c;
+		while ((c = next()) >= 0) {
+			if (c == '\n') {
+				line++;
+			} else if (c == target) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// 공백과 주석을 건너뛰고 다음 byte 를 돌려준다 (소비하지 않음)
+	private int skipBlank() throws IOException {
+		while (true) {
+			int c = peek();
+			if (c < 0) {
+				return c;
+			}
+			if (isBlank(c)) {
+				if (c == '\n') {
+					line++;
+				}
+				pos++;
+			} else if (c == '/' && peekAt(1) == '/') {
+				while ((c = next()) >= 0 && c != '\n') {
+				}
+				line++;
+			} else if (c == '/' && peekAt(1) == '*') {
+				pos += 2;
+				int prev = 0;
+				while ((c = next()) >= 0 && !(prev == '*' && c == '/')) {
+					if (c == '\n') {
+						line++;
+					}
+					prev = c;
+				}
+			} else {
+				return c;
+			}
+		}
+	}
+
+	private static boolean isBlank(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+	}
+
+	private int peek() throws IOException {
+		return peekAt(0);
+	}
+
+	// 버퍼에서 현재 위치 + ahead 의 byte. 모자라면 남은 byte 를 앞으로 옮기고 채움
+	private int peekAt(int ahead) throws IOException {
+		while (pos + ahead >= limit) {
+			if (pos > 0) {
+				System.arraycopy(buf, pos, buf, 0, limit - pos);
+				limit -= pos;
+				pos = 0;
+			}
+			int n = in.read(buf, limit, buf.length - limit);
+			if (n < 0) {
+				return -1;
+			}
+			limit += n;
+		}
+		return buf[pos + ahead] & 0xff;
+	}
+
+	private int next() throws IOException {
+		int c = peek();
+		if (c >= 0) {
+			pos++;
+		}
+		return c;
+	}
+
+	private ParseException error(String message) {
+		return new ParseException(message + " at line " + line + " of " + resource);
+	}
+}
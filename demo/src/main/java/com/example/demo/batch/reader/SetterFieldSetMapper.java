@@ -0,0 +1,73 @@
+package com.example.demo.batch.reader;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * BeanWrapperFieldSetMapper 대체.
+ * <p>
+ * BeanWrapperFieldSetMapper 는 줄마다 prototype bean 을 context 에서 꺼내고 property 이름으로 setter 를 찾아
+ * reflection 으로 호출한다. 여기서는 생성 시점에 각 필드의 setter 를 LambdaMetafactory 로 BiConsumer 로 만들어 두고,
+ * 줄마다 supplier 로 객체를 만들어 setter 를 순서대로 직접 호출한다.
+ * <p>
+ * names 는 tokenizer 의 names 와 같은 순서여야 하며 (index 로 매핑), String 타입 property 만 지원한다.
+ * 값은 {@link FieldSet#readString(int)} 로 읽는다 (앞뒤 공백 제거).
+ */
+public class SetterFieldSetMapper<T> implements FieldSetMapper<T> {
+
+	private final Supplier<T> factory;
+
+	private final List<BiConsumer<T, String>> setters;
+
+	public SetterFieldSetMapper(Class<T> type, Supplier<T> factory, String... names) {
+		this.factory = factory;
+		List<BiConsumer<T, String>> compiled = new ArrayList<>(names.length);
+		for (String name : names) {
+			compiled.add(compileSetter(type, name));
+		}
+		this.setters = List.copyOf(compiled);
+	}
+
+	@Override
+	public T mapFieldSet(FieldSet fieldSet) {
+		T target = factory.get();
+		int count = Math.min(fieldSet.getFieldCount(), setters.size());
+		for (int i = 0; i < count; i++) {
+			setters.get(i).accept(target, fieldSet.readString(i));
+		}
+		return target;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> BiConsumer<T, String> compileSetter(Class<T> type, String name) {
+		PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(type, name);
+		Method writeMethod = pd == null ? null : pd.getWriteMethod();
+		if (writeMethod == null || writeMethod.getParameterTypes()[0] != String.class) {
+			throw new IllegalArgumentException("No String setter for property '" + name + "' on " + type.getName());
+		}
+
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle setter = lookup.unreflect(writeMethod);
+			CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+					MethodType.methodType(void.class, Object.class, Object.class), setter,
+					MethodType.methodType(void.class, type, String.class));
+			return (BiConsumer<T, String>) site.getTarget().invoke();
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot compile setter for property '" + name + "' on " + type.getName(), e);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package com.example.demo.batch.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+/**
+ * 실행중인 step 의 BATCH_STEP_EXECUTION / BATCH_STEP_EXECUTION_CONTEXT 갱신을 flushMillis 마다 한 번으로 줄이는 JobRepository.
+ * <p>
+ * chunk step 은 commit 마다 {@link #updateExecutionContext(StepExecution)} 와 {@link #update(StepExecution)} 를 부른다
+ * (update 는 job 중지 요청 확인용 조회도 한다). 이 클래스는 step 이 STARTED 인 동안 마지막으로 쓴 지 flushMillis 가
+ * 지나지 않았으면 두 호출을 건너뛰고, 지났으면 그 chunk 의 트랜잭션 안에서 그대로 쓴다. 건너뛴 값은 StepExecution 객체에
+ * 남아 있어 다음 flush 때 함께 쓰인다. step 시작과 끝(COMPLETED, FAILED, STOPPED 등) 갱신은 항상 바로 쓴다.
+ * <p>
+ * 별도 스레드에서 모아 쓰지 않고 commit 하는 스레드에서 쓰는 이유 : DB 에 남는 ExecutionContext 는 항상 어떤 chunk 와 같은
+ * 트랜잭션으로 commit 된 값이어야 재시작 위치가 데이터와 맞는다. 그래서
+ * <ul>
+ * <li>예외/중지로 끝난 step 은 끝날 때 마지막 commit 된 chunk 의 context 가 쓰이므로 재시작 위치가 정확하다</li>
+ * <li>프로세스가 강제 종료되면 (step 이 STARTED 로 남아 어차피 수동으로 FAILED 처리가 필요한 경우) 재시작 위치가 최대
+ * flushMillis 만큼의 chunk 앞일 수 있다. 그 구간은 다시 읽으므로 writer 가 멱등이 아니면 중복될 수 있다</li>
+ * <li>JobOperator.stop 은 다음 flush 때 (최대 flushMillis 뒤) step 에 전달된다</li>
+ * </ul>
+ * 나머지 메서드는 그대로 delegate 에 넘긴다.
+ */
+public class CoalescingJobRepository implements JobRepository {
+
+	private static final Logger log = LoggerFactory.getLogger(CoalescingJobRepository.class);
+
+	private final JobRepository delegate;
+
+	private final long flushNanos;
+
+	// step execution id -> 마지막으로 DB 에 쓴 시각 (nanoTime). 실행중인 step 만
+	private final Map<Long, Long> lastFlush = new ConcurrentHashMap<>();
+
+	private final LongAdder written = new LongAdder();
+
+	private final LongAdder deferred = new LongAdder();
+
+	public CoalescingJobRepository(JobRepository delegate, long flushMillis) {
+		this.delegate = delegate;
+		this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushMillis));
+	}
+
+	@Override
+	public void update(StepExecution stepExecution) {
+		if (defer(stepExecution)) {
+			deferred.increment();
+			return;
+		}
+		delegate.update(stepExecution);
+		written.increment();
+		if (running(stepExecution)) {
+			lastFlush.put(stepExecution.getId(), System.nanoTime());
+		} else if (stepExecution.getId() != null && lastFlush.remove(stepExecution.getId()) != null) {
+			log.debug("{} : step metadata written {}, deferred {} (total)", stepExecution.getStepName(),
+					written.sum(), deferred.sum());
+		}
+	}
+
+	// update 보다 먼저 불리므로 여기서는 시각을 남기지 않는다 (같은 chunk 의 update 도 쓰이도록)
+	@Override
+	public void updateExecutionContext(StepExecution stepExecution) {
+		if (defer(stepExecution)) {
+			deferred.increment();
+			return;
+		}
+		delegate.updateExecutionContext(stepExecution);
+		written.increment();
+	}
+
+	public long getWrittenCount() {
+		return written.sum();
+	}
+
+	public long getDeferredCount() {
+		return deferred.sum();
+	}
+
+	private boolean defer(StepExecution stepExecution) {
+		if (flushNanos == 0 || !running(stepExecution) || stepExecution.isTerminateOnly()) {
+			return false;
+		}
+		Long last = lastFlush.get(stepExecution.getId());
+		return last != null && System.nanoTime() - last < flushNanos;
+	}
+
+	private static boolean running(StepExecution stepExecution) {
+		return stepExecution.getId() != null && stepExecution.getStatus() == BatchStatus.STARTED
+				&& stepExecution.getEndTime() == null;
+	}
+
+	@Override
+	public List<String> getJobNames() {
+		return delegate.getJobNames();
+	}
+
+	@Override
+	public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+		return delegate.findJobInstancesByName(jobName, start, count);
+	}
+
+	@Override
+	public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+		return delegate.findJobExecutions(jobInstance);
+	}
+
+	@Override
+	public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+		return delegate.isJobInstanceExists(jobName, jobParameters);
+	}
+
+	@Override
+	public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+		return delegate.createJobInstance(jobName, jobParameters);
+	}
+
+	@Override
+	public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+			throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+		return delegate.createJobExecution(jobName, jobParameters);
+	}
+
+	@Override
+	public void update(JobExecution jobExecution) {
+		delegate.update(jobExecution);
+	}
+
+	@Override
+	public void add(StepExecution stepExecution) {
+		delegate.add(stepExecution);
+	}
+
+	@Override
+	public void addAll(Collection<StepExecution> stepExecutions) {
+		delegate.addAll(stepExecutions);
+	}
+
+	@Override
+	public void updateExecutionContext(JobExecution jobExecution) {
+		delegate.updateExecutionContext(jobExecution);
+	}
+
+	@Override
+	public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+		return delegate.getJobInstance(jobName, jobParameters);
+	}
+
+	@Override
+	public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+		return delegate.getLastStepExecution(jobInstance, stepName);
+	}
+
+	@Override
+	public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+		return delegate.getStepExecutionCount(jobInstance, stepName);
+	}
+
+	@Override
+	public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+		return delegate.getLastJobExecution(jobName, jobParameters);
+	}
+
+	@Override
+	public void deleteStepExecution(StepExecution stepExecution) {
+		if (stepExecution.getId() != null) {
+			lastFlush.remove(stepExecution.getId());
+		}
+		delegate.deleteStepExecution(stepExecution);
+	}
+
+	@Override
+	public void deleteJobExecution(JobExecution jobExecution) {
+		delegate.deleteJobExecution(jobExecution);
+	}
+
+	@Override
+	public void deleteJobInstance(JobInstance jobInstance) {
+		delegate.deleteJobInstance(jobInstance);
+	}
+}
@@ -0,0 +1,28 @@
+package com.example.demo.batch.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+// Java 21+ virtual thread 지원 (컴파일 타겟이 17 이라 reflection 으로 접근)
+public final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * 이름이 prefix + 순번인 virtual thread 를 만드는 ThreadFactory.
+	 *
+	 * @return Java 21 미만이면 null
+	 */
+	public static ThreadFactory factory(String prefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Method name = builderType.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+}
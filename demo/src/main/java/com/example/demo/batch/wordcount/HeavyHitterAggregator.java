@@ -0,0 +1,81 @@
+package com.example.demo.batch.wordcount;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.DefaultStepExecutionAggregator;
+import org.springframework.batch.core.partition.support.StepExecutionAggregator;
+import org.springframework.batch.item.ExecutionContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * partition step 들이 {@link #collect(Long, HeavyHitterSketch)} 로 넘긴 {@link HeavyHitterSketch} 를 합쳐
+ * master step ExecutionContext 에 상위 topK 단어({@link WordCountTasklet#TOP_KEY}, 추정 건수)와
+ * 오차 상한({@link #ERROR_BOUND_KEY})을 남긴다. 상태/건수 집계는 {@link DefaultStepExecutionAggregator} 와 같다.
+ * <p>
+ * sketch(기본 설정으로 약 1.5MB)는 partition ExecutionContext 에 직렬화하지 않고 step execution id 별로 메모리에 두었다가
+ * 합칠 때 꺼낸다. 그래서 partition 은 같은 JVM 에서 실행되어야 하고 (local partitioning),
+ * restart 때는 완료된 partition 도 다시 실행해야 한다 (이전 실행의 sketch 는 남아 있지 않음).
+ */
+@Slf4j
+public class HeavyHitterAggregator implements StepExecutionAggregator {
+
+	public static final String ERROR_BOUND_KEY = "wordCount.errorBound";
+
+	private final StepExecutionAggregator delegate = new DefaultStepExecutionAggregator();
+
+	private final int topK;
+
+	// partition step execution id -> sketch. aggregate 에서 꺼내 지움
+	private final Map<Long, HeavyHitterSketch> sketches = new ConcurrentHashMap<>();
+
+	public HeavyHitterAggregator(int topK) {
+		this.topK = topK;
+	}
+
+	public void collect(Long stepExecutionId, HeavyHitterSketch sketch) {
+		sketches.put(stepExecutionId, sketch);
+	}
+
+	// 아직 합치지 않은 sketch 수
+	int pending() {
+		return sketches.size();
+	}
+
+	@Override
+	public void aggregate(StepExecution result, Collection<StepExecution> executions) {
+		delegate.aggregate(result, executions);
+
+		HeavyHitterSketch merged = null;
+		for (StepExecution execution : executions) {
+			// 실패한 partition 은 sketch 가 없음
+			HeavyHitterSketch sketch = sketches.remove(execution.getId());
+			if (sketch == null) {
+				continue;
+			}
+			if (merged == null) {
+				merged = sketch;
+			} else {
+				merged.merge(sketch);
+			}
+		}
+		if (merged == null) {
+			return;
+		}
+
+		List<WordCountEngine.WordCount> top = merged.topK(topK);
+		ExecutionContext context = result.getExecutionContext();
+		context.putLong(WordCountTasklet.TOTAL_KEY, merged.total());
+		context.putLong(ERROR_BOUND_KEY, merged.errorBound());
+		context.putString(WordCountTasklet.TOP_KEY,
+				top.stream().map(wc -> wc.word() + "=" + wc.count()).collect(Collectors.joining(",")));
+
+		log.info(">>> approximate word count : {} partitions, total {}, error bound {}, top {}", executions.size(),
+				merged.total(), merged.errorBound(), context.getString(WordCountTasklet.TOP_KEY));
+	}
+}
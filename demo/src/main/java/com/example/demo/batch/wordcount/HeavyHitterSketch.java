@@ -0,0 +1,303 @@
+package com.example.demo.batch.wordcount;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 고정 메모리 상위 단어(heavy hitter) 근사 집계.
+ * <p>
+ * Count-Min Sketch (width = ⌈e/epsilon⌉, depth = ⌈ln(1/delta)⌉) 로 건수를 추정하고,
+ * 추정치가 큰 단어 capacity 개만 min heap 후보로 유지한다 (Space-Saving 방식).
+ * 추정치는 실제 건수 이상이며, 확률 1-delta 로 실제 건수 + epsilon × 전체 단어 수 이하이다.
+ * <p>
+ * 같은 epsilon/delta 로 만든 sketch 끼리는 {@link #merge(HeavyHitterSketch)} 로 합칠 수 있다
+ * (sketch 셀을 더하고 두 후보 집합을 합친 sketch 로 다시 추정). partition 결과는 {@link HeavyHitterAggregator} 가
+ * 메모리에서 합친다. {@link #toBase64()} 는 JVM 밖으로 보낼 때 쓴다 (기본 크기면 수 MB 라 ExecutionContext 에는 넣지 않음).
+ * thread-safe 하지 않음 (range/partition 마다 하나씩 쓴다).
+ */
+public class HeavyHitterSketch implements TokenSink {
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final Comparator<WordCountEngine.WordCount> ORDER = Comparator
+			.comparingLong(WordCountEngine.WordCount::count).reversed()
+			.thenComparing(WordCountEngine.WordCount::word);
+
+	private final int width;
+
+	private final int depth;
+
+	private final long[] table;
+
+	private long total;
+
+	// 후보 min heap (estimates[0] 이 가장 작음)
+	private final int capacity;
+
+	private final String[] words;
+
+	private final long[] estimates;
+
+	private final Map<String, Integer> index;
+
+	private int size;
+
+	public HeavyHitterSketch(double epsilon, double delta, int capacity) {
+		this(width(epsilon), depth(delta), capacity);
+	}
+
+	private HeavyHitterSketch(int width, int depth, int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.width = width;
+		this.depth = Math.max(1, depth);
+		this.table = new long[this.depth * width];
+		this.capacity = capacity;
+		this.words = new String[capacity];
+		this.estimates = new long[capacity];
+		this.index = new HashMap<>(capacity * 2);
+	}
+
+	@Override
+	public void accept(byte[] buf, int off, int len) {
+		long hash = hash(buf, off, len);
+		long estimate = addToTable(hash, 1);
+		total++;
+
+		// heap 이 찼고 추정치가 최소값 이하면 후보가 아니다 (후보라면 추정치가 최소값보다 커짐)
+		if (size == capacity && estimate <= estimates[0]) {
+			return;
+		}
+		offer(new String(buf, off, len, StandardCharsets.US_ASCII), estimate);
+	}
+
+	public void add(String word) {
+		byte[] b = word.getBytes(StandardCharsets.US_ASCII);
+		accept(b, 0, b.length);
+	}
+
+	// 추정 건수 (실제 건수 이상)
+	public long estimate(String word) {
+		byte[] b = word.getBytes(StandardCharsets.US_ASCII);
+		return estimate(hash(b, 0, b.length));
+	}
+
+	public void merge(HeavyHitterSketch other) {
+		if (other.width != width || other.depth != depth) {
+			throw new IllegalArgumentException("sketch dimensions differ : " + width + "x" + depth + " vs "
+					+ other.width + "x" + other.depth);
+		}
+		for (int i = 0; i < table.length; i++) {
+			table[i] += other.table[i];
+		}
+		total += other.total;
+
+		Set<String> candidates = new HashSet<>(index.keySet());
+		candidates.addAll(other.index.keySet());
+		List<WordCountEngine.WordCount> rescored = new ArrayList<>(candidates.size());
+		for (String word : candidates) {
+			rescored.add(new WordCountEngine.WordCount(word, estimate(word)));
+		}
+		rescored.sort(ORDER);
+
+		index.clear();
+		size = 0;
+		for (WordCountEngine.WordCount wc : rescored.subList(0, Math.min(capacity, rescored.size()))) {
+			offer(wc.word(), wc.count());
+		}
+	}
+
+	// 추정 건수 내림차순 상위 k 개 (k 는 capacity 이하에서만 의미가 있음)
+	public List<WordCountEngine.WordCount> topK(int k) {
+		List<WordCountEngine.WordCount> top = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			top.add(new WordCountEngine.WordCount(words[i], estimates[i]));
+		}
+		top.sort(ORDER);
+		return top.subList(0, Math.min(k, top.size()));
+	}
+
+	// 전체 단어 수
+	public long total() {
+		return total;
+	}
+
+	// 추정치 오차 상한 (확률 1-delta)
+	public long errorBound() {
+		return (long) Math.ceil(Math.E / width * total);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public String toBase64() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(width);
+			out.writeInt(depth);
+			out.writeInt(capacity);
+			out.writeLong(total);
+			for (long cell : table) {
+				out.writeLong(cell);
+			}
+			out.writeInt(size);
+			for (int i = 0; i < size; i++) {
+				out.writeUTF(words[i]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	public static HeavyHitterSketch fromBase64(String encoded) {
+		byte[] bytes = Base64.getDecoder().decode(encoded);
+		try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes)))) {
+			int version = in.readInt();
+			if (version != FORMAT_VERSION) {
+				throw new IllegalArgumentException("unsupported sketch format : " + version);
+			}
+			HeavyHitterSketch sketch = new HeavyHitterSketch(in.readInt(), in.readInt(), in.readInt());
+			sketch.total = in.readLong();
+			for (int i = 0; i < sketch.table.length; i++) {
+				sketch.table[i] = in.readLong();
+			}
+			int candidates = in.readInt();
+			for (int i = 0; i < candidates; i++) {
+				String word = in.readUTF();
+				sketch.offer(word, sketch.estimate(word));
+			}
+			return sketch;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static int width(double epsilon) {
+		if (epsilon <= 0 || epsilon >= 1) {
+			throw new IllegalArgumentException("epsilon must be in (0, 1) : " + epsilon);
+		}
+		return (int) Math.ceil(Math.E / epsilon);
+	}
+
+	private static int depth(double delta) {
+		if (delta <= 0 || delta >= 1) {
+			throw new IllegalArgumentException("delta must be in (0, 1) : " + delta);
+		}
+		return (int) Math.ceil(Math.log(1 / delta));
+	}
+
+	private long addToTable(long hash, long delta) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		long min = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			int cell = row * width + Math.floorMod(h1 + row * h2, width);
+			table[cell] += delta;
+			min = Math.min(min, table[cell]);
+		}
+		return min;
+	}
+
+	private long estimate(long hash) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		long min = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			min = Math.min(min, table[row * width + Math.floorMod(h1 + row * h2, width)]);
+		}
+		return min;
+	}
+
+	private void offer(String word, long estimate) {
+		Integer pos = index.get(word);
+		if (pos != null) {
+			estimates[pos] = estimate;
+			siftDown(pos);
+		} else if (size < capacity) {
+			words[size] = word;
+			estimates[size] = estimate;
+			index.put(word, size);
+			siftUp(size++);
+		} else if (estimate > estimates[0]) {
+			index.remove(words[0]);
+			words[0] = word;
+			estimates[0] = estimate;
+			index.put(word, 0);
+			siftDown(0);
+		}
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (estimates[parent] <= estimates[i]) {
+				break;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i) {
+		while (true) {
+			int left = 2 * i + 1;
+			if (left >= size) {
+				break;
+			}
+			int smallest = left + 1 < size && estimates[left + 1] < estimates[left] ? left + 1 : left;
+			if (estimates[i] <= estimates[smallest]) {
+				break;
+			}
+			swap(i, smallest);
+			i = smallest;
+		}
+	}
+
+	private void swap(int a, int b) {
+		String word = words[a];
+		long estimate = estimates[a];
+		words[a] = words[b];
+		estimates[a] = estimates[b];
+		words[b] = word;
+		estimates[b] = estimate;
+		index.put(words[a], a);
+		index.put(words[b], b);
+	}
+
+	// 64bit FNV-1a + murmur3 finalizer. 상위/하위 32bit 로 double hashing
+	private static long hash(byte[] buf, int off, int len) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = off; i < off + len; i++) {
+			h = (h ^ buf[i]) * 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb53a8d3ea6cdL;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.demo.batch.wordcount;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * partition 하나([start, end) byte range)의 단어를 {@link HeavyHitterSketch} 로 근사 집계해
+ * step execution id 로 {@link HeavyHitterAggregator} 에 넘긴다. step ExecutionContext 에는 단어 수만 남긴다.
+ */
+@Slf4j
+public class HeavyHitterTasklet implements Tasklet {
+
+	private final WordCountEngine engine;
+
+	private final Path file;
+
+	private final long start;
+
+	// null 이면 파일 끝까지
+	private final Long end;
+
+	private final Supplier<HeavyHitterSketch> sketchFactory;
+
+	private final HeavyHitterAggregator aggregator;
+
+	public HeavyHitterTasklet(WordCountEngine engine, Path file, long start, Long end,
+			Supplier<HeavyHitterSketch> sketchFactory, HeavyHitterAggregator aggregator) {
+		this.engine = engine;
+		this.file = file;
+		this.start = start;
+		this.end = end;
+		this.sketchFactory = sketchFactory;
+		this.aggregator = aggregator;
+	}
+
+	@Override
+	public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+		long to = end != null ? end : Files.size(file);
+		HeavyHitterSketch sketch = engine.sketch(file, start, to, sketchFactory);
+
+		StepExecution stepExecution = contribution.getStepExecution();
+		aggregator.collect(stepExecution.getId(), sketch);
+		stepExecution.getExecutionContext().putLong(WordCountTasklet.TOTAL_KEY, sketch.total());
+
+		log.debug(">>> sketched {} [{}, {}) : {} words", file.getFileName(), start, to, sketch.total());
+		return RepeatStatus.FINISHED;
+	}
+}
@@ -0,0 +1,11 @@
+package com.example.demo.batch.wordcount;
+
+/**
+ * {@link WordCountEngine} 가 찾은 단어(소문자 ASCII byte)를 받는 쪽.
+ * buf 는 재사용되므로 보관하려면 복사해야 한다.
+ */
+@FunctionalInterface
+public interface TokenSink {
+
+	void accept(byte[] buf, int off, int len);
+}
@@ -0,0 +1,221 @@
+package com.example.demo.batch.wordcount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * 단어 수 집계 엔진.
+ * <p>
+ * 파일을 공백 경계에 맞춘 byte range 로 나눠 range 마다 64KB 버퍼로 스트리밍하며 읽는다 (파일 전체를 heap 에 올리지 않음).
+ * 단어 규칙은 예전 구현({@code split("\\s+")} 후 {@code matches("\\w+")}, 소문자)과 같다.
+ * 공백([ \t\n\x0B\f\r])으로 나눈 토큰 중 [A-Za-z0-9_] 로만 된 토큰만 센다. 둘 다 ASCII 라서 UTF-8 byte 를 그대로 검사한다.
+ * range 마다 자기 {@link WordCountMap} (근사 모드는 {@link HeavyHitterSketch}) 에 세고 마지막에 합치므로 스레드 간 경합이 없다.
+ */
+public class WordCountEngine {
+
+	public record WordCount(String word, long count) {
+	}
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// 이보다 작은 range 로는 나누지 않음
+	private static final long MIN_RANGE_BYTES = 1024 * 1024;
+
+	private static final Comparator<WordCount> ORDER = Comparator.comparingLong(WordCount::count)
+			.thenComparing(WordCount::word, Comparator.reverseOrder());
+
+	private final Executor executor;
+
+	private final int parallelism;
+
+	public WordCountEngine(Executor executor, int parallelism) {
+		this.executor = executor;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	public WordCountMap count(Path file) throws IOException {
+		return scan(file, 0, Files.size(file), WordCountMap::new, (a, b) -> {
+			a.mergeFrom(b);
+			return a;
+		});
+	}
+
+	/**
+	 * 근사 집계. [start, end) 구간을 range 별 sketch 에 넣고 합친다.
+	 * start 는 파일 처음이거나 공백/줄 경계여야 한다 (SizeAwarePartitioner range 는 줄 경계).
+	 */
+	public HeavyHitterSketch sketch(Path file, long start, long end, Supplier<HeavyHitterSketch> factory)
+			throws IOException {
+		return scan(file, start, end, factory, (a, b) -> {
+			a.merge(b);
+			return a;
+		});
+	}
+
+	private <T extends TokenSink> T scan(Path file, long start, long end, Supplier<T> factory, BinaryOperator<T> merge)
+			throws IOException {
+		int parts = (int) Math.max(1, Math.min(parallelism, (end - start) / MIN_RANGE_BYTES));
+		long[] cuts = splitAtWhitespace(file, start, end, parts);
+
+		List<CompletableFuture<T>> futures = new ArrayList<>(cuts.length - 1);
+		for (int i = 0; i + 1 < cuts.length; i++) {
+			long from = cuts[i];
+			long to = cuts[i + 1];
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					T sink = factory.get();
+					scanRange(file, from, to, sink);
+					return sink;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, executor));
+		}
+
+		try {
+			T result = null;
+			for (CompletableFuture<T> future : futures) {
+				T partial = future.join();
+				result = result == null ? partial : merge.apply(result, partial);
+			}
+			return result == null ? factory.get() : result;
+		} catch (CompletionException e) {
+			futures.forEach(f -> f.cancel(true));
+			if (e.getCause() instanceof UncheckedIOException io) {
+				throw io.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * 건수 내림차순 상위 k 개 (건수가 같으면 단어 오름차순). 크기 k 의 min heap 으로 고른다.
+	 */
+	public static List<WordCount> topK(WordCountMap counts, int k) {
+		PriorityQueue<WordCount> heap = new PriorityQueue<>(Math.max(1, k), ORDER);
+		if (k > 0) {
+			counts.forEach((word, count) -> {
+				if (heap.size() < k) {
+					heap.add(new WordCount(new String(word, StandardCharsets.US_ASCII), count));
+				} else if (count >= heap.peek().count()) {
+					WordCount candidate = new WordCount(new String(word, StandardCharsets.US_ASCII), count);
+					if (ORDER.compare(candidate, heap.peek()) > 0) {
+						heap.poll();
+						heap.add(candidate);
+					}
+				}
+			});
+		}
+
+		List<WordCount> top = new ArrayList<>(heap);
+		top.sort(ORDER.reversed());
+		return top;
+	}
+
+	static void scanRange(Path file, long start, long end, TokenSink sink) throws IOException {
+		byte[] token = new byte[64];
+		int len = 0;
+		boolean inToken = false;
+		boolean valid = true;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			byte[] bytes = buffer.array();
+			long pos = start;
+			while (pos < end) {
+				buffer.clear();
+				buffer.limit((int) Math.min(BUFFER_SIZE, end - pos));
+				int n = channel.read(buffer, pos);
+				if (n <= 0) {
+					break;
+				}
+				pos += n;
+
+				for (int i = 0; i < n; i++) {
+					byte b = bytes[i];
+					if (isSpace(b)) {
+						if (inToken && valid) {
+							sink.accept(token, 0, len);
+						}
+						inToken = false;
+						valid = true;
+						len = 0;
+					} else {
+						inToken = true;
+						if (!valid) {
+							continue;
+						}
+						if (isWordChar(b)) {
+							if (len == token.length) {
+								token = Arrays.copyOf(token, len * 2);
+							}
+							token[len++] = (b >= 'A' && b <= 'Z') ? (byte) (b + 32) : b;
+						} else {
+							valid = false;
+						}
+					}
+				}
+			}
+		}
+
+		if (inToken && valid) {
+			sink.accept(token, 0, len);
+		}
+	}
+
+	// [start, end) 를 parts 개로 나눈 경계를 다음 공백 위치로 옮긴다. 결과는 [start, c1, c2, ..., end]
+	static long[] splitAtWhitespace(Path file, long start, long end, int parts) throws IOException {
+		List<Long> cuts = new ArrayList<>(parts + 1);
+		cuts.add(start);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(4096);
+			for (int i = 1; i < parts; i++) {
+				long pos = Math.max(start + (end - start) * i / parts, cuts.get(cuts.size() - 1));
+				long cut = end;
+				scan: while (pos < end) {
+					buffer.clear();
+					int n = channel.read(buffer, pos);
+					if (n <= 0) {
+						break;
+					}
+					for (int j = 0; j < n; j++) {
+						if (isSpace(buffer.get(j))) {
+							cut = pos + j;
+							break scan;
+						}
+					}
+					pos += n;
+				}
+				if (cut > cuts.get(cuts.size() - 1) && cut < end) {
+					cuts.add(cut);
+				}
+			}
+		}
+		cuts.add(end);
+		return cuts.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == 0x0B || b == '\f';
+	}
+
+	private static boolean isWordChar(byte b) {
+		return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_';
+	}
+}
@@ -0,0 +1,137 @@
+package com.example.demo.batch.wordcount;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 단어(ASCII byte 열) -> 건수 open addressing 해시맵.
+ * <p>
+ * 조회할 때 String 이나 boxing 을 만들지 않고, 새 단어일 때만 byte 배열을 복사한다.
+ * 스레드마다 하나씩 쓰고 마지막에 {@link #mergeFrom(WordCountMap)} 으로 합친다 (thread-safe 하지 않음).
+ */
+public class WordCountMap implements TokenSink {
+
+	public interface EntryConsumer {
+		void accept(byte[] word, long count);
+	}
+
+	private byte[][] keys;
+
+	private int[] hashes;
+
+	private long[] counts;
+
+	private int size;
+
+	private long total;
+
+	public WordCountMap() {
+		this(1024);
+	}
+
+	public WordCountMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+		keys = new byte[capacity][];
+		hashes = new int[capacity];
+		counts = new long[capacity];
+	}
+
+	@Override
+	public void accept(byte[] buf, int off, int len) {
+		add(buf, off, len, hash(buf, off, len), 1);
+	}
+
+	public void add(byte[] buf, int off, int len, int hash, long delta) {
+		total += delta;
+		int mask = keys.length - 1;
+		int idx = hash & mask;
+		while (true) {
+			byte[] key = keys[idx];
+			if (key == null) {
+				keys[idx] = Arrays.copyOfRange(buf, off, off + len);
+				hashes[idx] = hash;
+				counts[idx] = delta;
+				if (++size * 2 > keys.length) {
+					resize();
+				}
+				return;
+			}
+			if (hashes[idx] == hash && Arrays.equals(key, 0, key.length, buf, off, off + len)) {
+				counts[idx] += delta;
+				return;
+			}
+			idx = (idx + 1) & mask;
+		}
+	}
+
+	public long get(String word) {
+		byte[] b = word.getBytes(StandardCharsets.US_ASCII);
+		int hash = hash(b, 0, b.length);
+		int mask = keys.length - 1;
+		int idx = hash & mask;
+		while (keys[idx] != null) {
+			if (hashes[idx] == hash && Arrays.equals(keys[idx], b)) {
+				return counts[idx];
+			}
+			idx = (idx + 1) & mask;
+		}
+		return 0;
+	}
+
+	public void mergeFrom(WordCountMap other) {
+		for (int i = 0; i < other.keys.length; i++) {
+			byte[] key = other.keys[i];
+			if (key != null) {
+				add(key, 0, key.length, other.hashes[i], other.counts[i]);
+			}
+		}
+	}
+
+	public void forEach(EntryConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				consumer.accept(keys[i], counts[i]);
+			}
+		}
+	}
+
+	// 서로 다른 단어 수
+	public int size() {
+		return size;
+	}
+
+	// 전체 단어 수
+	public long total() {
+		return total;
+	}
+
+	public static int hash(byte[] buf, int off, int len) {
+		int h = 0x811c9dc5;
+		for (int i = off; i < off + len; i++) {
+			h = (h ^ buf[i]) * 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	private void resize() {
+		byte[][] oldKeys = keys;
+		int[] oldHashes = hashes;
+		long[] oldCounts = counts;
+
+		keys = new byte[oldKeys.length * 2][];
+		hashes = new int[keys.length];
+		counts = new long[keys.length];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int idx = oldHashes[i] & mask;
+				while (keys[idx] != null) {
+					idx = (idx + 1) & mask;
+				}
+				keys[idx] = oldKeys[i];
+				hashes[idx] = oldHashes[i];
+				counts[idx] = oldCounts[i];
+			}
+		}
+	}
+}
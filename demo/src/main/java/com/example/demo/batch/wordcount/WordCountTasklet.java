@@ -0,0 +1,60 @@
+package com.example.demo.batch.wordcount;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 파일 하나의 단어 수를 세고 상위 topK 단어를 step ExecutionContext 에 남기는 tasklet.
+ * <ul>
+ * <li>wordCount.total : 전체 단어 수</li>
+ * <li>wordCount.distinct : 서로 다른 단어 수</li>
+ * <li>wordCount.top : "단어=건수" 를 ',' 로 이은 문자열 (건수 내림차순)</li>
+ * </ul>
+ */
+@Slf4j
+public class WordCountTasklet implements Tasklet {
+
+	public static final String TOTAL_KEY = "wordCount.total";
+
+	public static final String DISTINCT_KEY = "wordCount.distinct";
+
+	public static final String TOP_KEY = "wordCount.top";
+
+	private final WordCountEngine engine;
+
+	private final Path file;
+
+	private final int topK;
+
+	public WordCountTasklet(WordCountEngine engine, Path file, int topK) {
+		this.engine = engine;
+		this.file = file;
+		this.topK = topK;
+	}
+
+	@Override
+	public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+		long start = System.currentTimeMillis();
+		WordCountMap counts = engine.count(file);
+		List<WordCountEngine.WordCount> top = WordCountEngine.topK(counts, topK);
+
+		ExecutionContext context = contribution.getStepExecution().getExecutionContext();
+		context.putLong(TOTAL_KEY, counts.total());
+		context.putInt(DISTINCT_KEY, counts.size());
+		context.putString(TOP_KEY, top.stream().map(wc -> wc.word() + "=" + wc.count()).collect(Collectors.joining(",")));
+		contribution.incrementWriteCount(top.size());
+
+		log.info(">>> word count {} : total {}, distinct {}, top {} in {} ms", file.getFileName(), counts.total(),
+				counts.size(), context.getString(TOP_KEY), System.currentTimeMillis() - start);
+		return RepeatStatus.FINISHED;
+	}
+}
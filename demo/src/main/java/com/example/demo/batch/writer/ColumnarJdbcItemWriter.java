@@ -0,0 +1,101 @@
+package com.example.demo.batch.writer;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import com.example.demo.batch.config.SampleData;
+import com.example.demo.batch.model.ColumnarChunk;
+
+/**
+ * {@link SampleData} 를 타입 그대로 INSERT 하는 batch writer.
+ * <p>
+ * JdbcBatchItemWriter + BeanPropertyItemSqlParameterSourceProvider 는 행마다 property 이름으로 getter 를 찾아
+ * 문자열 값을 bind 한다. 여기서는 chunk 를 {@link ColumnarChunk} 로 한 번 옮긴 뒤 컬럼 타입대로
+ * (setLong, NUMERIC, DATE, setString) bind 한다.
+ */
+public class ColumnarJdbcItemWriter implements ItemWriter<SampleData>, InitializingBean {
+
+	private JdbcTemplate jdbcTemplate;
+
+	private String table;
+
+	// DB 컬럼 이름
+	private String[] columns;
+
+	// columns 에 들어갈 레코드 컬럼 index
+	private int[] fields;
+
+	private boolean assertUpdates = true;
+
+	private String sql;
+
+	public void setDataSource(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	public void setTable(String table) {
+		this.table = table;
+	}
+
+	public void setColumns(String... columns) {
+		this.columns = columns;
+	}
+
+	public void setFields(int... fields) {
+		this.fields = fields;
+	}
+
+	public void setAssertUpdates(boolean assertUpdates) {
+		this.assertUpdates = assertUpdates;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.notNull(jdbcTemplate, "A DataSource is required");
+		Assert.hasText(table, "A table is required");
+		Assert.notEmpty(columns, "Columns are required");
+		Assert.isTrue(fields != null && fields.length == columns.length, "fields must match columns");
+		sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+				+ String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+	}
+
+	@Override
+	public void write(Chunk<? extends SampleData> chunk) throws Exception {
+		if (chunk.isEmpty()) {
+			return;
+		}
+
+		ColumnarChunk columnar = ColumnarChunk.of(chunk.getItems(), fields);
+		int[] counts = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int row) throws SQLException {
+				columnar.bind(ps, row);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return columnar.size();
+			}
+		});
+
+		if (assertUpdates) {
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] == 0) {
+					throw new EmptyResultDataAccessException("Item " + i + " of " + counts.length
+							+ " did not update any rows: [" + chunk.getItems().get(i) + "]", 1);
+				}
+			}
+		}
+	}
+}
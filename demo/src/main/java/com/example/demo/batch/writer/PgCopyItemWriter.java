@@ -0,0 +1,190 @@
+package com.example.demo.batch.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.transform.FieldExtractor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.util.Assert;
+
+/**
+ * PostgreSQL COPY ... FROM STDIN (csv) 로 chunk 를 적재하는 writer.
+ * <p>
+ * chunk 트랜잭션에 묶인 커넥션(DataSourceUtils)으로 COPY 하므로 rollback 되면 적재한 행도 함께 취소된다.
+ * INSERT 를 행마다 보내는 JdbcBatchItemWriter 와 달리 chunk 전체가 COPY 한 번으로 들어간다.
+ * <p>
+ * 커넥션이 PostgreSQL 이 아니면 (H2 등 테스트용 DB) fallback writer 로 넘긴다.
+ */
+public class PgCopyItemWriter<T> implements ItemWriter<T>, InitializingBean {
+
+	private static final Logger log = LoggerFactory.getLogger(PgCopyItemWriter.class);
+
+	// 이 크기만큼 모이면 서버로 전송
+	private static final int FLUSH_BYTES = 64 * 1024;
+
+	private DataSource dataSource;
+
+	private String table;
+
+	private String[] columns;
+
+	private FieldExtractor<T> fieldExtractor;
+
+	private ItemWriter<T> fallback;
+
+	private String copySql;
+
+	private SQLExceptionTranslator exceptionTranslator;
+
+	private volatile boolean fallbackLogged = false;
+
+	public void setDataSource(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	public void setTable(String table) {
+		this.table = table;
+	}
+
+	public void setColumns(String... columns) {
+		this.columns = columns;
+	}
+
+	// columns 순서대로 값을 꺼냄
+	public void setFieldExtractor(FieldExtractor<T> fieldExtractor) {
+		this.fieldExtractor = fieldExtractor;
+	}
+
+	public void setFallback(ItemWriter<T> fallback) {
+		this.fallback = fallback;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.notNull(dataSource, "A DataSource is required");
+		Assert.hasText(table, "A table is required");
+		Assert.notEmpty(columns, "Columns are required");
+		Assert.notNull(fieldExtractor, "A FieldExtractor is required");
+		Assert.notNull(fallback, "A fallback ItemWriter is required");
+		copySql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+		exceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+	}
+
+	@Override
+	public void write(Chunk<? extends T> chunk) throws Exception {
+		if (chunk.isEmpty()) {
+			return;
+		}
+
+		Connection con = DataSourceUtils.getConnection(dataSource);
+		try {
+			BaseConnection pgConnection = unwrap(con);
+			if (pgConnection == null) {
+				if (!fallbackLogged) {
+					fallbackLogged = true;
+					log.info("not a PostgreSQL connection, {} is written with the fallback writer", table);
+				}
+				fallback.write(chunk);
+				return;
+			}
+
+			long rows = copy(pgConnection, chunk);
+			if (rows != chunk.size()) {
+				throw new IncorrectResultSizeDataAccessException(copySql, chunk.size(), (int) rows);
+			}
+		} catch (SQLException e) {
+			throw exceptionTranslator.translate("PgCopyItemWriter", copySql, e);
+		} finally {
+			DataSourceUtils.releaseConnection(con, dataSource);
+		}
+	}
+
+	private long copy(BaseConnection pgConnection, Chunk<? extends T> chunk) throws SQLException {
+		CopyIn copyIn = new CopyManager(pgConnection).copyIn(copySql);
+		try {
+			StringBuilder row = new StringBuilder(256);
+			ByteArrayOutputStream buf = new ByteArrayOutputStream(FLUSH_BYTES + 1024);
+			for (T item : chunk) {
+				row.setLength(0);
+				appendCsvRow(row, fieldExtractor.extract(item));
+				buf.writeBytes(row.toString().getBytes(StandardCharsets.UTF_8));
+				if (buf.size() >= FLUSH_BYTES) {
+					copyIn.writeToCopy(buf.toByteArray(), 0, buf.size());
+					buf.reset();
+				}
+			}
+			if (buf.size() > 0) {
+				copyIn.writeToCopy(buf.toByteArray(), 0, buf.size());
+			}
+			return copyIn.endCopy();
+		} finally {
+			if (copyIn.isActive()) {
+				copyIn.cancelCopy();
+			}
+		}
+	}
+
+	private static BaseConnection unwrap(Connection con) {
+		try {
+			return con.isWrapperFor(BaseConnection.class) ? con.unwrap(BaseConnection.class) : null;
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * csv 한 행. null 은 빈 값(NULL), 빈 문자열은 "" 로 구분하고 구분자, 따옴표, 줄바꿈이 있으면 quote 한다.
+	 */
+	static void appendCsvRow(StringBuilder sb, Object[] values) {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			Object value = values[i];
+			if (value == null) {
+				continue;
+			}
+			String s = value.toString();
+			if (s.isEmpty() || needsQuote(s)) {
+				sb.append('"');
+				for (int j = 0; j < s.length(); j++) {
+					char c = s.charAt(j);
+					if (c == '"') {
+						sb.append('"');
+					}
+					sb.append(c);
+				}
+				sb.append('"');
+			} else {
+				sb.append(s);
+			}
+		}
+		sb.append('\n');
+	}
+
+	private static boolean needsQuote(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == ',' || c == '"' || c == '\n' || c == '\r' || c == '\\') {
+				return true;
+			}
+		}
+		// 앞뒤 공백이 있는 값, \. 은 quote 해야 그대로 들어감
+		return Character.isWhitespace(s.charAt(0)) || Character.isWhitespace(s.charAt(s.length() - 1));
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.demo.heatmap;
+
+import java.util.List;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * static/test.html rangeBar 차트 데이터.
+ * <p>
+ * GET /api/heatmap?from=&to=&buckets=&cc= : [from, to] 구간을 buckets 칸 해상도로 줄인 막대 목록
+ * (from/to 가 없으면 전체 범위, 채운 결과가 to < from 이면 400, cc 는 여러 개 가능). 응답은 chunked 로 바로 흘려 보내고,
+ * If-None-Match 가 현재 ETag 와 같으면 304 를 돌려준다.
+ */
+@RestController
+@RequestMapping("/api/heatmap")
+@RequiredArgsConstructor
+public class HeatmapController {
+
+	private final HeatmapService heatmapService;
+
+	@GetMapping
+	public ResponseEntity<StreamingResponseBody> heatmap(@RequestParam(required = false) Long from,
+			@RequestParam(required = false) Long to,
+			@RequestParam(required = false) Integer buckets,
+			@RequestParam(name = "cc", required = false) List<String> lanes,
+			WebRequest request) {
+		String version = heatmapService.version();
+		// 빈 from/to 를 전체 범위로 채운 뒤 검사 (from 만 데이터 끝보다 뒤인 경우 등)
+		HeatmapService.Query query = heatmapService.resolve(heatmapService.query(from, to, buckets, lanes), version);
+		if (query.to() < query.from()) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		String etag = heatmapService.etag(query, version);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.cacheControl(CacheControl.noCache())
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(out -> heatmapService.write(query, version, out));
+	}
+}
@@ -0,0 +1,327 @@
+package com.example.demo.heatmap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * rangeBar 구간 테이블({@link RangeTable}, batch 가 BIGINT 로 적재)을 화면 구간/해상도에 맞게 줄여 JSON 으로 쓴다.
+ * <p>
+ * 행은 (cc, range_start) 순서로 [from, to] 에 걸치는 것만 cursor(fetch-size)로 읽어 {@link RangeDownsampler} 를
+ * 거쳐 바로 출력하므로 원본 행 수와 관계없이 메모리는 일정하다. 결과 JSON 은 max-entry-bytes 이하면
+ * (data version, 요청) 별로 캐시한다. data version 은 batch step execution 의 마지막 갱신 시각이라 chunk 가 commit 되면
+ * 바뀐다 (ETag 에도 사용). from/to 가 없을 때 쓰는 전체 범위(MIN/MAX)도 data version 마다 한 번만 구한다.
+ * <p>
+ * range_end >= from 조건은 인덱스를 쓸 수 없으므로, 같은 data version 의 가장 긴 구간 길이로
+ * range_start >= from - 최대 길이 를 함께 걸어 인덱스된 range_start 구간만 읽는다 (화면 오른쪽 끝을 확대해도
+ * 앞쪽 행을 모두 읽지 않음). 아주 긴 구간이 하나라도 있으면 그만큼 넓게 읽는다.
+ */
+@Slf4j
+@Service
+public class HeatmapService {
+
+	public record Query(Long from, Long to, int buckets, List<String> lanes) {
+	}
+
+	private record CacheKey(String version, Query query) {
+	}
+
+	// 전체 범위와 가장 긴 구간 길이. 행이 없으면 lo/hi 는 null
+	private record Extent(String version, Long lo, Long hi, long maxLength) {
+	}
+
+	// range_start 하한(from - 최대 길이)으로 인덱스 구간을 제한
+	private static final String RANGES = "SELECT cc, range_start, range_end, tt FROM %s"
+			+ " WHERE range_start >= ? AND range_start <= ? AND range_end >= ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate readOnly;
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	private final String table;
+
+	private final String versionTable;
+
+	private final int maxBuckets;
+
+	private final int maxEntryBytes;
+
+	private final long versionCheckMillis;
+
+	private final Map<CacheKey, byte[]> cache;
+
+	private volatile String version;
+
+	private volatile Extent extent;
+
+	private volatile boolean initialized = false;
+
+	private volatile long versionCheckedAt;
+
+	public HeatmapService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${heatmap.table:tbl_range}") String table,
+			@Value("${spring.batch.jdbc.table-prefix:BATCH_}") String batchTablePrefix,
+			@Value("${heatmap.fetch-size:5000}") int fetchSize,
+			@Value("${heatmap.max-buckets:4000}") int maxBuckets,
+			@Value("${heatmap.cache.max-entries:256}") int maxEntries,
+			@Value("${heatmap.cache.max-entry-bytes:4194304}") int maxEntryBytes,
+			@Value("${heatmap.version-check-ms:1000}") long versionCheckMillis) {
+		this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+		this.jdbcTemplate.setFetchSize(fetchSize);
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.table = table;
+		this.versionTable = batchTablePrefix + "STEP_EXECUTION";
+		this.maxBuckets = maxBuckets;
+		this.maxEntryBytes = maxEntryBytes;
+		this.versionCheckMillis = versionCheckMillis;
+		// access 순서 LRU
+		this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, byte[]> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	public Query query(Long from, Long to, Integer buckets, List<String> lanes) {
+		int b = buckets == null ? 1000 : Math.max(1, Math.min(buckets, maxBuckets));
+		return new Query(from, to, b, lanes == null || lanes.isEmpty() ? null : List.copyOf(lanes));
+	}
+
+	/**
+	 * 비어 있는 from/to 를 전체 범위로 채운다. 데이터가 없으면 [from, from] (from 도 없으면 0).
+	 */
+	public Query resolve(Query query, String version) {
+		if (query.from() != null && query.to() != null) {
+			return query;
+		}
+		Extent e = extent(version);
+		long from = query.from() != null ? query.from() : e.lo() == null ? 0 : e.lo();
+		long to = query.to() != null ? query.to() : e.hi() == null ? from : e.hi();
+		return new Query(from, to, query.buckets(), query.lanes());
+	}
+
+	/**
+	 * 요청 결과의 ETag. 데이터(version)가 바뀌지 않았으면 같은 값
+	 */
+	public String etag(Query query, String version) {
+		return "\"hm-" + version + "-" + Integer.toHexString(query.hashCode()) + "\"";
+	}
+
+	/**
+	 * 캐시된 결과가 있으면 그대로, 없으면 DB 에서 읽으면서 out 에 바로 쓴다. version 은 ETag 를 만든 값
+	 */
+	public void write(Query query, String version, OutputStream out) throws IOException {
+		query = resolve(query, version);
+		CacheKey key = new CacheKey(version, query);
+		byte[] cached;
+		synchronized (cache) {
+			cached = cache.get(key);
+		}
+		if (cached != null) {
+			out.write(cached);
+			return;
+		}
+
+		Query resolved = query;
+		CapturingOutputStream capture = new CapturingOutputStream(out, maxEntryBytes);
+		try {
+			readOnly.executeWithoutResult(status -> {
+				try {
+					render(resolved, version, capture);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		byte[] body = capture.captured();
+		if (body != null) {
+			synchronized (cache) {
+				cache.put(key, body);
+			}
+		}
+	}
+
+	// 테이블이 없으면 만듦 (batch 가 아직 rangeBar 파일을 적재하지 않은 경우). read-only 트랜잭션 밖에서
+	private void initialize() {
+		if (!initialized) {
+			RangeTable.create(jdbcTemplate, table);
+			initialized = true;
+		}
+	}
+
+	private void render(Query query, String version, OutputStream out) throws IOException {
+		long from = query.from();
+		long to = query.to();
+		if (to < from) {
+			throw new IllegalArgumentException("to < from : " + from + " ~ " + to);
+		}
+		long maxLength = extent(version).maxLength();
+		long lower = from < Long.MIN_VALUE + maxLength ? Long.MIN_VALUE : from - maxLength;
+
+		try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+			json.writeStartObject();
+			json.writeNumberField("from", from);
+			json.writeNumberField("to", to);
+			json.writeArrayFieldStart("data");
+
+			RangeDownsampler sampler = new RangeDownsampler(from, to, query.buckets(), segment -> {
+				try {
+					json.writeStartObject();
+					json.writeStringField("cc", segment.cc());
+					json.writeNumberField("start", segment.start());
+					json.writeNumberField("end", segment.end());
+					json.writeStringField("tt", segment.tt());
+					json.writeNumberField("n", segment.count());
+					json.writeEndObject();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+
+			StringBuilder sql = new StringBuilder(String.format(RANGES, table));
+			Object[] args;
+			if (query.lanes() != null) {
+				sql.append(" AND cc IN (").append(String.join(", ", query.lanes().stream().map(l -> "?").toList()))
+						.append(")");
+				args = new Object[3 + query.lanes().size()];
+				for (int i = 0; i < query.lanes().size(); i++) {
+					args[3 + i] = query.lanes().get(i);
+				}
+			} else {
+				args = new Object[3];
+			}
+			args[0] = lower;
+			args[1] = to;
+			args[2] = from;
+			sql.append(" ORDER BY cc, range_start");
+
+			try {
+				RowCallbackHandler row = rs -> sampler.accept(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getString(4));
+				jdbcTemplate.query(sql.toString(), row, args);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			sampler.finish();
+
+			json.writeEndArray();
+			json.writeNumberField("bucket", sampler.getBucketWidth());
+			json.writeNumberField("rows", sampler.getInputCount());
+			json.writeNumberField("segments", sampler.getOutputCount());
+			json.writeNumberField("hidden", sampler.getHiddenCount());
+			json.writeEndObject();
+		}
+	}
+
+	// 전체 범위와 최대 구간 길이는 data version 이 바뀔 때만 다시 구함
+	private Extent extent(String version) {
+		Extent e = extent;
+		if (e != null && e.version().equals(version)) {
+			return e;
+		}
+		initialize();
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+				"SELECT MIN(range_start) AS lo, MAX(range_end) AS hi, MAX(range_end - range_start) AS len FROM " + table);
+		Number lo = (Number) row.get("lo");
+		Number hi = (Number) row.get("hi");
+		Number len = (Number) row.get("len");
+		e = new Extent(version, lo == null ? null : lo.longValue(), hi == null ? null : hi.longValue(),
+				len == null ? 0 : Math.max(0, len.longValue()));
+		extent = e;
+		return e;
+	}
+
+	// batch 가 chunk 를 commit 할 때마다 바뀌는 값. version-check-ms 동안은 다시 조회하지 않음
+	public String version() {
+		long now = System.currentTimeMillis();
+		String v = version;
+		if (v != null && now - versionCheckedAt < versionCheckMillis) {
+			return v;
+		}
+		Timestamp last = jdbcTemplate.queryForObject("SELECT MAX(LAST_UPDATED) FROM " + versionTable, Timestamp.class);
+		v = last == null ? "0" : Long.toString(last.getTime(), 36);
+		version = v;
+		versionCheckedAt = now;
+		return v;
+	}
+
+	/**
+	 * 대상으로 쓰면서 limit 까지만 복사본을 남긴다. 넘으면 캐시하지 않음
+	 */
+	private static final class CapturingOutputStream extends OutputStream {
+
+		private final OutputStream target;
+
+		private final int limit;
+
+		private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+		CapturingOutputStream(OutputStream target, int limit) {
+			this.target = target;
+			this.limit = limit;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			target.write(b);
+			if (copy != null) {
+				copy.write(b);
+				trim();
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			target.write(b, off, len);
+			if (copy != null) {
+				copy.write(b, off, len);
+				trim();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target.flush();
+		}
+
+		// JsonGenerator 가 닫아도 응답 스트림은 닫지 않음
+		@Override
+		public void close() throws IOException {
+			target.flush();
+		}
+
+		byte[] captured() {
+			return copy == null ? null : copy.toByteArray();
+		}
+
+		private void trim() {
+			if (copy.size() > limit) {
+				copy = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.demo.heatmap;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 화면 구간 [from, to] 을 buckets 칸으로 나눠 (cc, start) 순으로 들어오는 구간을 줄인다.
+ * <ul>
+ * <li>구간 경계를 칸 경계로 맞춘다 (한 칸보다 짧은 구간도 한 칸)</li>
+ * <li>같은 cc 에서 tt 가 같고 겹치거나 맞닿은 구간은 하나로 합친다</li>
+ * <li>tt 가 다른 구간이 같은 칸에 겹치면 먼저 온 구간이 그 칸을 가진다 (그 칸 안에 다 들어가는 구간은 이 배율에서 안 보임)</li>
+ * </ul>
+ * 그래서 cc 하나당 출력은 buckets 개를 넘지 않고, 칸 폭이 1 이 될 만큼 확대하면 원본 구간 그대로다 (맞닿은 같은 tt 만 합쳐짐).
+ */
+public class RangeDownsampler {
+
+	private final long from;
+
+	private final long to;
+
+	// 칸 하나의 폭 (1 이상)
+	private final long bucketWidth;
+
+	private final Consumer<RangeSegment> out;
+
+	private String cc;
+
+	private String tt;
+
+	// 현재 합치는 중인 구간 (칸 index)
+	private long startBucket;
+
+	private long endBucket;
+
+	private int count;
+
+	private boolean pending;
+
+	private long input;
+
+	private long output;
+
+	private long hidden;
+
+	public RangeDownsampler(long from, long to, int buckets, Consumer<RangeSegment> out) {
+		if (to < from) {
+			throw new IllegalArgumentException("to < from : " + from + " ~ " + to);
+		}
+		this.from = from;
+		this.to = to;
+		this.bucketWidth = Math.max(1, ceilDiv(to - from, Math.max(1, buckets)));
+		this.out = out;
+	}
+
+	public void accept(String cc, long start, long end, String tt) {
+		input++;
+		long s = Math.max(start, from);
+		long e = Math.min(end, to);
+		if (e < s) {
+			return;
+		}
+		long sb = Math.floorDiv(s - from, bucketWidth);
+		long eb = Math.max(sb + 1, ceilDiv(e - from, bucketWidth));
+
+		if (pending && Objects.equals(this.cc, cc)) {
+			if (sb <= endBucket && Objects.equals(this.tt, tt)) {
+				endBucket = Math.max(endBucket, eb);
+				count++;
+				return;
+			}
+			if (sb < endBucket) {
+				// 다른 tt 가 이미 가진 칸
+				if (eb <= endBucket) {
+					hidden++;
+					return;
+				}
+				sb = endBucket;
+			}
+		}
+		flush();
+		this.cc = cc;
+		this.tt = tt;
+		this.startBucket = sb;
+		this.endBucket = eb;
+		this.count = 1;
+		this.pending = true;
+	}
+
+	public void finish() {
+		flush();
+	}
+
+	public long getBucketWidth() {
+		return bucketWidth;
+	}
+
+	public long getInputCount() {
+		return input;
+	}
+
+	public long getOutputCount() {
+		return output;
+	}
+
+	// 다른 구간에 가려 출력되지 않은 구간 수
+	public long getHiddenCount() {
+		return hidden;
+	}
+
+	private void flush() {
+		if (!pending) {
+			return;
+		}
+		pending = false;
+		output++;
+		out.accept(new RangeSegment(cc, from + startBucket * bucketWidth, Math.min(to, from + endBucket * bucketWidth),
+				tt, count));
+	}
+
+	private static long ceilDiv(long x, long y) {
+		return -Math.floorDiv(-x, y);
+	}
+}
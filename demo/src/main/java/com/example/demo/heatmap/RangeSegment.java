@@ -0,0 +1,7 @@
+package com.example.demo.heatmap;
+
+/**
+ * rangeBar 차트의 막대 하나. count : 합쳐진 원본 구간 수
+ */
+public record RangeSegment(String cc, long start, long end, String tt, int count) {
+}
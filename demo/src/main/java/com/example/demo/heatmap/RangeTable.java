@@ -0,0 +1,29 @@
+package com.example.demo.heatmap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * rangeBar 구간 테이블 (cc, range_start, range_end, tt).
+ * <p>
+ * batch 는 rangeBar 파일({@code RangeBarFileReader})의 행을 tbl_test 의 문자열 컬럼 대신 여기에 타입(BIGINT) 그대로
+ * 적재하고, {@link HeatmapService} 는 (cc, range_start) 순서로 읽는다. end 가 null 인 행도 그대로 들어가고
+ * 조회 조건(range_end >= from)에서 빠진다. lane(cc) 조건이 없는 조회는 range_start 인덱스로 화면 구간만 읽는다.
+ */
+public final class RangeTable {
+
+	// 레코드 컬럼 c1..c4 순서
+	public static final String[] COLUMNS = { "cc", "range_start", "range_end", "tt" };
+
+	private RangeTable() {
+	}
+
+	public static void create(JdbcTemplate jdbcTemplate, String table) {
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+				+ " cc VARCHAR(100),"
+				+ " range_start BIGINT,"
+				+ " range_end BIGINT,"
+				+ " tt VARCHAR(200))");
+		jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table + "_cc_start_idx ON " + table + " (cc, range_start)");
+		jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + table + "_start_idx ON " + table + " (range_start)");
+	}
+}
@@ -0,0 +1,195 @@
+package com.example.demo.ingest;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 노드 간 입력 파일 점유(lease) 테이블.
+ * <p>
+ * dispatcher 는 job 을 실행하기 전에 {@link #tryClaim(String)} 으로 파일을 점유하고 끝나면 {@link #release(String)} 한다.
+ * 점유는 ingest_file_claim 행을 {@code SELECT ... FOR UPDATE SKIP LOCKED} 로 잠근 뒤 owner/lease_until 을 갱신하는 방식이라
+ * 여러 노드가 같은 파일을 동시에 잡으려 해도 한 노드만 성공하고, 나머지는 기다리지 않고 바로 넘어간다.
+ * <p>
+ * 점유 중인 파일은 heartbeat 스레드가 lease 를 계속 연장한다. 노드가 죽어 연장이 멈추면 lease 가 만료되고
+ * 다른 노드가 다시 점유할 수 있다. lease 시각은 각 노드 시계 기준이므로 lease-ms 는 노드 간 시계 오차보다 충분히 커야 한다.
+ */
+@Slf4j
+@Component
+public class FileClaimRegistry {
+
+	private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS ingest_file_claim ("
+			+ " path VARCHAR(1000) NOT NULL PRIMARY KEY,"
+			+ " owner VARCHAR(200),"
+			+ " lease_until TIMESTAMP NOT NULL,"
+			+ " claimed_at TIMESTAMP,"
+			+ " heartbeat_at TIMESTAMP)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final boolean enabled;
+
+	private final String owner;
+
+	private final long leaseMillis;
+
+	private final long heartbeatMillis;
+
+	// 잠긴 행은 기다리지 않고 건너뜀
+	private String lockClause = "FOR UPDATE SKIP LOCKED";
+
+	// 이 노드가 점유 중인 파일
+	private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+	private ScheduledExecutorService heartbeat;
+
+	public FileClaimRegistry(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			@Value("${ingest.claim.enabled:true}") boolean enabled,
+			@Value("${ingest.claim.owner-id:}") String owner,
+			@Value("${ingest.claim.lease-ms:60000}") long leaseMillis,
+			@Value("${ingest.claim.heartbeat-ms:20000}") long heartbeatMillis) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.enabled = enabled;
+		this.owner = owner.isBlank() ? defaultOwner() : owner;
+		this.leaseMillis = leaseMillis;
+		this.heartbeatMillis = Math.min(heartbeatMillis, leaseMillis / 2);
+	}
+
+	@PostConstruct
+	public void init() {
+		if (!enabled) {
+			return;
+		}
+		jdbcTemplate.execute(CREATE_SQL);
+		heartbeat = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ingest-claim-heartbeat-"));
+		heartbeat.scheduleWithFixedDelay(this::renew, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+		log.info("FileClaimRegistry started! owner : {}, lease : {} ms, heartbeat : {} ms", owner, leaseMillis,
+				heartbeatMillis);
+	}
+
+	/**
+	 * 파일을 점유한다. 다른 노드가 점유 중(lease 유효)이거나 같은 순간 다른 노드가 잡고 있으면 false.
+	 * 만료된 lease 는 가져온다.
+	 */
+	public boolean tryClaim(String path) {
+		if (!enabled) {
+			return true;
+		}
+
+		// 행이 없으면 만료된 상태로 먼저 만든다 (잠글 대상). PostgreSQL 은 tx 안의 중복키 오류가 tx 를 깨므로 tx 밖에서
+		try {
+			jdbcTemplate.update("INSERT INTO ingest_file_claim (path, owner, lease_until) VALUES (?, NULL, ?)", path,
+					new Timestamp(0));
+		} catch (DuplicateKeyException e) {
+			// 이미 있음
+		}
+
+		Boolean claimed = transactionTemplate.execute(status -> {
+			long now = System.currentTimeMillis();
+			List<Boolean> claimable = jdbcTemplate.query(
+					"SELECT owner, lease_until FROM ingest_file_claim WHERE path = ? " + lockClause,
+					(rs, row) -> {
+						String current = rs.getString(1);
+						return current == null || current.equals(owner) || rs.getTimestamp(2).getTime() <= now;
+					}, path);
+			// 빈 결과 : 다른 노드가 지금 잠그고 있음
+			if (claimable.isEmpty() || !claimable.get(0)) {
+				return false;
+			}
+			Timestamp at = new Timestamp(now);
+			jdbcTemplate.update(
+					"UPDATE ingest_file_claim SET owner = ?, lease_until = ?, claimed_at = ?, heartbeat_at = ? WHERE path = ?",
+					owner, new Timestamp(now + leaseMillis), at, at, path);
+			return true;
+		});
+
+		if (Boolean.TRUE.equals(claimed)) {
+			held.add(path);
+			return true;
+		}
+		log.debug("path : {} claimed by another node", path);
+		return false;
+	}
+
+	// 점유 해제 (행 삭제). 이 노드가 점유한 경우에만
+	public void release(String path) {
+		if (!enabled || !held.remove(path)) {
+			return;
+		}
+		try {
+			jdbcTemplate.update("DELETE FROM ingest_file_claim WHERE path = ? AND owner = ?", path, owner);
+		} catch (DataAccessException e) {
+			// 못 지워도 lease 만료 후 다른 노드가 가져감
+			log.warn("claim release failed. path : {}", path, e);
+		}
+	}
+
+	// SKIP LOCKED 를 지원하지 않는 DB (H2 2.1 등) 용. FOR UPDATE 만 쓰면 잠긴 행은 기다린 뒤 owner 를 보고 판단한다
+	void setLockClause(String lockClause) {
+		this.lockClause = lockClause;
+	}
+
+	public boolean isHeld(String path) {
+		return held.contains(path);
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	// 점유 중인 파일 lease 연장. 그 사이 만료되어 다른 노드가 가져간 파일은 점유 목록에서 뺀다
+	void renew() {
+		if (held.isEmpty()) {
+			return;
+		}
+		try {
+			long now = System.currentTimeMillis();
+			jdbcTemplate.update("UPDATE ingest_file_claim SET lease_until = ?, heartbeat_at = ? WHERE owner = ?",
+					new Timestamp(now + leaseMillis), new Timestamp(now), owner);
+
+			Set<String> stillOwned = Set.copyOf(
+					jdbcTemplate.queryForList("SELECT path FROM ingest_file_claim WHERE owner = ?", String.class, owner));
+			for (String path : held) {
+				if (!stillOwned.contains(path)) {
+					held.remove(path);
+					log.warn("claim lost (lease expired and taken by another node). path : {}", path);
+				}
+			}
+		} catch (DataAccessException e) {
+			log.warn("claim heartbeat failed", e);
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (heartbeat != null) {
+			heartbeat.shutdownNow();
+		}
+	}
+
+	// pid@hostname
+	private static String defaultOwner() {
+		return ManagementFactory.getRuntimeMXBean().getName();
+	}
+}
@@ -0,0 +1,370 @@
+package com.example.demo.ingest;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.configuration.JobLocator;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobExecutionNotRunningException;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 입력 파일 단위로 batch job 을 실행하는 dispatcher.
+ * <p>
+ * 동시 실행 수(concurrency)와 대기 큐(queue-capacity)를 합한 만큼만 작업을 받고,
+ * 초과분은 호출한 스레드(quartz worker)를 block 시켜 backpressure 를 건다.
+ * ordering=prefix 인 경우 같은 key(파일명 prefix)의 파일은 같은 lane 에서 순서대로 실행된다.
+ * <p>
+ * 실행한 job 은 {@link #stopRunning(Collection)} (quartz interrupt) 와 {@link #stopAllRunning()} (종료 시) 로
+ * JobOperator.stop 을 걸 수 있다.
+ * 중지된(STOPPED) 파일은 다음 dispatch 때 새로 실행하지 않고 그 execution 을 restart 해 이어서 처리한다.
+ * 실행 전에 {@link FileClaimRegistry} 로 파일을 점유하므로 여러 노드가 같은 디렉토리를 보더라도 한 노드만 import 한다.
+ */
+@Slf4j
+@Component
+public class FileJobDispatcher implements DisposableBean {
+
+	public enum Ordering {
+		NONE, PREFIX
+	}
+
+	private static final String CURR_TIME = "currTime";
+
+	private static final String FILENAME = "filename";
+
+	private final JobLauncher jobLauncher;
+
+	private final JobLocator jobLocator;
+
+	private final JobOperator jobOperator;
+
+	private final JobExplorer jobExplorer;
+
+	private final ProcessedFileLedger ledger;
+
+	private final FileClaimRegistry claims;
+
+	private final Ordering ordering;
+
+	private final String keyDelimiter;
+
+	// 실행중 + 대기중 작업 수 제한
+	private final Semaphore slots;
+
+	// ordering=NONE : 공유 pool 하나, ordering=PREFIX : key 별 단일 스레드 lane
+	private final ExecutorService[] lanes;
+
+	// 큐에 있거나 실행중인 파일 -> 끝나면 countDown (중복 dispatch 방지, awaitCompletion 대기)
+	private final Map<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
+	// 이 dispatcher 가 실행중인 job 의 currTime 파라미터 -> job 이름
+	private final Map<Long, String> launched = new ConcurrentHashMap<>();
+
+	// 실행중인 파일 (절대 경로) -> currTime
+	private final Map<String, Long> launchedFiles = new ConcurrentHashMap<>();
+
+	private final long stopTimeoutMillis;
+
+	// STOPPED execution 을 찾을 때 볼 최근 job instance 수
+	private final int restartLookback;
+
+	private volatile boolean stopping = false;
+
+	public FileJobDispatcher(JobLauncher jobLauncher, JobLocator jobLocator, JobOperator jobOperator,
+			JobExplorer jobExplorer, ProcessedFileLedger ledger, FileClaimRegistry claims,
+			@Value("${ingest.dispatcher.concurrency:0}") int concurrency,
+			@Value("${ingest.dispatcher.queue-capacity:100}") int queueCapacity,
+			@Value("${ingest.dispatcher.ordering:none}") String ordering,
+			@Value("${ingest.dispatcher.key-delimiter:_}") String keyDelimiter,
+			@Value("${ingest.dispatcher.stop-timeout-ms:10000}") long stopTimeoutMillis,
+			@Value("${ingest.dispatcher.restart-lookback:50}") int restartLookback) {
+		this.jobLauncher = jobLauncher;
+		this.jobLocator = jobLocator;
+		this.jobOperator = jobOperator;
+		this.jobExplorer = jobExplorer;
+		this.ledger = ledger;
+		this.claims = claims;
+		this.stopTimeoutMillis = stopTimeoutMillis;
+		this.restartLookback = restartLookback;
+		this.ordering = Ordering.valueOf(ordering.trim().toUpperCase());
+		this.keyDelimiter = keyDelimiter;
+
+		int threads = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+		this.slots = new Semaphore(threads + Math.max(0, queueCapacity));
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ingest-dispatch-");
+		if (this.ordering == Ordering.PREFIX) {
+			this.lanes = new ExecutorService[threads];
+			for (int i = 0; i < threads; i++) {
+				this.lanes[i] = newPool(1, threadFactory);
+			}
+		} else {
+			this.lanes = new ExecutorService[] { newPool(threads, threadFactory) };
+		}
+		log.info("FileJobDispatcher created! concurrency : {}, queue : {}, ordering : {}", threads, queueCapacity,
+				this.ordering);
+	}
+
+	private static ExecutorService newPool(int threads, CustomizableThreadFactory threadFactory) {
+		// 큐 크기는 slots 로 제한하므로 여기서는 unbounded
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				threadFactory);
+	}
+
+	/**
+	 * 파일 하나에 대한 job 실행을 예약한다. 슬롯이 없으면 빌 때까지 대기한다.
+	 *
+	 * @return 이미 처리했거나 큐에 있거나 실행중인 파일이면 (또는 종료중이면) false
+	 */
+	public boolean dispatch(String jobName, File file) throws InterruptedException {
+		if (stopping || ledger.isKnownProcessed(file)) {
+			return false;
+		}
+
+		String path = file.getAbsolutePath();
+		CountDownLatch done = new CountDownLatch(1);
+		if (inFlight.putIfAbsent(path, done) != null) {
+			log.debug("filename : {} already dispatched", file.getName());
+			return false;
+		}
+
+		try {
+			slots.acquire();
+		} catch (InterruptedException e) {
+			finish(path, done);
+			throw e;
+		}
+
+		try {
+			laneFor(file).execute(() -> {
+				try {
+					launch(jobName, file);
+				} finally {
+					finish(path, done);
+					slots.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			finish(path, done);
+			slots.release();
+			throw e;
+		}
+		return true;
+	}
+
+	private void finish(String path, CountDownLatch done) {
+		inFlight.remove(path, done);
+		done.countDown();
+	}
+
+	private void launch(String jobName, File f) {
+		// 종료중이면 큐에 남은 파일은 실행하지 않음 (다음 기동 때 다시 dispatch)
+		if (stopping) {
+			return;
+		}
+
+		// 다른 노드가 점유 중이면 넘어감 (lease 가 만료되면 다음 dispatch 때 다시 시도)
+		String path = f.getAbsolutePath();
+		if (!claims.tryClaim(path)) {
+			log.debug("filename : {} claimed by another node, skip", f.getName());
+			return;
+		}
+
+		Long token = null;
+		try {
+			// hash 계산과 원장 조회는 worker 에서 (quartz 스레드를 막지 않도록)
+			ProcessedFileLedger.Fingerprint fp = ledger.checkNew(f);
+			if (fp == null) {
+				return;
+			}
+
+			// dispatcher 스레드에서 동기 실행 -> 동시 job(DB 커넥션) 수가 concurrency 로 제한됨
+			JobExecution execution;
+			JobExecution stopped = findStoppedExecution(jobName, f.getName());
+			if (stopped != null) {
+				token = stopped.getJobParameters().getLong(CURR_TIME);
+				launched.put(token, jobName);
+				launchedFiles.put(path, token);
+				log.info("filename : {} restarted! (stopped execution : {})", f.getName(), stopped.getId());
+				execution = jobExplorer.getJobExecution(jobOperator.restart(stopped.getId()));
+			} else {
+				token = System.nanoTime();
+				launched.put(token, jobName);
+				launchedFiles.put(path, token);
+				log.info("filename : {} started!", f.getName());
+				JobParametersBuilder jpb = new JobParametersBuilder();
+				jpb.addLong(CURR_TIME, token);
+				jpb.addString(FILENAME, f.getName());
+				execution = jobLauncher.run(jobLocator.getJob(jobName), jpb.toJobParameters());
+			}
+
+			if (execution.getStatus() == BatchStatus.COMPLETED) {
+				ledger.markProcessed(fp, execution.getId());
+			} else if (execution.getStatus() == BatchStatus.STOPPED) {
+				log.info("filename : {} stopped, will restart on next dispatch", f.getName());
+			}
+		} catch (Exception e) {
+			log.error("job launch failed. job : {}, filename : {}", jobName, f.getName(), e);
+		} finally {
+			if (token != null) {
+				launched.remove(token);
+				launchedFiles.remove(path, token);
+			}
+			claims.release(path);
+		}
+	}
+
+	// 같은 파일로 실행됐다가 중지된 최근 execution
+	private JobExecution findStoppedExecution(String jobName, String fileName) {
+		List<JobInstance> instances = jobExplorer.getJobInstances(jobName, 0, restartLookback);
+		for (JobInstance instance : instances) {
+			JobExecution last = jobExplorer.getLastJobExecution(instance);
+			if (last != null && last.getStatus() == BatchStatus.STOPPED
+					&& fileName.equals(last.getJobParameters().getString(FILENAME))
+					&& last.getJobParameters().getLong(CURR_TIME) != null) {
+				return last;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * files 중 이 dispatcher 가 실행중인 파일의 execution 에만 JobOperator.stop 을 요청한다 (quartz fire 하나가 dispatch 한 파일).
+	 * 같은 job 이름의 다른 fire(slot) 가 실행한 execution 은 건드리지 않는다.
+	 * chunk step 은 다음 chunk 경계에서, StoppableTasklet 은 stop() 으로 멈추고 STOPPED 로 남는다 (재시작 가능).
+	 *
+	 * @return 중지 요청한 execution 수
+	 */
+	public int stopRunning(Collection<File> files) {
+		Set<Long> tokens = new HashSet<>();
+		for (File file : files) {
+			Long token = launchedFiles.get(file.getAbsolutePath());
+			if (token != null) {
+				tokens.add(token);
+			}
+		}
+		return stop(tokens);
+	}
+
+	/**
+	 * 이 dispatcher 가 실행중인 모든 execution 에 JobOperator.stop 을 요청한다 (종료 시).
+	 */
+	public int stopAllRunning() {
+		return stop(new HashSet<>(launched.keySet()));
+	}
+
+	// currTime 이 tokens 에 있는 실행중 execution 만
+	private int stop(Set<Long> tokens) {
+		Set<String> jobNames = new HashSet<>();
+		for (Long token : tokens) {
+			String jobName = launched.get(token);
+			if (jobName != null) {
+				jobNames.add(jobName);
+			}
+		}
+		int requested = 0;
+		for (String name : jobNames) {
+			for (JobExecution execution : jobExplorer.findRunningJobExecutions(name)) {
+				Long token = execution.getJobParameters().getLong(CURR_TIME);
+				if (token != null && tokens.contains(token) && stop(execution)) {
+					requested++;
+				}
+			}
+		}
+		return requested;
+	}
+
+	// 한 execution 의 실패가 나머지 중지 요청과 quartz interrupt 를 막지 않도록 예외는 로그만
+	private boolean stop(JobExecution execution) {
+		try {
+			if (jobOperator.stop(execution.getId())) {
+				log.info("stop requested. job : {}, execution : {}", execution.getJobInstance().getJobName(),
+						execution.getId());
+				return true;
+			}
+		} catch (NoSuchJobExecutionException | JobExecutionNotRunningException e) {
+			log.debug("execution {} already finished", execution.getId());
+		} catch (RuntimeException e) {
+			log.warn("stop request failed. execution : {}", execution.getId(), e);
+		}
+		return false;
+	}
+
+	private ExecutorService laneFor(File file) {
+		if (lanes.length == 1) {
+			return lanes[0];
+		}
+		return lanes[Math.floorMod(orderingKey(file.getName()).hashCode(), lanes.length)];
+	}
+
+	// 파일명의 첫 delimiter 앞부분, 없으면 확장자를 뗀 이름
+	String orderingKey(String fileName) {
+		int idx = keyDelimiter.isEmpty() ? -1 : fileName.indexOf(keyDelimiter);
+		if (idx < 0) {
+			idx = fileName.lastIndexOf('.');
+		}
+		return idx > 0 ? fileName.substring(0, idx) : fileName;
+	}
+
+	/**
+	 * files 가 모두 끝날 때까지 (큐와 실행중 목록에서 빠질 때까지) 기다린다.
+	 */
+	public void awaitCompletion(Collection<File> files) throws InterruptedException {
+		for (File file : files) {
+			CountDownLatch done = inFlight.get(file.getAbsolutePath());
+			if (done != null) {
+				done.await();
+			}
+		}
+	}
+
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	public int getRunningCount() {
+		return launched.size();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		// 새 실행을 막고 실행중인 job 은 중지 요청 후 stop-timeout-ms 만큼만 기다림
+		stopping = true;
+		int requested = stopAllRunning();
+		log.info("FileJobDispatcher stopping. stop requested : {}, running : {}", requested, launched.size());
+
+		for (ExecutorService lane : lanes) {
+			lane.shutdown();
+		}
+		long deadline = System.currentTimeMillis() + stopTimeoutMillis;
+		for (ExecutorService lane : lanes) {
+			if (!lane.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+				lane.shutdownNow();
+			}
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package com.example.demo.ingest;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
+import org.apache.commons.io.monitor.FileAlterationMonitor;
+import org.apache.commons.io.monitor.FileAlterationObserver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.batch.partition.InputResourceIndex;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 입력 디렉토리 감시기. quartz 의 20초 polling 대신 파일이 들어오는 즉시 job 을 실행한다.
+ * <p>
+ * NIO WatchService 를 기본으로 쓰고, 사용할 수 없는 파일시스템(NFS 등)이거나 mode=polling 이면
+ * commons-io FileAlterationMonitor 로 대체한다.
+ * 감지된 파일은 크기와 수정시간이 stable-ms 동안 변하지 않아야(쓰기 완료) dispatch 된다.
+ * 임시 확장자(.tmp, .part 등)로 쓰고 rename 하는 경우에는 rename 된 시점에 감지된다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ingest.watcher.enabled", havingValue = "true")
+public class InputDirectoryWatcher {
+
+	private final FileJobDispatcher fileJobDispatcher;
+
+	// 새 파일이 보이면 batch partitioner 의 파일 목록 캐시를 비움
+	private final InputResourceIndex inputResourceIndex;
+
+	private final Path inputDir;
+
+	private final String jobName;
+
+	private final String mode;
+
+	private final long stableMillis;
+
+	private final long pollIntervalMillis;
+
+	private final List<String> ignoreSuffixes;
+
+	// 쓰기 완료를 기다리는 파일
+	private final Map<Path, PendingFile> pending = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService settleExecutor = Executors
+			.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ingest-settle-"));
+
+	private volatile WatchService watchService;
+
+	private volatile Thread watchThread;
+
+	private volatile FileAlterationMonitor monitor;
+
+	public InputDirectoryWatcher(FileJobDispatcher fileJobDispatcher, InputResourceIndex inputResourceIndex,
+			@Value("${ingest.input-dir:./src/main/resources/input/}") String inputDir,
+			@Value("${ingest.watcher.job-name:simpleJob}") String jobName,
+			@Value("${ingest.watcher.mode:native}") String mode,
+			@Value("${ingest.watcher.stable-ms:500}") long stableMillis,
+			@Value("${ingest.watcher.poll-interval-ms:1000}") long pollIntervalMillis,
+			@Value("${ingest.watcher.ignore-suffixes:.tmp,.part,.crdownload}") String[] ignoreSuffixes) {
+		this.fileJobDispatcher = fileJobDispatcher;
+		this.inputResourceIndex = inputResourceIndex;
+		this.inputDir = Paths.get(inputDir).toAbsolutePath().normalize();
+		this.jobName = jobName;
+		this.mode = mode;
+		this.stableMillis = stableMillis;
+		this.pollIntervalMillis = pollIntervalMillis;
+		this.ignoreSuffixes = Arrays.asList(ignoreSuffixes);
+	}
+
+	// job 등록이 끝난 뒤에 감시 시작
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() throws Exception {
+		if (!"polling".equalsIgnoreCase(mode) && startNative()) {
+			log.info("InputDirectoryWatcher started (native) : {}", inputDir);
+		} else {
+			startPolling();
+			log.info("InputDirectoryWatcher started (polling {}ms) : {}", pollIntervalMillis, inputDir);
+		}
+
+		// 기동 전에 들어와 있던 파일
+		rescan();
+
+		long checkInterval = Math.max(50L, Math.min(stableMillis, 200L));
+		settleExecutor.scheduleWithFixedDelay(this::dispatchSettled, checkInterval, checkInterval,
+				TimeUnit.MILLISECONDS);
+	}
+
+	private boolean startNative() {
+		try {
+			WatchService ws = inputDir.getFileSystem().newWatchService();
+			inputDir.register(ws, ENTRY_CREATE, ENTRY_MODIFY);
+			this.watchService = ws;
+		} catch (IOException | UnsupportedOperationException e) {
+			log.warn("WatchService unavailable for {}, fallback to polling : {}", inputDir, e.getMessage());
+			return false;
+		}
+
+		Thread t = new Thread(this::watchLoop, "ingest-watcher");
+		t.setDaemon(true);
+		t.start();
+		this.watchThread = t;
+		return true;
+	}
+
+	private void startPolling() throws Exception {
+		FileAlterationObserver observer = new FileAlterationObserver(inputDir.toFile());
+		observer.addListener(new FileAlterationListenerAdaptor() {
+			@Override
+			public void onFileCreate(File file) {
+				offer(file.toPath());
+			}
+
+			@Override
+			public void onFileChange(File file) {
+				offer(file.toPath());
+			}
+		});
+		FileAlterationMonitor m = new FileAlterationMonitor(pollIntervalMillis, observer);
+		m.setThreadFactory(new CustomizableThreadFactory("ingest-poller-"));
+		m.start();
+		this.monitor = m;
+	}
+
+	private void watchLoop() {
+		WatchService ws = this.watchService;
+		while (!Thread.currentThread().isInterrupted()) {
+			WatchKey key;
+			try {
+				key = ws.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW) {
+					// 이벤트 유실 -> 디렉토리 재스캔
+					rescan();
+					continue;
+				}
+				offer(inputDir.resolve((Path) event.context()));
+			}
+
+			if (!key.reset()) {
+				log.warn("input directory is no longer accessible : {}", inputDir);
+				return;
+			}
+		}
+	}
+
+	private void rescan() {
+		try (Stream<Path> paths = Files.list(inputDir)) {
+			paths.forEach(this::offer);
+		} catch (IOException e) {
+			log.error("input directory scan failed : {}", inputDir, e);
+		}
+	}
+
+	void offer(Path path) {
+		String name = path.getFileName().toString();
+		if (name.startsWith(".") || ignoreSuffixes.stream().anyMatch(name::endsWith)) {
+			return;
+		}
+		pending.compute(path, (p, prev) -> prev == null ? new PendingFile() : prev.touch());
+	}
+
+	// stable-ms 동안 크기/수정시간 변화가 없는 파일만 dispatch
+	private void dispatchSettled() {
+		long now = System.currentTimeMillis();
+		for (Map.Entry<Path, PendingFile> entry : pending.entrySet()) {
+			Path path = entry.getKey();
+			PendingFile pf = entry.getValue();
+			try {
+				File file = path.toFile();
+				if (!file.isFile()) {
+					pending.remove(path, pf);
+					continue;
+				}
+
+				long size = file.length();
+				long mtime = file.lastModified();
+				if (pf.observe(size, mtime, now) < stableMillis) {
+					continue;
+				}
+
+				if (pending.remove(path, pf)) {
+					inputResourceIndex.invalidate();
+					fileJobDispatcher.dispatch(jobName, file);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (Exception e) {
+				log.error("dispatch failed : {}", path, e);
+			}
+		}
+	}
+
+	@PreDestroy
+	public void stop() throws Exception {
+		settleExecutor.shutdownNow();
+		if (watchService != null) {
+			watchService.close();
+		}
+		if (watchThread != null) {
+			watchThread.interrupt();
+		}
+		if (monitor != null) {
+			monitor.stop();
+		}
+	}
+
+	private static final class PendingFile {
+		private long size = -1;
+		private long mtime = -1;
+		private long stableSince;
+
+		// 새 이벤트가 오면 안정 시간을 다시 잰다
+		synchronized PendingFile touch() {
+			size = -1;
+			return this;
+		}
+
+		// 마지막 변화 이후 경과 시간
+		synchronized long observe(long newSize, long newMtime, long now) {
+			if (newSize != size || newMtime != mtime) {
+				size = newSize;
+				mtime = newMtime;
+				stableSince = now;
+			}
+			return now - stableSince;
+		}
+	}
+}
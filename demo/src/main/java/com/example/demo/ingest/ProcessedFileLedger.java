@@ -0,0 +1,145 @@
+package com.example.demo.ingest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 처리 완료된 입력 파일 원장.
+ * <p>
+ * (path, size, mtime, content hash) 를 ingest_file_ledger 테이블에 남기고, 같은 파일이 다시 들어오면 job 을 실행하지 않는다.
+ * (path, size, mtime) 는 메모리 캐시로 먼저 확인하므로 이미 처리한 파일은 hash 계산이나 DB 조회 없이 걸러진다.
+ * 캐시에 없는 파일만 hash 를 계산해서 mtime 만 바뀐(touch, 복사) 같은 내용의 파일도 중복으로 판단한다.
+ */
+@Slf4j
+@Component
+public class ProcessedFileLedger {
+
+	public record Fingerprint(String path, long size, long lastModified, String contentHash) {
+	}
+
+	private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS ingest_file_ledger ("
+			+ " path VARCHAR(1000) NOT NULL,"
+			+ " file_size BIGINT NOT NULL,"
+			+ " last_modified BIGINT NOT NULL,"
+			+ " content_hash VARCHAR(64) NOT NULL,"
+			+ " job_execution_id BIGINT,"
+			+ " processed_at TIMESTAMP NOT NULL,"
+			+ " PRIMARY KEY (path, file_size, last_modified, content_hash))";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final boolean enabled;
+
+	// path|size|mtime
+	private final Set<String> done = ConcurrentHashMap.newKeySet();
+
+	public ProcessedFileLedger(JdbcTemplate jdbcTemplate, @Value("${ingest.ledger.enabled:true}") boolean enabled) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.enabled = enabled;
+	}
+
+	@PostConstruct
+	public void init() {
+		if (enabled) {
+			jdbcTemplate.execute(CREATE_SQL);
+		}
+	}
+
+	/**
+	 * 메모리 캐시만 확인 (hash, DB 조회 없음)
+	 */
+	public boolean isKnownProcessed(File file) {
+		return enabled && done.contains(cacheKey(file.getAbsolutePath(), file.length(), file.lastModified()));
+	}
+
+	/**
+	 * 처리 대상이면 fingerprint 를, 이미 처리된 파일이면 null 을 반환한다.
+	 */
+	public Fingerprint checkNew(File file) throws IOException {
+		String path = file.getAbsolutePath();
+		long size = file.length();
+		long mtime = file.lastModified();
+		if (!enabled) {
+			return new Fingerprint(path, size, mtime, "");
+		}
+
+		String key = cacheKey(path, size, mtime);
+		if (done.contains(key)) {
+			return null;
+		}
+
+		String hash = hash(file);
+		List<Long> found = jdbcTemplate.queryForList(
+				"SELECT last_modified FROM ingest_file_ledger WHERE path = ? AND file_size = ? AND content_hash = ?",
+				Long.class, path, size, hash);
+		if (!found.isEmpty()) {
+			// mtime 이 달라도 내용이 같으면 처리된 파일. 현재 mtime 도 기록해 둔다
+			if (!found.contains(mtime)) {
+				insert(new Fingerprint(path, size, mtime, hash), null);
+			}
+			done.add(key);
+			log.info("filename : {} already processed, skip", file.getName());
+			return null;
+		}
+		return new Fingerprint(path, size, mtime, hash);
+	}
+
+	public void markProcessed(Fingerprint fp, Long jobExecutionId) {
+		if (!enabled) {
+			return;
+		}
+		insert(fp, jobExecutionId);
+		done.add(cacheKey(fp.path(), fp.size(), fp.lastModified()));
+	}
+
+	private void insert(Fingerprint fp, Long jobExecutionId) {
+		try {
+			jdbcTemplate.update(
+					"INSERT INTO ingest_file_ledger (path, file_size, last_modified, content_hash, job_execution_id, processed_at)"
+							+ " VALUES (?, ?, ?, ?, ?, ?)",
+					fp.path(), fp.size(), fp.lastModified(), fp.contentHash(), jobExecutionId,
+					new Timestamp(System.currentTimeMillis()));
+		} catch (DuplicateKeyException e) {
+			// 다른 스레드가 먼저 기록함
+		}
+	}
+
+	private static String cacheKey(String path, long size, long mtime) {
+		return path + '|' + size + '|' + mtime;
+	}
+
+	static String hash(File file) throws IOException {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		byte[] buf = new byte[64 * 1024];
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			int n;
+			while ((n = in.read(buf)) > 0) {
+				md.update(buf, 0, n);
+			}
+		}
+		return HexFormat.of().formatHex(md.digest());
+	}
+}
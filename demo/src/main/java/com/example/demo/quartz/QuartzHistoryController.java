@@ -0,0 +1,31 @@
+package com.example.demo.quartz;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 이 노드의 최근 quartz fire 이력 ({@link QuartzMetrics}).
+ * <p>
+ * GET /api/quartz/history?job=&outcome=&limit= : 최신순. job 은 simpleJob, simpleJob#3, DEFAULT.simpleJob 모두 가능,
+ * outcome 은 SUCCESS, FAILURE, VETOED, MISFIRED.
+ */
+@RestController
+@RequestMapping("/api/quartz")
+@RequiredArgsConstructor
+public class QuartzHistoryController {
+
+    private final QuartzMetrics quartzMetrics;
+
+    @GetMapping("/history")
+    public List<QuartzMetrics.Fire> history(@RequestParam(required = false) String job,
+            @RequestParam(required = false) QuartzMetrics.Outcome outcome,
+            @RequestParam(defaultValue = "100") int limit) {
+        return quartzMetrics.history(job, outcome, limit);
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.demo.quartz;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.InterruptableJob;
+import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.UnableToInterruptJobException;
@@ -17,28 +23,32 @@ import org.springframework.batch.core.JobParametersInvalidException;
 import org.springframework.batch.core.configuration.JobLocator;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.NoSuchJobException;
-import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 
+import com.example.demo.ingest.FileJobDispatcher;
+import com.example.demo.quartz.config.QuartzClusterSupport;
 import com.example.demo.quartz.utils.BeanUtils;
 import lombok.extern.slf4j.Slf4j;
 
 
 @Slf4j
-//clustering 모드에선 아래 어노테이션이 동작하지 않음
-//@DisallowConcurrentExecution
+//같은 JobKey(slot) 는 동시에 한 번만 실행. RAMJobStore 는 노드 안에서만, JDBC job store(클러스터 모드)는 클러스터 전체에서 보장됨
+@DisallowConcurrentExecution
 public class QuartzJob extends QuartzJobBean implements InterruptableJob {
 
    private static final String JOB_NANE = "JOB_NAME";
    
    private volatile boolean isJobInterrupted = false; 
    private volatile Thread currThread;
+   private volatile String jobName;
+   // 이번 fire 가 dispatch 한 파일 (interrupt 시 이 파일들의 execution 만 중지)
+   private final List<File> dispatched = new CopyOnWriteArrayList<>();
    
    @Autowired
    private JobLocator jobLocator;
@@ -48,53 +58,53 @@ public class QuartzJob extends QuartzJobBean implements InterruptableJob {
    
    @Autowired
    private JobLauncher jobLauncher;
-;
+   
+   @Autowired
+   private FileJobDispatcher fileJobDispatcher;
+   
+   @Value("${ingest.input-dir:./src/main/resources/input/}")
+   private String inputDir;
+   
+   @Value("${ingest.dispatcher.max-files-per-fire:100}")
+   private long maxFilesPerFire;
    
    @Override
    protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
+      currThread = Thread.currentThread();
       try {
          log.info("executeInternal called ! ");
          
-         String jobName = context.getJobDetail().getJobDataMap().getString(JOB_NANE);
-         log.info("{} started!", jobName);
-         
-         TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
-         jobLauncher.setJobRepository(jobRepository);
-         jobLauncher.setTaskExecutor(new SimpleAsyncTaskExecutor());
+         JobDataMap dataMap = context.getMergedJobDataMap();
+         jobName = dataMap.getString(JOB_NANE);
+         // 클러스터 모드 slot job 이면 자기 slot 파일만 처리
+         int slots = dataMap.containsKey(QuartzService.SLOTS) ? dataMap.getInt(QuartzService.SLOTS) : 1;
+         int slot = dataMap.containsKey(QuartzService.SLOT) ? dataMap.getInt(QuartzService.SLOT) : 0;
+         log.info("{} started! slot : {}/{}", jobName, slot, slots);
          
-         Files.walk(Paths.get("./src/main/resources/input/")) // 경로 스트림 생성
-			//.collect(Collectors.toList()) // 더 나은 병렬화를 위해 경로를 목록으로 수집
-			//.parallelStream() // 여러 스레드에서 이 스트림 처리
+         try (Stream<Path> paths = Files.walk(Paths.get(inputDir))) { // 경로 스트림 생성
+         paths
 			.filter(Files::isRegularFile) // 파일이 아닌 디렉토리 필터링
 			.map(Path::toFile) // 경로를 파일 객체로 변환
-			//.parallel()
+			.filter(f -> QuartzClusterSupport.slotOf(f.getName(), slots) == slot)
 			.sorted((a, b) -> Long.compare(a.lastModified(), b.lastModified())) // 정렬 파일 날짜
-			.limit(100) // 처리 파일로 제한
-			//.forEach(f -> { // 병렬 스트림인 경우 순서가 보장되지 않음
-			.forEachOrdered(f -> { // 병렬 스트림인 경우에도 순서가 보장됨
-				//process(f);
-				
+			.limit(maxFilesPerFire) // 처리 파일로 제한
+			.takeWhile(f -> !isJobInterrupted) // interrupt 되면 남은 파일은 dispatch 하지 않음
+			.forEachOrdered(f -> { // dispatcher 큐가 가득 차면 여기서 대기 (backpressure)
 				try {
-					
-					log.info("filename : {} started!", f.getName());
-			         JobParametersBuilder jpb = new JobParametersBuilder();
-			         jpb.addLong("currTime", System.nanoTime());
-			         jpb.addString("filename", f.getName());
-			         Job job = jobLocator.getJob(jobName);
-					
-					jobLauncher.run(job, jpb.toJobParameters());
-				} catch (NoSuchJobException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				} catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException
-						| JobParametersInvalidException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				} catch (Exception e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
+					if (fileJobDispatcher.dispatch(jobName, f)) {
+						dispatched.add(f);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("dispatch interrupted", e);
 				}
 			});
+         }
+         
+         // slot job 은 처리가 끝날 때까지 slot 을 잡고 있어야 다른 노드가 같은 파일을 가져가지 않음
+         if (slots > 1) {
+            fileJobDispatcher.awaitCompletion(dispatched);
+         }
          
          /*
          //job 내의 파라미터가 모두 동일한 경우 1회만 실행되고 중복 job 으로 분류되어 실행이 불가.
@@ -162,13 +172,27 @@ public class QuartzJob extends QuartzJobBean implements InterruptableJob {
         	    */    
          
       } catch (Exception e) {
-         log.error("ex in job execute: {}", e.getMessage());
+         if (isJobInterrupted) {
+            log.info("{} interrupted", jobName);
+         } else {
+            log.error("ex in job execute: {}", e.getMessage());
+         }
+      } finally {
+         currThread = null;
       }
    }
 
+   /**
+    * 남은 파일 dispatch 를 멈추고, 이번 fire 가 dispatch 해 실행중인 batch job 에 JobOperator.stop 을 요청한다.
+    * (chunk 경계에서 STOPPED 로 끝나고 다음 dispatch 때 restart 됨)
+    */
    @Override
    public void interrupt() throws UnableToInterruptJobException {
       isJobInterrupted = true;
+      if (jobName != null) {
+         int requested = fileJobDispatcher.stopRunning(dispatched);
+         log.info("{} interrupt : stop requested for {} executions", jobName, requested);
+      }
       if(currThread != null) {
          log.info("interrupting-{"+currThread.getName()+"}");
          currThread.interrupt();
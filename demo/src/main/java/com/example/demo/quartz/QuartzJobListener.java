@@ -3,13 +3,18 @@ package com.example.demo.quartz;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.JobListener;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class QuartzJobListener implements JobListener {
+
+    private final QuartzMetrics metrics;
+
+    public QuartzJobListener(QuartzMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public String getName() {
         return this.getClass().getName();
@@ -18,16 +23,19 @@ public class QuartzJobListener implements JobListener {
 
     @Override
     public void jobToBeExecuted(JobExecutionContext context) {
-        log.info("Job 수행 되기 전");
+        log.debug("Job 수행 되기 전 : {}", context.getJobDetail().getKey());
+        metrics.jobStarted(context);
     }
 
     @Override
     public void jobExecutionVetoed(JobExecutionContext context) {
-        log.info("Job 중단");
+        log.info("Job 중단 : {}", context.getJobDetail().getKey());
+        metrics.jobVetoed(context);
     }
 
     @Override
     public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
-        log.info("Job 수행 완료 후");
+        log.debug("Job 수행 완료 후 : {}, {} ms", context.getJobDetail().getKey(), context.getJobRunTime());
+        metrics.jobFinished(context, jobException);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.example.demo.quartz;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.Trigger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * quartz 스케줄러 지표와 최근 fire 이력.
+ * <p>
+ * QuartzTriggerListener / QuartzJobListener 가 호출한다.
+ * <ul>
+ * <li>quartz.trigger.lag : 예정 fire 시각 대비 실제 fire 시각 지연 (스레드가 모자라면 커짐)</li>
+ * <li>quartz.job.run : job 실행 시간 (result=success|failure)</li>
+ * <li>quartz.job.vetoed, quartz.trigger.misfired : veto / misfire 건수</li>
+ * <li>quartz.threadpool.active, quartz.threadpool.size : 실행중인 job 수와 스레드 수</li>
+ * </ul>
+ * job 태그는 job 이름에서 slot 번호(#n)를 뺀 이름. 이력은 최근 history-size 건만 메모리에 둔다 (노드별).
+ */
+@Component
+public class QuartzMetrics {
+
+    public enum Outcome {
+        SUCCESS, FAILURE, VETOED, MISFIRED
+    }
+
+    /**
+     * fire 한 건. lagMillis : 예정 시각 대비 지연, runMillis : 실행 시간 (veto/misfire 는 -1)
+     */
+    public record Fire(String job, String trigger, Instant scheduledAt, Instant firedAt, long lagMillis,
+            long runMillis, Outcome outcome, String error) {
+    }
+
+    private final MeterRegistry registry;
+
+    private final int historySize;
+
+    private final ArrayDeque<Fire> history;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private volatile int threadPoolSize;
+
+    public QuartzMetrics(MeterRegistry registry, @Value("${quartz.metrics.history-size:500}") int historySize) {
+        this.registry = registry;
+        this.historySize = Math.max(1, historySize);
+        this.history = new ArrayDeque<>(this.historySize);
+        Gauge.builder("quartz.threadpool.active", active, AtomicInteger::get)
+                .description("jobs currently executing on this node").register(registry);
+        Gauge.builder("quartz.threadpool.size", this, m -> m.threadPoolSize)
+                .description("quartz worker threads").register(registry);
+    }
+
+    // 스케줄러 시작 후 QuartzService 에서 설정
+    public void setThreadPoolSize(int threadPoolSize) {
+        this.threadPoolSize = threadPoolSize;
+    }
+
+    public void jobStarted(JobExecutionContext context) {
+        active.incrementAndGet();
+        Timer.builder("quartz.trigger.lag").description("actual - scheduled fire time")
+                .tag("job", jobTag(context.getJobDetail().getKey())).publishPercentileHistogram().register(registry)
+                .record(lagMillis(context), TimeUnit.MILLISECONDS);
+    }
+
+    public void jobFinished(JobExecutionContext context, JobExecutionException jobException) {
+        active.decrementAndGet();
+        Outcome outcome = jobException == null ? Outcome.SUCCESS : Outcome.FAILURE;
+        String job = jobTag(context.getJobDetail().getKey());
+        Timer.builder("quartz.job.run").tag("job", job).tag("result", outcome.name().toLowerCase())
+                .publishPercentileHistogram().register(registry)
+                .record(context.getJobRunTime(), TimeUnit.MILLISECONDS);
+        add(new Fire(context.getJobDetail().getKey().toString(), context.getTrigger().getKey().toString(),
+                instant(context.getScheduledFireTime()), instant(context.getFireTime()), lagMillis(context),
+                context.getJobRunTime(), outcome, jobException == null ? null : jobException.getMessage()));
+    }
+
+    public void jobVetoed(JobExecutionContext context) {
+        Counter.builder("quartz.job.vetoed").tag("job", jobTag(context.getJobDetail().getKey())).register(registry)
+                .increment();
+        add(new Fire(context.getJobDetail().getKey().toString(), context.getTrigger().getKey().toString(),
+                instant(context.getScheduledFireTime()), instant(context.getFireTime()), lagMillis(context), -1,
+                Outcome.VETOED, null));
+    }
+
+    // misfire 처리 전에 호출되므로 trigger 의 next fire time 이 놓친 시각
+    public void triggerMisfired(Trigger trigger) {
+        Counter.builder("quartz.trigger.misfired").tag("job", jobTag(trigger.getJobKey())).register(registry)
+                .increment();
+        Date missed = trigger.getNextFireTime();
+        long now = System.currentTimeMillis();
+        add(new Fire(trigger.getJobKey().toString(), trigger.getKey().toString(), instant(missed),
+                Instant.ofEpochMilli(now), missed == null ? -1 : now - missed.getTime(), -1, Outcome.MISFIRED, null));
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * 최근 fire 이력 (최신순). job 이 있으면 그 job 이름(slot 포함 key 또는 slot 을 뺀 이름)만, outcome 이 있으면 그 결과만
+     */
+    public List<Fire> history(String job, Outcome outcome, int limit) {
+        List<Fire> result = new ArrayList<>(Math.min(Math.max(limit, 0), historySize));
+        synchronized (history) {
+            Iterator<Fire> it = history.descendingIterator();
+            while (it.hasNext() && result.size() < limit) {
+                Fire fire = it.next();
+                if ((job == null || matches(fire.job(), job)) && (outcome == null || fire.outcome() == outcome)) {
+                    result.add(fire);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void add(Fire fire) {
+        synchronized (history) {
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(fire);
+        }
+    }
+
+    private static boolean matches(String jobKey, String job) {
+        String name = jobKey.substring(jobKey.indexOf('.') + 1);
+        return jobKey.equals(job) || name.equals(job) || jobTag(name).equals(job);
+    }
+
+    private static long lagMillis(JobExecutionContext context) {
+        Date scheduled = context.getScheduledFireTime();
+        return scheduled == null ? 0 : Math.max(0, context.getFireTime().getTime() - scheduled.getTime());
+    }
+
+    private static Instant instant(Date date) {
+        return date == null ? null : date.toInstant();
+    }
+
+    static String jobTag(JobKey key) {
+        return jobTag(key.getName());
+    }
+
+    // simpleJob#3 -> simpleJob
+    static String jobTag(String name) {
+        int hash = name.lastIndexOf('#');
+        return hash < 0 ? name : name.substring(0, hash);
+    }
+}
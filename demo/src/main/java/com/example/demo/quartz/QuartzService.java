@@ -1,6 +1,7 @@
 package com.example.demo.quartz;
 
 import java.util.Map;
+import java.util.Set;
 
 import org.quartz.CronScheduleBuilder;
 import org.quartz.CronTrigger;
@@ -14,9 +15,11 @@ import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.TriggerBuilder;
+import org.quartz.impl.matchers.GroupMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 import org.springframework.stereotype.Service;
@@ -30,17 +33,47 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class QuartzService {
     private final Scheduler scheduler;
+    private final QuartzMetrics quartzMetrics;
     public static final String JOB_NANE = "JOB_NAME";
+    // 클러스터 모드 slot job : 이 job 이 맡은 slot 번호와 전체 slot 수
+    public static final String SLOT = "SLOT";
+    public static final String SLOTS = "SLOTS";
+    private static final String SLOT_GROUP = "ingest-slots";
+
+    // InputDirectoryWatcher 가 켜져 있으면 입력 디렉토리 polling job 은 등록하지 않음 (클러스터 모드의 slot job 포함)
+    @Value("${ingest.watcher.enabled:false}")
+    private boolean watcherEnabled;
+
+    @Value("${quartz.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${quartz.cluster.slots:8}")
+    private int clusterSlots;
 
     @PostConstruct
     public void init() {
         try {
-            scheduler.clear();
-            scheduler.getListenerManager().addJobListener(new QuartzJobListener());
-            scheduler.getListenerManager().addTriggerListener(new QuartzTriggerListener());
+            // 클러스터 모드에서는 다른 노드의 job/trigger 도 지워지므로 clear 하지 않음
+            if (!clusterEnabled) {
+                scheduler.clear();
+            }
+            scheduler.getListenerManager().addJobListener(new QuartzJobListener(quartzMetrics));
+            scheduler.getListenerManager().addTriggerListener(new QuartzTriggerListener(quartzMetrics));
+            quartzMetrics.setThreadPoolSize(scheduler.getMetaData().getThreadPoolSize());
 
             //addJob(QuartzJob.class, "importUserJob", "importUserJob1 입니다", null , "0/10 * * * * ?");
-            addJob(QuartzJob.class, "simpleJob", "simpleJob 입니다", null , "0/20 * * * * ?");
+            if (watcherEnabled && clusterEnabled) {
+                // 노드마다 watcher 가 dispatch 하고 노드 간 중복은 FileClaimRegistry(ingest.claim.enabled) 로만 막음
+                log.warn("quartz.cluster.enabled=true but ingest.watcher.enabled=true : slot jobs are not registered,"
+                        + " set ingest.watcher.enabled=false to split input by quartz slots");
+            }
+            if (!watcherEnabled) {
+                if (clusterEnabled) {
+                    addSlotJobs(QuartzJob.class, "simpleJob", "simpleJob 입니다", clusterSlots, "0/20 * * * * ?");
+                } else {
+                    addJob(QuartzJob.class, "simpleJob", "simpleJob 입니다", null , "0/20 * * * * ?");
+                }
+            }
             //addJob(QuartzJob.class, "importUserJob", "importUserJob3 입니다", null , "0/10 * * * * ?");
             //addJob(QuartzJob.class, "exampleJob", "exampleJob 입니다", null , "0/30 * * * * ?");
 
@@ -60,6 +93,44 @@ public class QuartzService {
     }
 
 
+    /**
+     * 클러스터 모드용. 입력 파일을 slots 개로 나눠 slot 마다 job 하나를 등록한다 (모든 노드가 같은 정의로 덮어씀).
+     * slot 수가 줄었으면 남는 slot job 은 지운다.
+     */
+    public void addSlotJobs(Class<? extends Job> job, String name, String desc, int slots, String cron) throws SchedulerException {
+        for (JobKey key : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(SLOT_GROUP))) {
+            if (key.getName().startsWith(name + "#") && slotIndex(key.getName()) >= slots) {
+                scheduler.deleteJob(key);
+            }
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            JobDataMap jobDataMap = new JobDataMap();
+            jobDataMap.put(JOB_NANE, name);
+            jobDataMap.put(SLOT, slot);
+            jobDataMap.put(SLOTS, slots);
+            JobDetail jobDetail = JobBuilder
+                    .newJob(job)
+                    .withIdentity(name + "#" + slot, SLOT_GROUP)
+                    .withDescription(desc + " (slot " + slot + "/" + slots + ")")
+                    .usingJobData(jobDataMap)
+                    .requestRecovery()
+                    .build();
+            Trigger trigger = TriggerBuilder.newTrigger()
+                    .withIdentity(name + "#" + slot, SLOT_GROUP)
+                    .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionDoNothing())
+                    .build();
+            scheduler.scheduleJob(jobDetail, Set.of(trigger), true);
+        }
+    }
+
+    private static int slotIndex(String jobName) {
+        try {
+            return Integer.parseInt(jobName.substring(jobName.lastIndexOf('#') + 1));
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
     //JobDetail 생성
     public <T extends Job> JobDetail buildJobDetail(Class<? extends Job> job, String name, String desc, Map paramsMap) {
         JobDataMap jobDataMap = new JobDataMap();
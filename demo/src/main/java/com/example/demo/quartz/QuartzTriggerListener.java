@@ -2,17 +2,20 @@ package com.example.demo.quartz;
 
 import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
-import org.quartz.JobListener;
 import org.quartz.Trigger;
 import org.quartz.TriggerListener;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class QuartzTriggerListener implements TriggerListener {
+
+    private final QuartzMetrics metrics;
+
+    public QuartzTriggerListener(QuartzMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public String getName() {
         return this.getClass().getName();
@@ -20,7 +23,7 @@ public class QuartzTriggerListener implements TriggerListener {
 
     @Override
     public void triggerFired(Trigger trigger, JobExecutionContext context) {
-        log.info("Trigger 실행");
+        log.debug("Trigger 실행 : {}", trigger.getKey());
     }
 
     /**
@@ -28,7 +31,7 @@ public class QuartzTriggerListener implements TriggerListener {
      */
     @Override
     public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
-        log.info("Trigger 상태 체크");
+        log.debug("Trigger 상태 체크 : {}", trigger.getKey());
         JobDataMap map = context.getJobDetail().getJobDataMap();
 
         int executeCount =  1;
@@ -40,12 +43,14 @@ public class QuartzTriggerListener implements TriggerListener {
 
     @Override
     public void triggerMisfired(Trigger trigger) {
-
+        // 스레드가 모자라 misfireThreshold 넘게 밀린 경우
+        log.warn("Trigger misfire : {}, 예정 시각 {}", trigger.getKey(), trigger.getNextFireTime());
+        metrics.triggerMisfired(trigger);
     }
 
     @Override
     public void triggerComplete(Trigger trigger, JobExecutionContext context, Trigger.CompletedExecutionInstruction triggerInstructionCode) {
-        log.info("Trigger 성공");
+        log.debug("Trigger 성공 : {}", trigger.getKey());
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.example.demo.quartz.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.io.ClassPathResource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * quartz 클러스터 모드 (JDBC job store) 설정.
+ * <p>
+ * 모든 노드가 같은 DB 의 QRTZ_ 테이블을 공유하고, trigger 하나는 클러스터 전체에서 한 노드에서만 fire 된다.
+ * 입력 파일은 파일명 hash 로 slot 에 나누고, slot 마다 job 을 하나씩 두어 노드들이 slot 을 나눠 가진다
+ * ({@link #slotOf(String, int)}). 같은 slot job 은 @DisallowConcurrentExecution 으로 동시에 한 노드에서만 실행된다.
+ */
+@Slf4j
+public final class QuartzClusterSupport {
+
+   private static final String SCHEMA_SCRIPT = "org/quartz/impl/jdbcjobstore/tables_postgres.sql";
+
+   // pg_advisory_xact_lock 키 (QRTZ 스키마 생성 전용)
+   private static final long SCHEMA_LOCK_KEY = 0x5152545aL;
+
+   private QuartzClusterSupport() {
+   }
+
+   /**
+    * base 설정(quartz.properties)에 클러스터 설정을 덮어쓴다.
+    * job store class 는 지정하지 않아 SchedulerFactoryBean 이 스프링 DataSource/트랜잭션을 쓰는
+    * LocalDataSourceJobStore 를 쓰도록 한다.
+    */
+   public static Properties clusterProperties(Properties base, String driverDelegateClass, long checkinIntervalMillis) {
+      Properties properties = new Properties();
+      if (base != null) {
+         properties.putAll(base);
+      }
+      properties.remove("org.quartz.jobStore.class");
+      properties.setProperty("org.quartz.scheduler.instanceId",
+            properties.getProperty("org.quartz.scheduler.instanceId", "AUTO").trim());
+      properties.setProperty("org.quartz.jobStore.isClustered", "true");
+      properties.setProperty("org.quartz.jobStore.clusterCheckinInterval", String.valueOf(checkinIntervalMillis));
+      properties.setProperty("org.quartz.jobStore.driverDelegateClass", driverDelegateClass);
+      properties.setProperty("org.quartz.jobStore.tablePrefix", "QRTZ_");
+      properties.setProperty("org.quartz.jobStore.useProperties", "false");
+      // 노드 간 trigger 획득을 DB lock 으로 직렬화
+      properties.setProperty("org.quartz.jobStore.acquireTriggersWithinLock", "true");
+      return properties;
+   }
+
+   /**
+    * QRTZ_ 테이블 중 없는 것만 quartz 배포본의 postgres 스크립트로 만든다.
+    * <p>
+    * 스크립트는 DROP TABLE 로 시작하므로 CREATE TABLE / CREATE INDEX 문만 IF NOT EXISTS 로 바꿔 실행한다
+    * (기존 테이블과 job/trigger 는 건드리지 않음). 테이블 존재 여부는 DatabaseMetaData 로 확인하고,
+    * 여러 노드가 동시에 기동해도 한 노드만 만들도록 PostgreSQL 이면 advisory lock 을 잡은 트랜잭션 안에서 다시 확인 후 실행한다.
+    */
+   public static synchronized void initializeSchema(DataSource dataSource) {
+      List<String> statements = createStatements();
+      Set<String> tables = tableNames(statements);
+      try (Connection connection = dataSource.getConnection()) {
+         if (missingTables(connection, tables).isEmpty()) {
+            return;
+         }
+         boolean autoCommit = connection.getAutoCommit();
+         connection.setAutoCommit(false);
+         try (Statement statement = connection.createStatement()) {
+            lock(connection);
+            Set<String> missing = missingTables(connection, tables);
+            if (!missing.isEmpty()) {
+               log.info("quartz tables {} not found, creating from {}", missing, SCHEMA_SCRIPT);
+               for (String sql : statements) {
+                  statement.execute(sql);
+               }
+            }
+            connection.commit();
+         } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+         } finally {
+            connection.setAutoCommit(autoCommit);
+         }
+      } catch (SQLException e) {
+         throw new IllegalStateException("Failed to initialize quartz tables", e);
+      }
+   }
+
+   // 트랜잭션이 끝날 때 풀리는 lock. PostgreSQL 이 아니면 같은 JVM 안에서만 직렬화 (synchronized)
+   private static void lock(Connection connection) throws SQLException {
+      if ("PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+         try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT pg_advisory_xact_lock(" + SCHEMA_LOCK_KEY + ")");
+         }
+      }
+   }
+
+   // 대소문자 구분 없이 비교 (PostgreSQL 은 소문자, H2 는 대문자로 저장)
+   private static Set<String> missingTables(Connection connection, Set<String> tables) throws SQLException {
+      Set<String> missing = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+      missing.addAll(tables);
+      try (ResultSet rs = connection.getMetaData().getTables(null, null, "%", new String[] { "TABLE" })) {
+         while (rs.next() && !missing.isEmpty()) {
+            missing.remove(rs.getString("TABLE_NAME"));
+         }
+      }
+      return missing;
+   }
+
+   // 스크립트의 CREATE 문만 (IF NOT EXISTS), DROP / COMMIT 은 버림. 스크립트는 -- 주석과 ; 로 끝나는 문장뿐
+   private static List<String> createStatements() {
+      StringBuilder script = new StringBuilder();
+      try {
+         for (String line : new ClassPathResource(SCHEMA_SCRIPT).getContentAsString(StandardCharsets.UTF_8)
+               .split("\\R")) {
+            if (!line.trim().startsWith("--")) {
+               script.append(line).append('\n');
+            }
+         }
+      } catch (IOException e) {
+         throw new IllegalStateException("Cannot read " + SCHEMA_SCRIPT, e);
+      }
+      List<String> creates = new ArrayList<>();
+      for (String sql : script.toString().split(";")) {
+         sql = sql.trim();
+         String head = sql.toUpperCase();
+         if (head.startsWith("CREATE TABLE ")) {
+            creates.add("CREATE TABLE IF NOT EXISTS " + sql.substring("CREATE TABLE ".length()));
+         } else if (head.startsWith("CREATE INDEX ")) {
+            creates.add("CREATE INDEX IF NOT EXISTS " + sql.substring("CREATE INDEX ".length()));
+         }
+      }
+      return creates;
+   }
+
+   private static Set<String> tableNames(List<String> statements) {
+      Set<String> tables = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+      for (String sql : statements) {
+         if (sql.startsWith("CREATE TABLE IF NOT EXISTS ")) {
+            tables.add(sql.substring("CREATE TABLE IF NOT EXISTS ".length()).trim().split("[\\s(]+")[0]);
+         }
+      }
+      return tables;
+   }
+
+   // 파일이 속한 slot (0 ~ slots-1)
+   public static int slotOf(String fileName, int slots) {
+      return slots <= 1 ? 0 : Math.floorMod(fileName.hashCode(), slots);
+   }
+}
@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.PropertiesFactoryBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.SmartLifecycle;
@@ -41,6 +42,16 @@ public class QuartzConfig {
    @Autowired
    private ApplicationContext applicationContext;
    
+   // true 면 QRTZ_ 테이블(JDBC job store)을 공유하는 클러스터 모드, false 면 quartz.properties 의 RAMJobStore
+   @Value("${quartz.cluster.enabled:false}")
+   private boolean clusterEnabled;
+   
+   @Value("${quartz.cluster.checkin-interval-ms:7500}")
+   private long clusterCheckinIntervalMillis;
+   
+   @Value("${quartz.cluster.driver-delegate:org.quartz.impl.jdbcjobstore.PostgreSQLDelegate}")
+   private String clusterDriverDelegate;
+   
    @Bean
    public SchedulerFactoryBean schedulerFactory() throws SchedulerException {
        logger.info("SchedulerFactoryBean created!");
@@ -52,7 +63,20 @@ public class QuartzConfig {
        schedulerFactoryBean.setDataSource(dataSource);
        schedulerFactoryBean.setOverwriteExistingJobs(true);
        schedulerFactoryBean.setAutoStartup(true);
-       schedulerFactoryBean.setQuartzProperties(quartzProperties());
+       if (clusterEnabled) {
+          QuartzClusterSupport.initializeSchema(dataSource);
+          schedulerFactoryBean.setQuartzProperties(
+                QuartzClusterSupport.clusterProperties(quartzProperties(), clusterDriverDelegate, clusterCheckinIntervalMillis));
+          logger.info("Quartz cluster mode : JDBC job store, checkin interval {} ms", clusterCheckinIntervalMillis);
+       } else {
+          // DataSource 를 넘기면 SchedulerFactoryBean 은 job store class 가 없을 때 JDBC job store 를 쓰므로 명시
+          Properties properties = new Properties();
+          if (quartzProperties() != null) {
+             properties.putAll(quartzProperties());
+          }
+          properties.setProperty("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
+          schedulerFactoryBean.setQuartzProperties(properties);
+       }
        
        return schedulerFactoryBean;
    }
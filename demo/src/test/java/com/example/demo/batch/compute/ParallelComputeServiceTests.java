@@ -0,0 +1,77 @@
+package com.example.demo.batch.compute;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+
+class ParallelComputeServiceTests {
+
+	private final ParallelComputeService service = new ParallelComputeService(2, 1, 4, 20);
+
+	@AfterEach
+	void destroy() throws Exception {
+		service.destroy();
+	}
+
+	@Test
+	void waitsForAllTasksAndKeepsOrder() throws Exception {
+		List<Callable<Integer>> tasks = List.of(() -> {
+			Thread.sleep(100);
+			return 1;
+		}, () -> 2, () -> 3, () -> 4, () -> 5, () -> 6);
+
+		assertEquals(List.of(1, 2, 3, 4, 5, 6), service.invokeAll(contribution(), tasks));
+		assertEquals(6L, service.snapshot().get("completed"));
+		assertEquals(0, service.snapshot().get("inFlightTasks"));
+	}
+
+	@Test
+	void stopRequestCancelsRunningTasks() throws Exception {
+		StepContribution contribution = contribution();
+		CountDownLatch interrupted = new CountDownLatch(1);
+		Callable<Void> blocking = () -> {
+			try {
+				Thread.sleep(60_000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return null;
+		};
+
+		new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				return;
+			}
+			contribution.getStepExecution().setTerminateOnly();
+		}).start();
+
+		assertThrows(JobInterruptedException.class, () -> service.invokeAll(contribution, List.of(blocking)));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void failureIsRethrown() {
+		List<Callable<Object>> tasks = List.of(() -> {
+			throw new IllegalStateException("boom");
+		});
+		assertThrows(IllegalStateException.class, () -> service.invokeAll(contribution(), tasks));
+	}
+
+	private static StepContribution contribution() {
+		return new StepContribution(new StepExecution("step", new JobExecution(1L)));
+	}
+}
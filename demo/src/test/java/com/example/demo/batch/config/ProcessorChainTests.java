@@ -0,0 +1,80 @@
+package com.example.demo.batch.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * BatchConfiguration.processor() 체인 (requireColumns -> trim -> trace) 과 trace 단계의 건수.
+ */
+class ProcessorChainTests {
+
+	@Test
+	void withoutStagesOnlyTheTraceStageRemains() throws Exception {
+		ItemProcessor<SampleData, SampleData> processor = processor(new String[0], false, "off", 1000);
+
+		assertInstanceOf(SampleDataItemProcessor.class, processor);
+		SampleData item = new SampleData(" PR....1 ", "A", "", "1.00", null, null);
+		// 복사하지 않고 그대로
+		assertSame(item, processor.process(item));
+		assertEquals(" PR....1 ", item.getC1());
+	}
+
+	@Test
+	void filtersItemsMissingRequiredColumnsAndTrimsTheRest() throws Exception {
+		ItemProcessor<SampleData, SampleData> processor = processor(new String[] { "c1", " c4" }, true, "off", 1000);
+
+		// P2 줄처럼 c4 가 없으면 걸러냄 (filter count)
+		assertNull(processor.process(new SampleData("P2....AA", "BB", null, null, null, null)));
+		assertNull(processor.process(new SampleData("PR....1", "A", "", " ", null, null)));
+
+		SampleData item = new SampleData(" PR....1 ", " A ", "", "1.00", null, null);
+		assertSame(item, processor.process(item));
+		assertEquals("PR....1", item.getC1());
+		assertEquals("A", item.getC2());
+	}
+
+	@Test
+	void sampledTraceIsRateLimitedAndCountsArePublishedAfterStep() throws Exception {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		SampleDataItemProcessor sampled = new SampleDataItemProcessor(SampleDataItemProcessor.Trace.SAMPLED, 60_000);
+		sampled.setMeterRegistry(registry);
+		SampleDataItemProcessor all = new SampleDataItemProcessor(SampleDataItemProcessor.Trace.ALL, 60_000);
+		SampleData item = new SampleData("PR....1", "A", "", "1.00", null, null);
+		for (int i = 0; i < 100; i++) {
+			sampled.process(item);
+			all.process(item);
+		}
+
+		// interval 안에서는 첫 건만
+		assertEquals(100, sampled.getProcessedCount());
+		assertEquals(1, sampled.getTracedCount());
+		assertEquals(100, all.getTracedCount());
+
+		sampled.afterStep(new StepExecution("step1:partition0", new JobExecution(1L)));
+		assertEquals(100, registry.get("batch.processor.items").tags("kind", "processed", "step", "step1")
+				.counter().count());
+		assertEquals(1, registry.get("batch.processor.items").tags("kind", "traced", "trace", "sampled")
+				.counter().count());
+	}
+
+	private static ItemProcessor<SampleData, SampleData> processor(String[] requiredColumns, boolean trim,
+			String trace, long intervalMillis) {
+		BatchConfiguration config = new BatchConfiguration(null);
+		ReflectionTestUtils.setField(config, "processorRequiredColumns", requiredColumns);
+		ReflectionTestUtils.setField(config, "processorTrim", trim);
+		ReflectionTestUtils.setField(config, "processorTrace", trace);
+		ReflectionTestUtils.setField(config, "processorTraceIntervalMillis", intervalMillis);
+		return config.processor();
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.demo.batch.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * input/sample1.txt 전체를 step1 의 두 reader(flatfile, mapped) 로 읽는다.
+ * 헤더 2줄을 뺀 PR* / P2* 줄이 37074 건이고, 그 중 4550 줄은 c4 가 "13.70PR...." 처럼 숫자가 아니다.
+ */
+class SampleFileReadTests {
+
+	private static final int RECORDS = 37_074;
+
+	private static final int BAD_PRICES = 4_550;
+
+	@Test
+	void readsEverySampleRecordWithDefaultSchema() throws Exception {
+		for (String mode : new String[] { "flatfile", "mapped" }) {
+			List<SampleData> items = new ArrayList<>();
+			assertEquals(0, read(mode, "", items), mode);
+
+			assertEquals(RECORDS, items.size(), mode);
+			assertEquals("124.60", items.get(0).getC4(), mode);
+			assertEquals("AA", items.get(1).getC1().substring(6), mode);
+			// 지저분한 값도 문자열 그대로
+			assertEquals(1, items.stream().filter(sd -> "13.70PR....".equals(sd.getC4())).limit(1).count(), mode);
+		}
+	}
+
+	@Test
+	void typedColumnErrorsAreParseExceptionsThatCanBeSkipped() throws Exception {
+		for (String mode : new String[] { "flatfile", "mapped" }) {
+			List<SampleData> items = new ArrayList<>();
+			assertEquals(BAD_PRICES, read(mode, "c4:decimal(2)", items), mode);
+
+			assertEquals(RECORDS - BAD_PRICES, items.size(), mode);
+			assertEquals(new BigDecimal("124.60"), items.get(0).getValue(3), mode);
+		}
+	}
+
+	// FlatFileParseException 수 (step1 의 skip 대상)
+	private static int read(String readerMode, String recordTypes, List<SampleData> items) throws Exception {
+		BatchConfiguration config = new BatchConfiguration(null);
+		ReflectionTestUtils.setField(config, "readerMode", readerMode);
+		ReflectionTestUtils.setField(config, "recordTypes", recordTypes);
+
+		ResourceAwareItemReaderItemStream<SampleData> reader = config
+				.productItemReader(new ClassPathResource("input/sample1.txt"), true);
+		int errors = 0;
+		reader.open(new ExecutionContext());
+		try {
+			while (true) {
+				try {
+					SampleData item = reader.read();
+					if (item == null) {
+						return errors;
+					}
+					items.add(item);
+				} catch (FlatFileParseException e) {
+					errors++;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.demo.batch.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BatchMetricsListenerTests {
+
+	@Test
+	void recordsChunkPhasesAndCountsWithStepTags() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		BatchMetricsListener<String, String> listener = new BatchMetricsListener<>(registry, true);
+
+		StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution("step1:partition3", 1L);
+		stepExecution.getExecutionContext().putString("fileName", "file:/input/P2_0001.TXT");
+		stepExecution.setStartTime(LocalDateTime.now());
+		ChunkContext chunk = new ChunkContext(new StepContext(stepExecution));
+
+		listener.beforeStep(stepExecution);
+		for (int c = 0; c < 2; c++) {
+			listener.beforeChunk(chunk);
+			for (int i = 0; i < 3; i++) {
+				listener.beforeRead();
+				listener.afterRead("a");
+				listener.beforeProcess("a");
+				listener.afterProcess("a", i == 0 ? null : "a");
+			}
+			listener.beforeWrite(new Chunk<>("a", "a"));
+			Thread.sleep(2);
+			listener.afterWrite(new Chunk<>("a", "a"));
+			stepExecution.setReadCount(stepExecution.getReadCount() + 3);
+			stepExecution.setFilterCount(stepExecution.getFilterCount() + 1);
+			stepExecution.setWriteCount(stepExecution.getWriteCount() + 2);
+			listener.afterChunk(chunk);
+		}
+		stepExecution.setStatus(BatchStatus.COMPLETED);
+		listener.afterStep(stepExecution);
+
+		Timer chunkTimer = registry.get("batch.chunk").tag("job", "job").tag("step", "step1")
+				.tag("partition", "partition3").tag("file.type", "txt").timer();
+		assertEquals(2, chunkTimer.count());
+		assertTrue(registry.get("batch.chunk.write").tag("partition", "partition3").timer()
+				.totalTime(TimeUnit.MILLISECONDS) >= 4);
+		assertEquals(6, registry.get("batch.items").tag("kind", "read").counter().count());
+		assertEquals(4, registry.get("batch.items").tag("kind", "write").counter().count());
+		assertEquals(2, registry.get("batch.items").tag("kind", "filter").counter().count());
+		assertEquals(3, registry.get("batch.chunk.size").summary().mean());
+		assertEquals(1, registry.get("batch.step").tag("status", "COMPLETED").timer().count());
+		assertEquals(6, registry.get("batch.partition.items").tag("partition", "all").summary().totalAmount());
+	}
+
+	@Test
+	void oneListenerKeepsPartitionsOnDifferentThreadsApart() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		// meter 이름 + partition 태그 -> percentile histogram 여부
+		Map<String, Boolean> histograms = new ConcurrentHashMap<>();
+		registry.config().meterFilter(new MeterFilter() {
+			@Override
+			public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+				histograms.put(id.getName() + "/" + id.getTag("partition"),
+						Boolean.TRUE.equals(config.isPercentileHistogram()));
+				return config;
+			}
+		});
+		BatchMetricsListener<String, String> listener = new BatchMetricsListener<>(registry, true);
+		CyclicBarrier barrier = new CyclicBarrier(2);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int p = 0; p < 2; p++) {
+				int items = p == 0 ? 3 : 5;
+				StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution("step1:partition" + p, 10L + p);
+				futures.add(executor.submit(() -> {
+					ChunkContext chunk = new ChunkContext(new StepContext(stepExecution));
+					listener.beforeStep(stepExecution);
+					listener.beforeChunk(chunk);
+					// 두 partition 의 item 콜백이 섞여서 들어옴
+					barrier.await();
+					for (int i = 0; i < items; i++) {
+						listener.beforeRead();
+						listener.afterRead("a");
+					}
+					barrier.await();
+					stepExecution.setReadCount(items);
+					listener.afterChunk(chunk);
+					listener.afterStep(stepExecution);
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(3, registry.get("batch.items").tag("partition", "partition0").tag("kind", "read").counter()
+				.count());
+		assertEquals(5, registry.get("batch.items").tag("partition", "partition1").tag("kind", "read").counter()
+				.count());
+		// partition 태그가 있는 meter 는 histogram 없음, partition 을 모은 meter 만 histogram
+		assertEquals(Boolean.FALSE, histograms.get("batch.chunk/partition0"));
+		assertEquals(Boolean.FALSE, histograms.get("batch.chunk.size/partition1"));
+		assertEquals(Boolean.TRUE, histograms.get("batch.partition.items/all"));
+	}
+
+	@Test
+	void fileTypeFromUrl() {
+		assertEquals("csv", BatchMetricsListener.fileType("file:/in/a.b/sample.csv"));
+		assertEquals("none", BatchMetricsListener.fileType("file:/in/a.b/noext"));
+		assertEquals("none", BatchMetricsListener.fileType(null));
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.demo.batch.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.batch.config.SampleData;
+
+class RecordSchemaTests {
+
+	@Test
+	void parsesDeclaredColumnsOnceAndKeepsStringView() {
+		RecordSchema schema = SampleData.SCHEMA.withTypes("c4:decimal(2), c5:long, c6:date");
+		assertEquals("c1:string,c2:string,c3:string,c4:decimal(2),c5:long,c6:date", schema.toString());
+		assertEquals(3, schema.stringCount());
+		assertEquals(3, schema.longCount());
+
+		SampleData sd = new SampleData(schema);
+		sd.setC1("PR....210");
+		sd.setC3("");
+		sd.setC4("124.6");
+		sd.setC5(" -42 ");
+		sd.setC6("20240229");
+
+		assertEquals(12460, sd.getLong(3));
+		assertEquals("124.60", sd.getC4());
+		assertEquals(new BigDecimal("124.60"), sd.getValue(3));
+		assertEquals(-42L, sd.getValue(4));
+		assertEquals(LocalDate.of(2024, 2, 29), sd.getValue(5));
+		assertEquals("", sd.getC3());
+		assertNull(sd.getC2());
+
+		sd.setC4("");
+		assertTrue(sd.isNull(3));
+		assertNull(sd.getValue(3));
+		sd.setC4("0.125");
+		assertFalse(sd.isNull(3));
+		assertEquals("0.13", sd.getC4()); // 반올림
+	}
+
+	@Test
+	void decimalParsesFromBytesAndRejectsGarbage() {
+		byte[] line = "PR....210,BlackBerry,,124.60".getBytes(StandardCharsets.US_ASCII);
+		assertEquals(12460, ColumnType.DECIMAL.parse(line, 22, 6, 2));
+		assertEquals(-5, ColumnType.DECIMAL.parse("-0.05", 2));
+		assertEquals(7, ColumnType.LONG.parse("+7", 0));
+
+		assertThrows(NumberFormatException.class, () -> ColumnType.DECIMAL.parse("PRICE", 2));
+		assertThrows(NumberFormatException.class, () -> ColumnType.DECIMAL.parse("1.2.3", 2));
+		assertThrows(ArithmeticException.class, () -> ColumnType.LONG.parse("99999999999999999999", 0));
+		// LONG 은 반올림하지 않음
+		assertThrows(NumberFormatException.class, () -> ColumnType.LONG.parse("12.7", 0));
+		assertThrows(NumberFormatException.class, () -> ColumnType.LONG.parse(line, 22, 6, 0));
+		assertEquals(12, ColumnType.LONG.parse(" 12 ", 0));
+		assertThrows(IllegalArgumentException.class, () -> SampleData.SCHEMA.withTypes("c9:long"));
+	}
+}
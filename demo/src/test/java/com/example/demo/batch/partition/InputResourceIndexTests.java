@@ -0,0 +1,84 @@
+package com.example.demo.batch.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+class InputResourceIndexTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void scansOnceUntilInvalidatedAndHandsOutCopies() throws IOException {
+		Files.writeString(dir.resolve("a.csv"), "Jill,Doe\n");
+		Files.writeString(dir.resolve("b.txt"), "PR....1,name,,1.00\n");
+
+		AtomicInteger scans = new AtomicInteger();
+		PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver() {
+			@Override
+			public Resource[] getResources(String locationPattern) throws IOException {
+				// 패턴 해석 중 root 디렉토리 조회도 여기로 들어옴
+				if (locationPattern.endsWith("*.*")) {
+					scans.incrementAndGet();
+				}
+				return super.getResources(locationPattern);
+			}
+		};
+		InputResourceIndex index = new InputResourceIndex(resolver, dir.toUri() + "*.*", 60_000);
+
+		Map<String, ExecutionContext> first = new IndexedPartitioner(index, 1024).partition(4);
+		Map<String, ExecutionContext> second = new IndexedPartitioner(index, 1024).partition(4);
+		assertEquals(1, scans.get());
+		assertEquals(2, first.size());
+		assertEquals(first, second);
+		// step 이 바꿔도 캐시된 계획에는 영향 없음
+		ExecutionContext context = first.values().iterator().next();
+		assertNotSame(context, second.get(first.keySet().iterator().next()));
+		context.putString("extra", "x");
+		assertEquals(2, index.entries().size());
+
+		assertEquals(1, scans.get());
+		index.invalidate();
+		assertEquals(2, index.entries().size());
+		assertEquals(2, scans.get());
+		assertEquals("csv", index.entries().stream().filter(e -> e.size() == 9).findFirst().orElseThrow().type());
+	}
+
+	@Test
+	void rescansBeforeTtlWhenFilesChange() throws IOException {
+		Files.writeString(dir.resolve("a.csv"), "Jill,Doe\n");
+		InputResourceIndex index = new InputResourceIndex(new PathMatchingResourcePatternResolver(),
+				dir.toUri() + "*.*", 60_000);
+		assertEquals(1, index.plan(4, 1).size());
+
+		// 파일이 커지면 이전 byte range 계획을 쓰지 않음 (quartz 폴링 모드는 invalidate 를 부르지 않음)
+		Files.writeString(dir.resolve("a.csv"), "Jill,Doe\nJoe,Doe\n");
+		Map<String, ExecutionContext> grown = index.plan(4, 1);
+		assertEquals(17, index.entries().get(0).size());
+		assertEquals(2, grown.size(), grown.toString());
+		assertEquals(17, grown.values().stream().mapToLong(c -> c.getLong(SizeAwarePartitioner.END_OFFSET)).max()
+				.orElseThrow());
+
+		// 새 파일은 디렉토리 수정시간으로 감지 (파일시스템 시간 해상도와 무관하게 시간을 밀어 둠)
+		Files.writeString(dir.resolve("b.csv"), "Jane,Doe\n");
+		Files.setLastModifiedTime(dir, FileTime.fromMillis(Files.getLastModifiedTime(dir).toMillis() + 1_000));
+		assertEquals(2, index.entries().size());
+
+		Files.delete(dir.resolve("b.csv"));
+		Files.setLastModifiedTime(dir, FileTime.fromMillis(Files.getLastModifiedTime(dir).toMillis() + 2_000));
+		assertEquals(1, index.entries().size());
+	}
+}
@@ -0,0 +1,264 @@
+package com.example.demo.batch.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.partition.support.SimplePartitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class JdbcQueuePartitionHandlerTests {
+
+	private DriverManagerDataSource dataSource;
+
+	private DataSourceTransactionManager transactionManager;
+
+	private JobRepository jobRepository;
+
+	private JobExplorer jobExplorer;
+
+	private JdbcPartitionQueue queue;
+
+	private JdbcQueuePartitionWorker worker1;
+
+	private JdbcQueuePartitionWorker worker2;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:remote;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+				new ClassPathResource("org/springframework/batch/core/schema-drop-h2.sql"),
+				new ClassPathResource("org/springframework/batch/core/schema-h2.sql"));
+		populator.setContinueOnError(true);
+		populator.execute(dataSource);
+		new JdbcTemplate(dataSource).execute("DROP TABLE IF EXISTS partition_request_queue");
+		transactionManager = new DataSourceTransactionManager(dataSource);
+
+		JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+		repositoryFactory.setDataSource(dataSource);
+		repositoryFactory.setTransactionManager(transactionManager);
+		repositoryFactory.afterPropertiesSet();
+		jobRepository = repositoryFactory.getObject();
+
+		JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+		explorerFactory.setDataSource(dataSource);
+		explorerFactory.setTransactionManager(transactionManager);
+		explorerFactory.afterPropertiesSet();
+		jobExplorer = explorerFactory.getObject();
+
+		queue = new JdbcPartitionQueue(new JdbcTemplate(dataSource), transactionManager);
+		queue.setLockClause("FOR UPDATE"); // H2 2.1 은 SKIP LOCKED 미지원
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (worker1 != null) {
+			worker1.stop();
+		}
+		if (worker2 != null) {
+			worker2.stop();
+		}
+	}
+
+	@Test
+	void workersRunEachPartitionOnceAndManagerCompletes() throws Exception {
+		Map<String, String> ranBy = new ConcurrentHashMap<>();
+		AtomicInteger runs = new AtomicInteger();
+		Step worker = new StepBuilder("worker", jobRepository).tasklet((contribution, chunkContext) -> {
+			runs.incrementAndGet();
+			ranBy.put(chunkContext.getStepContext().getStepName(), Thread.currentThread().getName());
+			return RepeatStatus.FINISHED;
+		}, transactionManager).build();
+
+		worker1 = new JdbcQueuePartitionWorker(queue, jobExplorer, name -> worker, "w1", 2, 50);
+		worker2 = new JdbcQueuePartitionWorker(queue, jobExplorer, name -> worker, "w2", 2, 50);
+		worker1.start();
+		worker2.start();
+
+		JdbcQueuePartitionHandler handler = new JdbcQueuePartitionHandler(queue, jobExplorer, "worker");
+		handler.setGridSize(6);
+		handler.setPollMillis(50);
+		handler.setTimeoutMillis(30_000);
+		Step manager = new StepBuilder("manager", jobRepository)
+				.partitioner("worker", new SimplePartitioner())
+				.partitionHandler(handler)
+				.build();
+
+		TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+		launcher.setJobRepository(jobRepository);
+		launcher.afterPropertiesSet();
+		JobExecution execution = launcher.run(new JobBuilder("remoteJob", jobRepository).start(manager).build(),
+				new JobParametersBuilder().addLong("run", System.nanoTime()).toJobParameters());
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		assertEquals(6, runs.get());
+		assertEquals(6, ranBy.size());
+		// manager + partition 6
+		assertEquals(7, jobExplorer.getJobExecution(execution.getId()).getStepExecutions().size());
+		assertEquals(0, new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM partition_request_queue",
+				Integer.class));
+	}
+
+	@Test
+	void managerReadsOnlyFinishedPartitionsFromRepository() throws Exception {
+		Step worker = new StepBuilder("worker", jobRepository).tasklet((contribution, chunkContext) -> {
+			Thread.sleep(300);
+			return RepeatStatus.FINISHED;
+		}, transactionManager).build();
+		worker1 = new JdbcQueuePartitionWorker(queue, jobExplorer, name -> worker, "w1", 3, 20);
+		worker1.start();
+
+		// manager 쪽 JobExplorer 호출 수
+		Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+		JobExplorer counting = (JobExplorer) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { JobExplorer.class }, (proxy, method, args) -> {
+					calls.computeIfAbsent(method.getName(), name -> new AtomicInteger()).incrementAndGet();
+					try {
+						return method.invoke(jobExplorer, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+		JdbcQueuePartitionHandler handler = new JdbcQueuePartitionHandler(queue, counting, "worker");
+		handler.setGridSize(3);
+		handler.setPollMillis(20);
+		handler.setTimeoutMillis(30_000);
+
+		JobExecution execution = run(handler);
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		// poll 마다가 아니라 끝난 partition 마다 한 번
+		assertEquals(3, calls.get("getStepExecution").get());
+		assertNull(calls.get("getJobExecution"));
+	}
+
+	@Test
+	void claimHandsOutEachRequestOnce() throws Exception {
+		JobExecution jobExecution = jobRepository.createJobExecution("claimJob",
+				new JobParametersBuilder().addLong("run", System.nanoTime()).toJobParameters());
+		for (int i = 0; i < 3; i++) {
+			var stepExecution = jobExecution.createStepExecution("worker:partition" + i);
+			jobRepository.add(stepExecution);
+			queue.enqueue(stepExecution, "worker");
+		}
+
+		assertEquals("worker", queue.claim("a").stepName());
+		queue.claim("b");
+		queue.claim("a");
+		assertNull(queue.claim("b"));
+	}
+
+	@Test
+	void expiredLeaseIsReclaimedAndStaleWorkerCannotFinish() throws Exception {
+		queue.setLeaseMillis(200);
+		JobExecution jobExecution = jobRepository.createJobExecution("leaseJob",
+				new JobParametersBuilder().addLong("run", System.nanoTime()).toJobParameters());
+		var stepExecution = jobExecution.createStepExecution("worker:partition0");
+		jobRepository.add(stepExecution);
+		queue.enqueue(stepExecution, "worker");
+
+		long id = queue.claim("dead").stepExecutionId();
+		assertTrue(queue.renew(id, "dead"));
+		assertNull(queue.claim("alive"));
+
+		Thread.sleep(300);
+		assertEquals(id, queue.claim("alive").stepExecutionId());
+		// 죽은 줄 알았던 worker 는 lease 를 잃고 결과도 덮어쓰지 못함
+		assertFalse(queue.renew(id, "dead"));
+		queue.finish(id, "dead", "COMPLETED");
+		assertEquals("CLAIMED", status(id));
+		queue.finish(id, "alive", "COMPLETED");
+		assertEquals("COMPLETED", status(id));
+	}
+
+	@Test
+	void timeoutCancelsRequestsNoWorkerClaimed() throws Exception {
+		JdbcQueuePartitionHandler handler = new JdbcQueuePartitionHandler(queue, jobExplorer, "worker");
+		handler.setGridSize(3);
+		handler.setPollMillis(50);
+		handler.setTimeoutMillis(300);
+
+		JobExecution execution = run(handler);
+
+		assertEquals(BatchStatus.FAILED, execution.getStatus());
+		assertEquals(0, queueSize());
+	}
+
+	@Test
+	void managerStopsWhenJobIsStopping() throws Exception {
+		JdbcQueuePartitionHandler handler = new JdbcQueuePartitionHandler(queue, jobExplorer, "worker");
+		handler.setGridSize(3);
+		handler.setPollMillis(50);
+		handler.setTimeoutMillis(30_000);
+
+		queue.initialize();
+		// JobOperator.stop 처럼 실행중인 job 을 STOPPING 으로 바꿈
+		Thread stopper = new Thread(() -> {
+			try {
+				while (jobExplorer.findRunningJobExecutions("remoteJob").isEmpty() || queueSize() < 3) {
+					Thread.sleep(20);
+				}
+				JobExecution running = jobExplorer.findRunningJobExecutions("remoteJob").iterator().next();
+				running.setStatus(BatchStatus.STOPPING);
+				jobRepository.update(running);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		stopper.start();
+		JobExecution execution = run(handler);
+		stopper.join();
+
+		assertEquals(BatchStatus.STOPPED, execution.getStatus());
+		assertEquals(0, queueSize());
+	}
+
+	private JobExecution run(JdbcQueuePartitionHandler handler) throws Exception {
+		Step manager = new StepBuilder("manager", jobRepository)
+				.partitioner("worker", new SimplePartitioner())
+				.partitionHandler(handler)
+				.build();
+		TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+		launcher.setJobRepository(jobRepository);
+		launcher.afterPropertiesSet();
+		return launcher.run(new JobBuilder("remoteJob", jobRepository).start(manager).build(),
+				new JobParametersBuilder().addLong("run", System.nanoTime()).toJobParameters());
+	}
+
+	private int queueSize() {
+		return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM partition_request_queue",
+				Integer.class);
+	}
+
+	private String status(long stepExecutionId) {
+		return new JdbcTemplate(dataSource).queryForObject(
+				"SELECT status FROM partition_request_queue WHERE step_execution_id = ?", String.class,
+				stepExecutionId);
+	}
+}
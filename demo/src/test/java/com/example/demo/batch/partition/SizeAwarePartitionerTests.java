@@ -0,0 +1,86 @@
+package com.example.demo.batch.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+class SizeAwarePartitionerTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void splitsLargeFileOnLineBoundariesAndPacksSmallFiles() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append("PR....").append(i).append(",name ").append(i).append(",,1.00\n");
+		}
+		Path large = Files.writeString(dir.resolve("large.txt"), sb.toString());
+		Path small1 = Files.writeString(dir.resolve("a.csv"), "Jill,Doe\n");
+		Path small2 = Files.writeString(dir.resolve("b.csv"), "Joe,Doe\n");
+
+		SizeAwarePartitioner partitioner = new SizeAwarePartitioner();
+		partitioner.setMinSplitBytes(1024);
+		partitioner.setResources(new Resource[] { new FileSystemResource(large), new FileSystemResource(small1),
+				new FileSystemResource(small2) });
+
+		Map<String, ExecutionContext> partitions = partitioner.partition(8);
+
+		List<ExecutionContext> ranges = new ArrayList<>();
+		ExecutionContext pack = null;
+		for (ExecutionContext context : partitions.values()) {
+			if (context.containsKey(SizeAwarePartitioner.START_OFFSET)) {
+				ranges.add(context);
+			} else {
+				pack = context;
+			}
+		}
+		assertTrue(ranges.size() > 1);
+		assertEquals(2, pack.getString(SizeAwarePartitioner.FILE_NAMES).split("\n").length);
+
+		// range 들을 이어 붙이면 원본과 같고, 각 range 는 줄 단위로 끝나야 함
+		ranges.sort(Comparator.comparingLong(c -> c.getLong(SizeAwarePartitioner.START_OFFSET)));
+		StringBuilder joined = new StringBuilder();
+		for (ExecutionContext context : ranges) {
+			ByteRangeResource resource = new ByteRangeResource(large.toFile(),
+					context.getLong(SizeAwarePartitioner.START_OFFSET), context.getLong(SizeAwarePartitioner.END_OFFSET));
+			try (InputStream in = resource.getInputStream()) {
+				String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+				assertTrue(text.endsWith("\n"));
+				joined.append(text);
+			}
+		}
+		assertEquals(sb.toString(), joined.toString());
+	}
+
+	@Test
+	void keepsSmallFileAsSinglePartition() throws IOException {
+		Path small = Files.writeString(dir.resolve("a.csv"), "Jill,Doe\n");
+
+		SizeAwarePartitioner partitioner = new SizeAwarePartitioner();
+		partitioner.setResources(new Resource[] { new FileSystemResource(small) });
+
+		Map<String, ExecutionContext> partitions = partitioner.partition(10);
+
+		assertEquals(1, partitions.size());
+		ExecutionContext context = partitions.values().iterator().next();
+		assertNull(context.get(SizeAwarePartitioner.FILE_NAMES));
+		assertNull(context.get(SizeAwarePartitioner.START_OFFSET));
+	}
+}
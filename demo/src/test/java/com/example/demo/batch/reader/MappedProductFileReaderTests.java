@@ -0,0 +1,104 @@
+package com.example.demo.batch.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import com.example.demo.batch.config.SampleData;
+import com.example.demo.batch.partition.ByteRangeResource;
+
+/**
+ * input/sample1.txt (헤더 2줄 + PR* / P2* 37074 건, 중간에 DESCRIPTION,PRICE 줄이 반복됨) 를 직접 읽는다.
+ */
+class MappedProductFileReaderTests {
+
+	private static final int RECORDS = 37_074;
+
+	@Test
+	void readsEveryRecordOfSampleFile() throws Exception {
+		List<SampleData> items = readAll(reader(new ClassPathResource("input/sample1.txt"), 2), new ExecutionContext());
+
+		assertEquals(RECORDS, items.size());
+		assertEquals("PR....210", items.get(0).getC1());
+		assertEquals("BlackBerry 8100 Pearl", items.get(0).getC2());
+		assertEquals("", items.get(0).getC3());
+		assertEquals("124.60", items.get(0).getC4());
+		// P2 줄은 2 컬럼
+		assertEquals("P2....AA", items.get(1).getC1());
+		assertEquals("BB", items.get(1).getC2());
+		assertNull(items.get(1).getC3());
+	}
+
+	@Test
+	void restartsFromOffsetSavedUnderReaderName() throws Exception {
+		Resource sample = new ClassPathResource("input/sample1.txt");
+		MappedProductFileReader first = reader(sample, 2);
+		first.setName("personItemReader");
+		ExecutionContext context = new ExecutionContext();
+		first.open(context);
+		for (int i = 0; i < 1000; i++) {
+			first.read();
+		}
+		first.update(context);
+		first.close();
+
+		MappedProductFileReader restarted = reader(sample, 2);
+		restarted.setName("personItemReader");
+		List<SampleData> rest = readAll(restarted, context);
+
+		assertEquals(RECORDS - 1000, rest.size());
+		assertEquals(1, context.size());
+		assertTrue(context.containsKey("personItemReader.offset"));
+	}
+
+	@Test
+	void byteRangesTogetherReadTheWholeFile() throws Exception {
+		File file = new ClassPathResource("input/sample1.txt").getFile();
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		// 가운데 다음 줄의 시작에서 나눔 (SizeAwarePartitioner 와 같이 줄 경계)
+		int split = bytes.length / 2;
+		while (bytes[split - 1] != '\n') {
+			split++;
+		}
+
+		List<SampleData> items = readAll(reader(new ByteRangeResource(file, 0, split), 2), new ExecutionContext());
+		items.addAll(readAll(reader(new ByteRangeResource(file, split, bytes.length), 0), new ExecutionContext()));
+
+		List<SampleData> whole = readAll(reader(new FileSystemResource(file), 2), new ExecutionContext());
+		assertEquals(RECORDS, items.size());
+		assertEquals(whole.get(RECORDS - 1).toString(), items.get(RECORDS - 1).toString());
+	}
+
+	private static MappedProductFileReader reader(Resource resource, int linesToSkip) {
+		MappedProductFileReader reader = new MappedProductFileReader();
+		reader.setResource(resource);
+		reader.setLinesToSkip(linesToSkip);
+		return reader;
+	}
+
+	private static List<SampleData> readAll(MappedProductFileReader reader, ExecutionContext context)
+			throws Exception {
+		List<SampleData> items = new ArrayList<>();
+		reader.open(context);
+		try {
+			for (SampleData item = reader.read(); item != null; item = reader.read()) {
+				items.add(item);
+			}
+			reader.update(context);
+		} finally {
+			reader.close();
+		}
+		return items;
+	}
+}
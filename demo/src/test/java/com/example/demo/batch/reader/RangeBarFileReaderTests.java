@@ -0,0 +1,107 @@
+package com.example.demo.batch.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.FileSystemResource;
+
+import com.example.demo.batch.config.SampleData;
+
+class RangeBarFileReaderTests {
+
+	private static final String RANGES = """
+			const dataSource = [
+			  {
+			    cc: '00',
+			    start: 0,
+			    end: 1,
+			    tt: '1',
+			  },
+			  // 주석
+			  { "cc": "01", start: 10, /* inline */ end: 12, tt: 'it\\'s', extra: true },
+			  { cc: '02', start: 3, end: null, tt: '2' }
+			];
+
+			$(() => {
+			  $('#chart').dxChart({ dataSource, commonSeriesSettings: { argumentField: 'cc' } });
+			});
+			""";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void streamsObjectsAndIgnoresTrailingScript() throws Exception {
+		RangeBarFileReader reader = new RangeBarFileReader();
+		reader.setResource(new FileSystemResource(Files.writeString(dir.resolve("test.txt"), RANGES)));
+		reader.open(new ExecutionContext());
+
+		SampleData first = reader.read();
+		assertEquals("00", first.getC1());
+		assertEquals(0L, first.getValue(1));
+		assertEquals(1L, first.getValue(2));
+		assertEquals("1", first.getC4());
+
+		SampleData second = reader.read();
+		assertEquals("01", second.getC1());
+		assertEquals(12, second.getLong(2));
+		assertEquals("it's", second.getC4());
+
+		SampleData third = reader.read();
+		assertTrue(third.isNull(2));
+		assertNull(reader.read());
+		reader.close();
+	}
+
+	@Test
+	void restartsAfterLastCommittedItem() throws Exception {
+		FileSystemResource resource = new FileSystemResource(Files.writeString(dir.resolve("test.txt"), RANGES));
+		RangeBarFileReader reader = new RangeBarFileReader();
+		reader.setResource(resource);
+		ExecutionContext context = new ExecutionContext();
+		reader.open(context);
+		reader.read();
+		reader.read();
+		reader.update(context);
+		reader.close();
+
+		RangeBarFileReader restarted = new RangeBarFileReader();
+		restarted.setResource(resource);
+		restarted.open(context);
+		assertEquals("02", restarted.read().getC1());
+		assertNull(restarted.read());
+		restarted.close();
+	}
+
+	@Test
+	void sniffsContentRegardlessOfExtension() throws Exception {
+		FileSystemResource ranges = new FileSystemResource(Files.writeString(dir.resolve("ranges.dat"), RANGES));
+		FileSystemResource products = new FileSystemResource(
+				Files.writeString(dir.resolve("products.txt"), "PR....,NAME,\nPR....210,BlackBerry,,124.60\n"));
+		assertTrue(RangeBarFileReader.matches(ranges));
+		assertFalse(RangeBarFileReader.matches(products));
+
+		FlatFileItemReader<SampleData> productReader = new FlatFileItemReader<>();
+		productReader.setLineMapper((line, lineNumber) -> new SampleData(line, null, null, null, null, null));
+		ContentSniffingItemReader reader = new ContentSniffingItemReader(productReader, new RangeBarFileReader());
+
+		reader.setResource(ranges);
+		reader.open(new ExecutionContext());
+		assertEquals("00", reader.read().getC1());
+		reader.close();
+
+		reader.setResource(products);
+		reader.open(new ExecutionContext());
+		assertEquals("PR....,NAME,", reader.read().getC1());
+		reader.close();
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.demo.batch.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.transform.DefaultFieldSet;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+
+import com.example.demo.batch.config.SampleData;
+
+class SetterFieldSetMapperTests {
+
+	@Test
+	void mapsFieldsByIndexLikeBeanWrapperMapper() throws Exception {
+		DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+		tokenizer.setNames("c1", "c2", "c3", "c4");
+		FieldSet fieldSet = tokenizer.tokenize("PR....1, PROD 1 ,,124.60");
+
+		SampleData mapped = new SetterFieldSetMapper<>(SampleData.class, SampleData::new, "c1", "c2", "c3", "c4")
+				.mapFieldSet(fieldSet);
+
+		BeanWrapperFieldSetMapper<SampleData> beanWrapper = new BeanWrapperFieldSetMapper<>();
+		beanWrapper.setTargetType(SampleData.class);
+		beanWrapper.afterPropertiesSet();
+		SampleData expected = beanWrapper.mapFieldSet(tokenizer.tokenize("PR....1,PROD 1,,124.60"));
+
+		// readString 이라 앞뒤 공백은 지워짐
+		assertEquals(expected.toString(), mapped.toString());
+		assertEquals("PROD 1", mapped.getC2());
+		assertEquals("", mapped.getC3());
+		assertNull(mapped.getC5());
+	}
+
+	@Test
+	void shortLinesLeaveRemainingPropertiesUnset() {
+		// P2 줄은 2 컬럼
+		SampleData mapped = new SetterFieldSetMapper<>(SampleData.class, SampleData::new, "c1", "c2", "c3", "c4")
+				.mapFieldSet(new DefaultFieldSet(new String[] { "P2....AA", "BB" }));
+
+		assertEquals("P2....AA", mapped.getC1());
+		assertEquals("BB", mapped.getC2());
+		assertNull(mapped.getC3());
+		assertNull(mapped.getC4());
+	}
+
+	@Test
+	void rejectsPropertiesWithoutStringSetter() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new SetterFieldSetMapper<>(SampleData.class, SampleData::new, "c1", "schema"));
+		assertThrows(IllegalArgumentException.class,
+				() -> new SetterFieldSetMapper<>(SampleData.class, SampleData::new, "c7"));
+	}
+}
@@ -0,0 +1,160 @@
+package com.example.demo.batch.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * chunk(10) 로 1000 건을 처리하면서 metadata 쓰기가 줄어드는지, 실패 후 재시작이 중복/누락 없이 이어지는지 확인한다.
+ * 결과 테이블은 PK 라서 재시작 위치가 앞으로 밀리면 중복키로 실패한다.
+ */
+class CoalescingJobRepositoryTests {
+
+	private static final int ITEMS = 1000;
+
+	private DriverManagerDataSource dataSource;
+
+	private DataSourceTransactionManager transactionManager;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private CoalescingJobRepository jobRepository;
+
+	private JobExplorer jobExplorer;
+
+	private volatile int failAt = -1;
+
+	static class NumberReader extends AbstractItemCountingItemStreamItemReader<Integer> {
+
+		private int next;
+
+		NumberReader() {
+			setName("numbers");
+		}
+
+		@Override
+		protected Integer doRead() {
+			return next < ITEMS ? next++ : null;
+		}
+
+		@Override
+		protected void jumpToItem(int itemIndex) {
+			next = itemIndex;
+		}
+
+		@Override
+		protected void doOpen() {
+			next = 0;
+		}
+
+		@Override
+		protected void doClose() {
+		}
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:coalescing;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+				new ClassPathResource("org/springframework/batch/core/schema-drop-h2.sql"),
+				new ClassPathResource("org/springframework/batch/core/schema-h2.sql"));
+		populator.setContinueOnError(true);
+		populator.execute(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS numbers");
+		jdbcTemplate.execute("CREATE TABLE numbers (n INT PRIMARY KEY)");
+		transactionManager = new DataSourceTransactionManager(dataSource);
+
+		JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+		repositoryFactory.setDataSource(dataSource);
+		repositoryFactory.setTransactionManager(transactionManager);
+		repositoryFactory.afterPropertiesSet();
+		// 테스트 중에는 시간으로 flush 되지 않음
+		jobRepository = new CoalescingJobRepository(repositoryFactory.getObject(), 60_000);
+
+		JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+		explorerFactory.setDataSource(dataSource);
+		explorerFactory.setTransactionManager(transactionManager);
+		explorerFactory.afterPropertiesSet();
+		jobExplorer = explorerFactory.getObject();
+	}
+
+	@Test
+	void coalescesChunkUpdatesAndWritesFinalState() throws Exception {
+		JobExecution execution = run(new JobParametersBuilder().addLong("run", 1L).toJobParameters());
+
+		assertEquals(BatchStatus.COMPLETED, execution.getStatus());
+		// chunk 101 개 x 2 회 중 시작/끝 몇 번만 씀
+		assertTrue(jobRepository.getDeferredCount() >= 190, "deferred : " + jobRepository.getDeferredCount());
+		assertTrue(jobRepository.getWrittenCount() <= 6, "written : " + jobRepository.getWrittenCount());
+
+		StepExecution saved = jobExplorer.getJobExecution(execution.getId()).getStepExecutions().iterator().next();
+		assertEquals(BatchStatus.COMPLETED, saved.getStatus());
+		assertEquals(ITEMS, saved.getReadCount());
+		assertEquals(ITEMS, saved.getWriteCount());
+		assertEquals(ITEMS / 10 + 1, saved.getCommitCount());
+		// 마지막 null read 도 세어짐
+		assertEquals(ITEMS + 1, saved.getExecutionContext().getInt("numbers.read.count"));
+	}
+
+	@Test
+	void restartResumesAfterLastCommittedChunk() throws Exception {
+		JobParameters parameters = new JobParametersBuilder().addLong("run", 2L).toJobParameters();
+		failAt = 555;
+		JobExecution failed = run(parameters);
+
+		assertEquals(BatchStatus.FAILED, failed.getStatus());
+		StepExecution saved = jobExplorer.getJobExecution(failed.getId()).getStepExecutions().iterator().next();
+		assertEquals(550, saved.getExecutionContext().getInt("numbers.read.count"));
+		assertEquals(550, count());
+
+		failAt = -1;
+		JobExecution restarted = run(parameters);
+
+		assertEquals(BatchStatus.COMPLETED, restarted.getStatus());
+		assertEquals(ITEMS, count());
+	}
+
+	private JobExecution run(JobParameters parameters) throws Exception {
+		TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+		launcher.setJobRepository(jobRepository);
+		launcher.afterPropertiesSet();
+		return launcher.run(new JobBuilder("coalescingJob", jobRepository)
+				.start(new StepBuilder("numbers", jobRepository)
+						.<Integer, Integer>chunk(10, transactionManager)
+						.reader(new NumberReader())
+						.writer(chunk -> {
+							for (Integer n : chunk) {
+								if (n == failAt) {
+									throw new IllegalStateException("fail at " + n);
+								}
+								jdbcTemplate.update("INSERT INTO numbers (n) VALUES (?)", n);
+							}
+						})
+						.build())
+				.build(), parameters);
+	}
+
+	private int count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM numbers", Integer.class);
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.demo.batch.wordcount;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * partition sketch 는 step execution id 로 메모리에서 넘겨받아 합치고, partition ExecutionContext 에는 남기지 않는다.
+ */
+class HeavyHitterAggregatorTests {
+
+	@Test
+	void mergesCollectedSketchesAndForgetsThem() {
+		HeavyHitterAggregator aggregator = new HeavyHitterAggregator(2);
+		JobExecution job = new JobExecution(1L);
+		StepExecution master = new StepExecution("master", job, 10L);
+		StepExecution first = partition(job, 11L, "a", "a", "b");
+		StepExecution second = partition(job, 12L, "a", "c", "c", "c");
+		aggregator.collect(first.getId(), sketch("a", "a", "b"));
+		aggregator.collect(second.getId(), sketch("a", "c", "c", "c"));
+		// 실패한 partition 은 sketch 가 없음
+		StepExecution failed = new StepExecution("partition", job, 13L);
+		failed.setStatus(BatchStatus.FAILED);
+
+		aggregator.aggregate(master, List.of(first, second, failed));
+
+		assertEquals(7, master.getExecutionContext().getLong(WordCountTasklet.TOTAL_KEY));
+		assertEquals("a=3,c=3", master.getExecutionContext().getString(WordCountTasklet.TOP_KEY));
+		assertEquals(0, aggregator.pending());
+		assertFalse(first.getExecutionContext().containsKey("wordCount.sketch"));
+	}
+
+	private static StepExecution partition(JobExecution job, long id, String... words) {
+		StepExecution execution = new StepExecution("partition", job, id);
+		execution.setStatus(BatchStatus.COMPLETED);
+		execution.getExecutionContext().putLong(WordCountTasklet.TOTAL_KEY, words.length);
+		return execution;
+	}
+
+	private static HeavyHitterSketch sketch(String... words) {
+		HeavyHitterSketch sketch = new HeavyHitterSketch(0.01, 0.01, 10);
+		for (String word : words) {
+			sketch.add(word);
+		}
+		return sketch;
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.demo.batch.wordcount;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HeavyHitterSketchTests {
+
+	@Test
+	void mergedPartitionsFindExactTopWordsWithinErrorBound() {
+		Random random = new Random(11);
+		Map<String, Long> exact = new HashMap<>();
+		HeavyHitterSketch[] partitions = new HeavyHitterSketch[3];
+		for (int p = 0; p < partitions.length; p++) {
+			partitions[p] = new HeavyHitterSketch(0.001, 0.01, 50);
+		}
+
+		// zipf 비슷한 분포 : 앞쪽 단어일수록 많이 나옴, 뒤쪽은 긴 꼬리
+		for (int i = 0; i < 300_000; i++) {
+			int rank = (int) Math.floor(Math.pow(20_000, random.nextDouble()));
+			String word = "w" + rank;
+			exact.merge(word, 1L, Long::sum);
+			partitions[i % partitions.length].add(word);
+		}
+
+		HeavyHitterSketch merged = HeavyHitterSketch.fromBase64(partitions[0].toBase64());
+		merged.merge(partitions[1]);
+		merged.merge(HeavyHitterSketch.fromBase64(partitions[2].toBase64()));
+
+		assertEquals(300_000, merged.total());
+		List<String> expectedTop = exact.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed()).limit(5).map(Map.Entry::getKey).toList();
+		List<WordCountEngine.WordCount> top = merged.topK(5);
+		assertEquals(expectedTop, top.stream().map(WordCountEngine.WordCount::word).toList());
+		for (WordCountEngine.WordCount wc : top) {
+			long actual = exact.get(wc.word());
+			assertTrue(wc.count() >= actual && wc.count() <= actual + merged.errorBound(), wc.toString());
+		}
+	}
+
+	@Test
+	void rejectsSketchesWithDifferentDimensions() {
+		HeavyHitterSketch a = new HeavyHitterSketch(0.001, 0.01, 10);
+		HeavyHitterSketch b = new HeavyHitterSketch(0.01, 0.01, 10);
+		assertThrows(IllegalArgumentException.class, () -> a.merge(b));
+	}
+}
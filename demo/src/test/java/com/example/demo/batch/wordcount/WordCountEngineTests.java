@@ -0,0 +1,60 @@
+package com.example.demo.batch.wordcount;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WordCountEngineTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void matchesSplitAndRegexSemanticsAcrossRanges() throws IOException {
+		String[] vocabulary = { "Apple", "apple", "BANANA", "cherry_1", "p2", "don't", "a,b", "x-y", "Zebra", "42" };
+		String[] separators = { " ", "  ", "\t", "\n", "\r\n", " \f" };
+		Random random = new Random(7);
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 3 * 1024 * 1024) {
+			sb.append(vocabulary[random.nextInt(vocabulary.length)]);
+			sb.append(separators[random.nextInt(separators.length)]);
+		}
+		Path file = Files.writeString(dir.resolve("words.txt"), sb.toString());
+
+		Map<String, Long> expected = new HashMap<>();
+		for (String line : Files.readAllLines(file)) {
+			Arrays.stream(line.split("\\s+")).filter(w -> w.matches("\\w+")).map(String::toLowerCase)
+					.forEach(w -> expected.merge(w, 1L, Long::sum));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			WordCountMap counts = new WordCountEngine(executor, 4).count(file);
+
+			assertEquals(expected.size(), counts.size());
+			assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), counts.total());
+			expected.forEach((word, count) -> assertEquals(count, counts.get(word), word));
+
+			List<WordCountEngine.WordCount> top = WordCountEngine.topK(counts, 3);
+			List<Map.Entry<String, Long>> reference = expected.entrySet().stream()
+					.sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+					.limit(3).toList();
+			assertEquals(reference.stream().map(Map.Entry::getKey).toList(),
+					top.stream().map(WordCountEngine.WordCount::word).toList());
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.demo.batch.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.example.demo.batch.config.SampleData;
+import com.example.demo.batch.model.RecordSchema;
+
+class ColumnarJdbcItemWriterTests {
+
+	private EmbeddedDatabase dataSource;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		new JdbcTemplate(dataSource).execute("CREATE TABLE tbl_test (c1 VARCHAR(20), c2 VARCHAR(50), c3 VARCHAR(20),"
+				+ " c4 NUMERIC(12, 2), c5 BIGINT, c6 DATE)");
+	}
+
+	@AfterEach
+	void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	void bindsTypedColumnsAndNulls() throws Exception {
+		RecordSchema schema = SampleData.SCHEMA.withTypes("c4:decimal(2),c5:long,c6:date");
+		SampleData phone = new SampleData(schema);
+		phone.setC1("PR....210");
+		phone.setC2("BlackBerry 8100 Pearl");
+		phone.setC4("124.60");
+		phone.setC5("3");
+		phone.setC6("2024-01-31");
+		SampleData empty = new SampleData(schema);
+		empty.setC1("P2....AA");
+
+		ColumnarJdbcItemWriter writer = new ColumnarJdbcItemWriter();
+		writer.setDataSource(dataSource);
+		writer.setTable("tbl_test");
+		writer.setColumns("c1", "c2", "c3", "c4", "c5", "c6");
+		writer.setFields(0, 1, 2, 3, 4, 5);
+		writer.afterPropertiesSet();
+		writer.write(new Chunk<>(phone, empty));
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM tbl_test WHERE c1 = 'PR....210'");
+		assertEquals(new BigDecimal("124.60"), row.get("C4"));
+		assertEquals(3L, row.get("C5"));
+		assertEquals(Date.valueOf("2024-01-31"), row.get("C6"));
+		assertNull(row.get("C3"));
+
+		Map<String, Object> nulls = jdbcTemplate.queryForMap("SELECT * FROM tbl_test WHERE c1 = 'P2....AA'");
+		assertNull(nulls.get("C4"));
+		assertNull(nulls.get("C5"));
+		assertNull(nulls.get("C6"));
+	}
+
+	@Test
+	void mixedSchemasFallBackToText() throws Exception {
+		SampleData product = new SampleData(SampleData.SCHEMA.withTypes("c4:decimal(2)"));
+		product.setC1("PR....210");
+		product.setC4("97.8");
+		SampleData range = new SampleData(SampleData.SCHEMA.withTypes("c2:long,c3:long"));
+		range.setC1("00");
+		range.setC2("1");
+		range.setC4("7");
+
+		new JdbcTemplate(dataSource).execute("CREATE TABLE tbl_text (c1 VARCHAR(20), c2 VARCHAR(20), c4 VARCHAR(20))");
+		ColumnarJdbcItemWriter writer = new ColumnarJdbcItemWriter();
+		writer.setDataSource(dataSource);
+		writer.setTable("tbl_text");
+		writer.setColumns("c1", "c2", "c4");
+		writer.setFields(0, 1, 3);
+		writer.afterPropertiesSet();
+		writer.write(new Chunk<>(product, range));
+
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		assertEquals("97.80", jdbcTemplate.queryForObject("SELECT c4 FROM tbl_text WHERE c1 = 'PR....210'", String.class));
+		assertEquals("1", jdbcTemplate.queryForObject("SELECT c2 FROM tbl_text WHERE c1 = '00'", String.class));
+		assertEquals("7", jdbcTemplate.queryForObject("SELECT c4 FROM tbl_text WHERE c1 = '00'", String.class));
+	}
+}
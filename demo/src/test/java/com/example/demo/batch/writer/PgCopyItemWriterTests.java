@@ -0,0 +1,80 @@
+package com.example.demo.batch.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.batch.config.SampleData;
+
+class PgCopyItemWriterTests {
+
+	private EmbeddedDatabase dataSource;
+
+	private PgCopyItemWriter<SampleData> writer;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		new JdbcTemplate(dataSource).execute("CREATE TABLE people (first_name VARCHAR(20), last_name VARCHAR(20))");
+
+		JdbcBatchItemWriter<SampleData> insertWriter = new JdbcBatchItemWriter<>();
+		insertWriter.setDataSource(dataSource);
+		insertWriter.setSql("INSERT INTO people (first_name, last_name) VALUES (:c1, :c2)");
+		insertWriter.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>());
+		insertWriter.afterPropertiesSet();
+
+		writer = new PgCopyItemWriter<>();
+		writer.setDataSource(dataSource);
+		writer.setTable("people");
+		writer.setColumns("first_name", "last_name");
+		writer.setFieldExtractor(sd -> new Object[] { sd.getC1(), sd.getC2() });
+		writer.setFallback(insertWriter);
+		writer.afterPropertiesSet();
+	}
+
+	@AfterEach
+	void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	void fallsBackToInsertWriterInChunkTransaction() {
+		TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		Chunk<SampleData> chunk = new Chunk<>(new SampleData("Jill", "Doe", null, null, null, null),
+				new SampleData("Joe", "Doe", null, null, null, null));
+
+		tx.executeWithoutResult(status -> write(chunk));
+		tx.executeWithoutResult(status -> {
+			write(chunk);
+			status.setRollbackOnly();
+		});
+
+		assertEquals(2, new JdbcTemplate(dataSource).queryForObject("SELECT count(*) FROM people", Integer.class));
+	}
+
+	@Test
+	void encodesCsvRows() {
+		StringBuilder sb = new StringBuilder();
+		PgCopyItemWriter.appendCsvRow(sb, new Object[] { "PR....210", null, "", "a,\"b\"", " x" });
+		assertEquals("PR....210,,\"\",\"a,\"\"b\"\"\",\" x\"\n", sb.toString());
+	}
+
+	private void write(Chunk<SampleData> chunk) {
+		try {
+			writer.write(chunk);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
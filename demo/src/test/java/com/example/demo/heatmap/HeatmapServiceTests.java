@@ -0,0 +1,155 @@
+package com.example.demo.heatmap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * H2 의 tbl_range 를 읽어 JSON 을 쓰고, data version(HM_STEP_EXECUTION.LAST_UPDATED)이 같으면 캐시와 304 를 쓰는지 확인한다.
+ */
+class HeatmapServiceTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private JdbcTemplate jdbcTemplate;
+
+	private HeatmapService service;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:heatmap;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS tbl_range");
+		jdbcTemplate.execute("DROP TABLE IF EXISTS HM_STEP_EXECUTION");
+		jdbcTemplate.execute("CREATE TABLE HM_STEP_EXECUTION (LAST_UPDATED TIMESTAMP)");
+		RangeTable.create(jdbcTemplate, "tbl_range");
+		insert("00", 0L, 1L, "1");
+		insert("00", 1L, 2L, "1");
+		insert("00", 2L, 5L, "2");
+		insert("01", 3L, 4L, "3");
+		// end 가 없는 행은 제외
+		insert("02", 3L, null, "2");
+
+		service = new HeatmapService(jdbcTemplate, new DataSourceTransactionManager(dataSource), "tbl_range", "HM_",
+				100, 4000, 16, 1 << 20, 0);
+	}
+
+	@Test
+	void writesDownsampledRangesOverWholeExtent() throws Exception {
+		JsonNode json = write(service.query(null, null, 20, null));
+
+		assertEquals(0, json.get("from").asLong());
+		assertEquals(5, json.get("to").asLong());
+		assertEquals(4, json.get("rows").asInt());
+		// 00 의 같은 tt 로 붙은 두 구간은 하나로
+		assertEquals(3, json.get("segments").asInt());
+		assertEquals("00", json.get("data").get(0).get("cc").asText());
+		assertEquals(2, json.get("data").get(0).get("n").asInt());
+
+		// 화면 구간보다 앞에서 시작하는 긴 구간도 포함 (range_start 하한 = from - 최대 길이)
+		JsonNode right = write(service.query(4L, 4L, 20, null));
+		assertEquals(2, right.get("rows").asInt());
+
+		JsonNode lane = write(service.query(3L, 3L, 20, List.of("01")));
+		assertEquals(1, lane.get("rows").asInt());
+		assertEquals("3", lane.get("data").get(0).get("tt").asText());
+	}
+
+	@Test
+	void servesCachedBodyAndExtentUntilVersionChanges() throws Exception {
+		HeatmapService.Query query = service.query(null, null, 20, null);
+		String before = new String(writeBytes(query), StandardCharsets.UTF_8);
+
+		insert("03", 10L, 20L, "1");
+		// 같은 version 이면 캐시된 응답
+		assertEquals(before, new String(writeBytes(query), StandardCharsets.UTF_8));
+
+		bumpVersion();
+		JsonNode after = objectMapper.readTree(writeBytes(query));
+		assertEquals(20, after.get("to").asLong());
+		assertEquals(5, after.get("rows").asInt());
+	}
+
+	@Test
+	void answersNotModifiedForCurrentEtag() throws Exception {
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new HeatmapController(service)).build();
+
+		MvcResult started = mvc.perform(get("/api/heatmap").param("buckets", "20")).andReturn();
+		MvcResult first = mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+		String etag = first.getResponse().getHeader("ETag");
+		assertEquals(4, objectMapper.readTree(first.getResponse().getContentAsByteArray()).get("rows").asInt());
+
+		mvc.perform(get("/api/heatmap").param("buckets", "20").header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+		// 다른 질의는 다른 ETag
+		mvc.perform(get("/api/heatmap").param("buckets", "10").header("If-None-Match", etag))
+				.andExpect(status().isOk());
+
+		bumpVersion();
+		MvcResult changed = mvc.perform(get("/api/heatmap").param("buckets", "20").header("If-None-Match", etag))
+				.andExpect(status().isOk()).andExpect(header().exists("ETag")).andReturn();
+		assertNotEquals(etag, changed.getResponse().getHeader("ETag"));
+
+		mvc.perform(get("/api/heatmap").param("from", "5").param("to", "1")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void rejectsOneSidedRangeOutsideData() throws Exception {
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new HeatmapController(service)).build();
+
+		// to 는 데이터 끝(5), from 은 그 뒤 / from 은 데이터 시작(0), to 는 그 앞
+		mvc.perform(get("/api/heatmap").param("from", "100")).andExpect(status().isBadRequest());
+		mvc.perform(get("/api/heatmap").param("to", "-1")).andExpect(status().isBadRequest());
+
+		MvcResult started = mvc.perform(get("/api/heatmap").param("from", "4")).andReturn();
+		JsonNode json = objectMapper.readTree(
+				mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn().getResponse()
+						.getContentAsByteArray());
+		assertEquals(4, json.get("from").asLong());
+		assertEquals(5, json.get("to").asLong());
+	}
+
+	private JsonNode write(HeatmapService.Query query) throws Exception {
+		return objectMapper.readTree(writeBytes(query));
+	}
+
+	private byte[] writeBytes(HeatmapService.Query query) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.write(query, service.version(), out);
+		return out.toByteArray();
+	}
+
+	private void insert(String cc, Long start, Long end, String tt) {
+		jdbcTemplate.update("INSERT INTO tbl_range (cc, range_start, range_end, tt) VALUES (?, ?, ?, ?)", cc, start,
+				end, tt);
+	}
+
+	// batch chunk commit 처럼 step execution 갱신 시각을 바꿈
+	private void bumpVersion() {
+		Timestamp last = jdbcTemplate.queryForObject("SELECT MAX(LAST_UPDATED) FROM HM_STEP_EXECUTION",
+				Timestamp.class);
+		long next = last == null ? System.currentTimeMillis() : last.getTime() + 1000;
+		jdbcTemplate.update("INSERT INTO HM_STEP_EXECUTION (LAST_UPDATED) VALUES (?)", new Timestamp(next));
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.demo.heatmap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RangeDownsamplerTests {
+
+	@Test
+	void fullZoomKeepsRangesExceptTouchingSameType() {
+		List<RangeSegment> out = new ArrayList<>();
+		RangeDownsampler sampler = new RangeDownsampler(0, 20, 20, out::add);
+		sampler.accept("00", 0, 1, "1");
+		sampler.accept("00", 1, 2, "1");
+		sampler.accept("00", 2, 5, "2");
+		sampler.accept("01", 3, 4, "3");
+		sampler.finish();
+
+		assertEquals(1, sampler.getBucketWidth());
+		assertEquals(List.of(
+				new RangeSegment("00", 0, 2, "1", 2),
+				new RangeSegment("00", 2, 5, "2", 1),
+				new RangeSegment("01", 3, 4, "3", 1)), out);
+		assertEquals(4, sampler.getInputCount());
+		assertEquals(3, sampler.getOutputCount());
+	}
+
+	@Test
+	void snapsToBucketsAndHidesCoveredRanges() {
+		List<RangeSegment> out = new ArrayList<>();
+		// 칸 폭 10
+		RangeDownsampler sampler = new RangeDownsampler(0, 100, 10, out::add);
+		sampler.accept("00", 1, 3, "1");
+		sampler.accept("00", 4, 6, "2"); // 0~10 칸은 이미 tt 1 이 가짐
+		sampler.accept("00", 5, 25, "2"); // 10 부터 잘라서 출력
+		sampler.accept("00", 31, 32, "1");
+		sampler.accept("00", 38, 45, "1"); // 30~40 칸과 겹쳐서 합쳐짐
+		sampler.finish();
+
+		assertEquals(10, sampler.getBucketWidth());
+		assertEquals(List.of(
+				new RangeSegment("00", 0, 10, "1", 1),
+				new RangeSegment("00", 10, 30, "2", 1),
+				new RangeSegment("00", 30, 50, "1", 2)), out);
+		assertEquals(1, sampler.getHiddenCount());
+	}
+
+	@Test
+	void outputPerLaneIsBoundedByBuckets() {
+		List<RangeSegment> out = new ArrayList<>();
+		RangeDownsampler sampler = new RangeDownsampler(0, 1_000_000, 100, out::add);
+		for (int i = 0; i < 1_000_000; i += 2) {
+			sampler.accept("00", i, i + 1, String.valueOf(i % 3));
+		}
+		sampler.finish();
+
+		assertTrue(out.size() <= 100, "segments : " + out.size());
+		assertEquals(500_000, sampler.getInputCount());
+	}
+
+	@Test
+	void clipsToVisibleRange() {
+		List<RangeSegment> out = new ArrayList<>();
+		RangeDownsampler sampler = new RangeDownsampler(10, 20, 10, out::add);
+		sampler.accept("00", 0, 5, "1");
+		sampler.accept("00", 8, 12, "1");
+		sampler.accept("00", 18, 30, "2");
+		sampler.finish();
+
+		assertEquals(List.of(
+				new RangeSegment("00", 10, 12, "1", 1),
+				new RangeSegment("00", 18, 20, "2", 1)), out);
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.demo.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class FileClaimRegistryTests {
+
+	private DriverManagerDataSource dataSource;
+
+	private final List<FileClaimRegistry> registries = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:claims;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+		new JdbcTemplate(dataSource).execute("DROP TABLE IF EXISTS ingest_file_claim");
+	}
+
+	@AfterEach
+	void tearDown() {
+		registries.forEach(FileClaimRegistry::stop);
+	}
+
+	@Test
+	void onlyOneNodeHoldsAFileUntilRelease() {
+		FileClaimRegistry a = node("a", 60_000, 20_000);
+		FileClaimRegistry b = node("b", 60_000, 20_000);
+
+		assertTrue(a.tryClaim("/in/x.txt"));
+		assertTrue(a.tryClaim("/in/x.txt"), "owner may re-claim");
+		assertFalse(b.tryClaim("/in/x.txt"));
+
+		a.release("/in/x.txt");
+		assertTrue(b.tryClaim("/in/x.txt"));
+		assertFalse(a.tryClaim("/in/x.txt"));
+	}
+
+	@Test
+	void expiredLeaseIsRecoveredButHeartbeatKeepsIt() throws Exception {
+		FileClaimRegistry dead = node("dead", 300, 100);
+		FileClaimRegistry alive = node("alive", 300, 100);
+		FileClaimRegistry other = node("other", 300, 100);
+
+		assertTrue(dead.tryClaim("/in/dead.txt"));
+		assertTrue(alive.tryClaim("/in/alive.txt"));
+		dead.stop(); // heartbeat 중단 = 노드 장애
+
+		Thread.sleep(800);
+		assertTrue(other.tryClaim("/in/dead.txt"), "expired lease should be recoverable");
+		assertFalse(other.tryClaim("/in/alive.txt"), "renewed lease should still be held");
+
+		dead.renew();
+		assertFalse(dead.isHeld("/in/dead.txt"));
+	}
+
+	@Test
+	void concurrentClaimsHaveSingleWinner() throws Exception {
+		List<FileClaimRegistry> nodes = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			nodes.add(node("n" + i, 60_000, 20_000));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+		try {
+			for (int file = 0; file < 20; file++) {
+				String path = "/in/f" + file + ".txt";
+				List<Callable<Boolean>> attempts = new ArrayList<>();
+				nodes.forEach(n -> attempts.add(() -> n.tryClaim(path)));
+				int winners = 0;
+				for (Future<Boolean> result : executor.invokeAll(attempts)) {
+					winners += result.get() ? 1 : 0;
+				}
+				assertEquals(1, winners, path);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private FileClaimRegistry node(String owner, long leaseMillis, long heartbeatMillis) {
+		FileClaimRegistry registry = new FileClaimRegistry(new JdbcTemplate(dataSource),
+				new DataSourceTransactionManager(dataSource), true, owner, leaseMillis, heartbeatMillis);
+		// H2 2.1 은 SKIP LOCKED 미지원
+		registry.setLockClause("FOR UPDATE");
+		registry.init();
+		registries.add(registry);
+		return registry;
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.demo.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.JobRegistry;
+import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.batch.compute.ParallelComputeService;
+import com.example.demo.batch.config.SimpleJobConfiguration;
+
+/**
+ * H2 job repository 로 simpleJob(@StepScope StoppableTasklet)을 실행중에 중지하고, 다시 dispatch 하면
+ * 같은 job instance 로 restart 되어 끝나는지 확인한다.
+ */
+class FileJobDispatcherTests {
+
+	@TempDir
+	Path inputDir;
+
+	private AnnotationConfigApplicationContext context;
+
+	private FileJobDispatcher dispatcher;
+
+	@Configuration
+	@EnableBatchProcessing
+	@Import(SimpleJobConfiguration.class)
+	static class TestConfig {
+
+		@Bean
+		DataSource dataSource() {
+			return new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+					.addScript("/org/springframework/batch/core/schema-h2.sql").build();
+		}
+
+		@Bean
+		PlatformTransactionManager transactionManager(DataSource dataSource) {
+			return new DataSourceTransactionManager(dataSource);
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate(DataSource dataSource) {
+			return new JdbcTemplate(dataSource);
+		}
+
+		@Bean
+		ParallelComputeService computeService() {
+			return new ParallelComputeService(2, 0, 16, 20);
+		}
+	}
+
+	@AfterEach
+	void close() throws Exception {
+		if (dispatcher != null) {
+			dispatcher.destroy();
+		}
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	void stopsOnlyTheFiresExecutionAndRestartsIt() throws Exception {
+		context = new AnnotationConfigApplicationContext(TestConfig.class);
+		JobExplorer jobExplorer = context.getBean(JobExplorer.class);
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		dispatcher = new FileJobDispatcher(context.getBean(JobLauncher.class), context.getBean(JobRegistry.class),
+				context.getBean(JobOperator.class), jobExplorer, new ProcessedFileLedger(jdbcTemplate, false),
+				new FileClaimRegistry(jdbcTemplate, context.getBean(PlatformTransactionManager.class), false, "",
+						60_000, 20_000),
+				1, 10, "none", "_", 5_000, 50);
+
+		File file = Files.writeString(inputDir.resolve("stop_me.txt"), "x").toFile();
+		File other = inputDir.resolve("not_mine.txt").toFile();
+
+		assertTrue(dispatcher.dispatch("simpleJob", file));
+		StepExecution step = awaitRunningStep(jobExplorer);
+
+		// 다른 fire 의 파일로는 중지되지 않음
+		assertEquals(0, dispatcher.stopRunning(List.of(other)));
+		assertEquals(1, dispatcher.stopRunning(List.of(file)));
+		dispatcher.awaitCompletion(List.of(file));
+
+		JobExecution stopped = jobExplorer.getJobExecution(step.getJobExecutionId());
+		assertEquals(BatchStatus.STOPPED, stopped.getStatus());
+
+		// 다시 dispatch 하면 새 instance 가 아니라 중지된 execution 을 restart
+		assertTrue(dispatcher.dispatch("simpleJob", file));
+		dispatcher.awaitCompletion(List.of(file));
+
+		JobInstance instance = stopped.getJobInstance();
+		List<JobExecution> executions = jobExplorer.getJobExecutions(instance);
+		assertEquals(2, executions.size());
+		assertEquals(BatchStatus.COMPLETED, jobExplorer.getLastJobExecution(instance).getStatus());
+		assertEquals(1, jobExplorer.getJobInstanceCount("simpleJob"));
+	}
+
+	private static StepExecution awaitRunningStep(JobExplorer jobExplorer) throws Exception {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (System.currentTimeMillis() < deadline) {
+			for (JobExecution execution : jobExplorer.findRunningJobExecutions("simpleJob")) {
+				for (StepExecution step : jobExplorer.getJobExecution(execution.getId()).getStepExecutions()) {
+					if (step.getStatus() == BatchStatus.STARTED) {
+						return step;
+					}
+				}
+			}
+			Thread.sleep(20);
+		}
+		throw new AssertionError("simpleJob step did not start");
+	}
+}
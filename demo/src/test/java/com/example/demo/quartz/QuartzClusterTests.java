@@ -0,0 +1,226 @@
+package com.example.demo.quartz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quartz.CronTrigger;
+import org.quartz.JobBuilder;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.spi.TriggerFiredBundle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.quartz.SchedulerFactoryBean;
+import org.springframework.scheduling.quartz.SpringBeanJobFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.ingest.FileJobDispatcher;
+import com.example.demo.quartz.config.QuartzClusterSupport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 한 JVM 에서 scheduler 3 개를 같은 DB(H2) 로 클러스터링하고, QuartzService.addSlotJobs 로 등록한 QuartzJob slot job 이
+ * 노드들에 나뉘고 각 파일이 정확히 한 번만 dispatch 되는지 확인한다.
+ * FileJobDispatcher 는 stub 이다 : dispatch 를 기록하고, awaitCompletion 에서 job 실행 시간만큼 기다린 뒤
+ * 처리한 파일을 입력 디렉토리에서 지운다 (ledger 대신).
+ */
+class QuartzClusterTests {
+
+	private static final int SLOTS = 8;
+
+	private static final List<String> FILES = IntStream.range(0, 200).mapToObj(i -> "file_" + i + ".txt")
+			.collect(Collectors.toList());
+
+	@TempDir
+	Path inputDir;
+
+	// 파일 -> dispatch 횟수 / 처리한 노드, 같은 파일이 동시에 실행된 경우
+	private final Map<String, AtomicInteger> processed = new ConcurrentHashMap<>();
+
+	private final Map<String, String> processedBy = new ConcurrentHashMap<>();
+
+	private final Set<String> overlapped = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+
+	private final List<SchedulerFactoryBean> nodes = new ArrayList<>();
+
+	private final List<FileJobDispatcher> dispatchers = new ArrayList<>();
+
+	/**
+	 * 노드 하나의 FileJobDispatcher 대역.
+	 */
+	private class StubDispatcher extends FileJobDispatcher {
+
+		private final String node;
+
+		StubDispatcher(String node) {
+			super(null, null, null, null, null, null, 1, 0, "none", "_", 1_000, 1);
+			this.node = node;
+		}
+
+		@Override
+		public boolean dispatch(String jobName, File file) {
+			processed.computeIfAbsent(file.getName(), k -> new AtomicInteger()).incrementAndGet();
+			processedBy.put(file.getName(), node);
+			if (running.computeIfAbsent(file.getName(), k -> new AtomicInteger()).incrementAndGet() > 1) {
+				overlapped.add(file.getName());
+			}
+			return true;
+		}
+
+		@Override
+		public void awaitCompletion(Collection<File> files) throws InterruptedException {
+			if (files.isEmpty()) {
+				return;
+			}
+			Thread.sleep(300);
+			for (File file : files) {
+				running.get(file.getName()).decrementAndGet();
+				try {
+					Files.deleteIfExists(file.toPath());
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+	}
+
+	// AutowiringSpringBeanJobFactory 대신 노드의 stub dispatcher 와 입력 디렉토리만 넣음
+	private class NodeJobFactory extends SpringBeanJobFactory {
+
+		private final FileJobDispatcher dispatcher;
+
+		NodeJobFactory(FileJobDispatcher dispatcher) {
+			this.dispatcher = dispatcher;
+		}
+
+		@Override
+		protected Object createJobInstance(TriggerFiredBundle bundle) throws Exception {
+			Object job = super.createJobInstance(bundle);
+			ReflectionTestUtils.setField(job, "fileJobDispatcher", dispatcher);
+			ReflectionTestUtils.setField(job, "inputDir", inputDir.toString());
+			ReflectionTestUtils.setField(job, "maxFilesPerFire", 100L);
+			return job;
+		}
+	}
+
+	@AfterEach
+	void shutdown() throws Exception {
+		for (SchedulerFactoryBean node : nodes) {
+			node.destroy();
+		}
+		for (FileJobDispatcher dispatcher : dispatchers) {
+			dispatcher.destroy();
+		}
+	}
+
+	@Test
+	void initializeSchemaCreatesOnlyMissingTablesAndKeepsData() throws Exception {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:quartz-schema;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+		QuartzClusterSupport.initializeSchema(dataSource);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("INSERT INTO QRTZ_LOCKS (SCHED_NAME, LOCK_NAME) VALUES ('keep', 'TRIGGER_ACCESS')");
+		jdbcTemplate.execute("DROP TABLE QRTZ_CALENDARS");
+
+		QuartzClusterSupport.initializeSchema(dataSource);
+
+		// 없는 테이블만 다시 만들고 기존 테이블의 행은 그대로
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM QRTZ_LOCKS WHERE SCHED_NAME = 'keep'",
+				Integer.class));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM QRTZ_CALENDARS", Integer.class));
+	}
+
+	@Test
+	void slotJobsAreSharedAcrossNodesWithoutDoubleProcessing() throws Exception {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:quartz-cluster;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+		QuartzClusterSupport.initializeSchema(dataSource);
+		// 두 번째 호출은 테이블이 있으므로 아무것도 하지 않아야 함
+		QuartzClusterSupport.initializeSchema(dataSource);
+		for (String file : FILES) {
+			Files.writeString(inputDir.resolve(file), "x");
+		}
+
+		for (int i = 0; i < 3; i++) {
+			Properties base = new Properties();
+			base.setProperty("org.quartz.scheduler.instanceName", "ClusterTest");
+			base.setProperty("org.quartz.scheduler.instanceId", "node-" + i);
+			base.setProperty("org.quartz.threadPool.threadCount", "1");
+			base.setProperty("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
+
+			FileJobDispatcher dispatcher = new StubDispatcher("node-" + i);
+			dispatchers.add(dispatcher);
+			SchedulerFactoryBean node = new SchedulerFactoryBean();
+			node.setDataSource(dataSource);
+			node.setTransactionManager(new DataSourceTransactionManager(dataSource));
+			node.setQuartzProperties(QuartzClusterSupport.clusterProperties(base,
+					"org.quartz.impl.jdbcjobstore.PostgreSQLDelegate", 1000));
+			node.setJobFactory(new NodeJobFactory(dispatcher));
+			node.setWaitForJobsToCompleteOnShutdown(true);
+			node.setAutoStartup(false);
+			node.afterPropertiesSet();
+			nodes.add(node);
+		}
+
+		Scheduler first = nodes.get(0).getScheduler();
+		// 이전 설정(slot 10개)에서 남은 slot job
+		for (int slot = SLOTS; slot < 10; slot++) {
+			first.addJob(JobBuilder.newJob(QuartzJob.class).withIdentity("simpleJob#" + slot, "ingest-slots")
+					.storeDurably().build(), false);
+		}
+
+		// 모든 노드가 같은 정의로 등록 (덮어씀)
+		for (SchedulerFactoryBean node : nodes) {
+			new QuartzService(node.getScheduler(), new QuartzMetrics(new SimpleMeterRegistry(), 10))
+					.addSlotJobs(QuartzJob.class, "simpleJob", "simpleJob 입니다", SLOTS, "* * * * * ?");
+		}
+
+		Set<JobKey> keys = first.getJobKeys(GroupMatcher.jobGroupEquals("ingest-slots"));
+		assertEquals(SLOTS, keys.size());
+		assertFalse(first.checkExists(JobKey.jobKey("simpleJob#" + SLOTS, "ingest-slots")));
+		assertTrue(first.getJobDetail(JobKey.jobKey("simpleJob#0", "ingest-slots")).requestsRecovery());
+		assertEquals(CronTrigger.MISFIRE_INSTRUCTION_DO_NOTHING,
+				first.getTrigger(TriggerKey.triggerKey("simpleJob#0", "ingest-slots")).getMisfireInstruction());
+
+		for (SchedulerFactoryBean node : nodes) {
+			node.start();
+		}
+
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (Files.list(inputDir).findAny().isPresent() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(100);
+		}
+		// 지운 뒤의 fire 가 끝나도록
+		Thread.sleep(1500);
+
+		assertEquals(Set.copyOf(FILES), processed.keySet(), "not every file was dispatched");
+		processed.forEach((file, count) -> assertEquals(1, count.get(), file));
+		assertTrue(overlapped.isEmpty(), "processed concurrently : " + overlapped);
+		assertTrue(Set.copyOf(processedBy.values()).size() > 1, "slots all ran on one node : " + processedBy.values());
+	}
+}
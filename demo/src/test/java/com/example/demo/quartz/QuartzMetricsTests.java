@@ -0,0 +1,99 @@
+package com.example.demo.quartz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 스레드 1 개짜리 RAMJobStore scheduler 로 지연, 실행시간, veto, misfire 가 지표와 이력에 남는지 확인한다.
+ */
+class QuartzMetricsTests {
+
+	private Scheduler scheduler;
+
+	public static class SleepJob implements Job {
+
+		@Override
+		public void execute(JobExecutionContext context) {
+			try {
+				Thread.sleep(300);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@AfterEach
+	void shutdown() throws SchedulerException {
+		if (scheduler != null) {
+			scheduler.shutdown(true);
+		}
+	}
+
+	@Test
+	void recordsLagRunTimeVetoAndMisfire() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty("org.quartz.scheduler.instanceName", "MetricsTest");
+		properties.setProperty("org.quartz.threadPool.threadCount", "1");
+		properties.setProperty("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
+		properties.setProperty("org.quartz.jobStore.misfireThreshold", "1000");
+		scheduler = new StdSchedulerFactory(properties).getScheduler();
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		QuartzMetrics metrics = new QuartzMetrics(registry, 10);
+		scheduler.getListenerManager().addJobListener(new QuartzJobListener(metrics));
+		scheduler.getListenerManager().addTriggerListener(new QuartzTriggerListener(metrics));
+		metrics.setThreadPoolSize(scheduler.getMetaData().getThreadPoolSize());
+
+		for (int slot = 0; slot < 2; slot++) {
+			scheduler.scheduleJob(JobBuilder.newJob(SleepJob.class).withIdentity("sleepy#" + slot, "ingest-slots").build(),
+					TriggerBuilder.newTrigger().startNow().build());
+		}
+		scheduler.scheduleJob(JobBuilder.newJob(SleepJob.class).withIdentity("vetoed").usingJobData("executeCount", 2)
+				.build(), TriggerBuilder.newTrigger().startNow().build());
+		scheduler.scheduleJob(JobBuilder.newJob(SleepJob.class).withIdentity("late").build(),
+				TriggerBuilder.newTrigger().startAt(new Date(System.currentTimeMillis() - 10_000))
+						.withSchedule(SimpleScheduleBuilder.simpleSchedule().withMisfireHandlingInstructionFireNow())
+						.build());
+		scheduler.start();
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (metrics.history(null, QuartzMetrics.Outcome.SUCCESS, 10).size() < 3
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+
+		assertEquals(2, registry.get("quartz.job.run").tag("job", "sleepy").tag("result", "success").timer().count());
+		// 스레드가 하나라 뒤에 실행된 job 은 앞 job 이 끝날 때까지 밀림
+		assertTrue(registry.get("quartz.trigger.lag").tag("job", "sleepy").timer().max(TimeUnit.MILLISECONDS) >= 200);
+		assertEquals(1, registry.get("quartz.job.vetoed").tag("job", "vetoed").counter().count());
+		assertEquals(1, registry.get("quartz.trigger.misfired").tag("job", "late").counter().count());
+		assertEquals(1, registry.get("quartz.threadpool.size").gauge().value());
+		assertEquals(0, metrics.getActive());
+
+		List<QuartzMetrics.Fire> sleepy = metrics.history("sleepy", null, 10);
+		assertEquals(2, sleepy.size());
+		assertTrue(sleepy.get(0).runMillis() >= 300);
+		assertEquals(1, metrics.history("sleepy#1", null, 10).size());
+		assertEquals(1, metrics.history(null, QuartzMetrics.Outcome.MISFIRED, 10).size());
+		assertEquals(1, metrics.history(null, QuartzMetrics.Outcome.VETOED, 10).size());
+		assertEquals(1, metrics.history(null, null, 1).size());
+	}
+}